@@ -0,0 +1,94 @@
+package com.financorp.serf.benchmark;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.financorp.serf.monto.AcumuladorMonto;
+import com.financorp.serf.monto.MontoFijo;
+
+/**
+ * Suma, mínimo y máximo de importes en EUR convertidos con tasas de hasta 5 decimales
+ * (p. ej. COP a 0.00021): cadena de BigDecimal.add y compareTo (implementación anterior)
+ * frente a {@link AcumuladorMonto}, partiendo de BigDecimal o de importes ya en micros.
+ * Ejecutar con {@code -prof gc} para ver la memoria asignada por importe.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AcumuladorMontoBenchmark {
+
+    private static final BigDecimal[] TASAS = {
+        new BigDecimal("0.24"), new BigDecimal("0.13"), new BigDecimal("0.92"),
+        new BigDecimal("0.050"), new BigDecimal("0.00021")
+    };
+
+    @Param({"1000", "100000"})
+    private int importes;
+
+    private BigDecimal[] montos;
+    private long[] micros;
+
+    @Setup
+    public void preparar() {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        montos = new BigDecimal[importes];
+        micros = new long[importes];
+        for (int i = 0; i < importes; i++) {
+            BigDecimal precio = BigDecimal.valueOf(aleatorio.nextLong(100, 10_000_000), 2);
+            BigDecimal cantidad = BigDecimal.valueOf(aleatorio.nextInt(1, 20));
+            montos[i] = precio.multiply(TASAS[i % TASAS.length]).multiply(cantidad);
+            micros[i] = MontoFijo.aMicros(montos[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal[] antesBigDecimal() {
+        BigDecimal suma = BigDecimal.ZERO;
+        BigDecimal minimo = null;
+        BigDecimal maximo = null;
+        for (BigDecimal monto : montos) {
+            suma = suma.add(monto);
+            if (minimo == null || monto.compareTo(minimo) < 0) {
+                minimo = monto;
+            }
+            if (maximo == null || monto.compareTo(maximo) > 0) {
+                maximo = monto;
+            }
+        }
+        return new BigDecimal[] {suma, minimo, maximo};
+    }
+
+    @Benchmark
+    public AcumuladorMonto despuesDesdeBigDecimal() {
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+        for (BigDecimal monto : montos) {
+            acumulador.sumar(monto);
+        }
+        return acumulador;
+    }
+
+    @Benchmark
+    public AcumuladorMonto despuesEnMicros() {
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+        for (long monto : micros) {
+            acumulador.sumarMicros(monto);
+        }
+        return acumulador;
+    }
+}
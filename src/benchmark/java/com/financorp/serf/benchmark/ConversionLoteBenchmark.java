@@ -0,0 +1,94 @@
+package com.financorp.serf.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.config.ConversionLote;
+import com.financorp.serf.config.TablaTasasCambio;
+import com.financorp.serf.config.TablaTasasCambio.TasasPorId;
+import com.financorp.serf.monto.MontoFijo;
+
+/**
+ * 1M conversiones de precios a EUR con las tasas iniciales: BigDecimal.multiply una a una
+ * (implementación anterior), bucle escalar en punto fijo y núcleo con la Vector API.
+ * El perfil benchmark arranca JMH con {@code --add-modules=jdk.incubator.vector}; sin él
+ * la preparación falla.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConversionLoteBenchmark {
+
+    private static final int CONVERSIONES = 1_000_000;
+
+    private BigDecimal[] precios;
+    private BigDecimal[] tasasPorFila;
+    private BigDecimal[] convertidos;
+    private long[] montos;
+    private int[] monedas;
+    private long[] destino;
+    private TasasPorId tasas;
+
+    @Setup
+    public void preparar() {
+        TablaTasasCambio tabla = ConfiguracionGlobal.getInstance().getTablaTasasCambio();
+        tasas = tabla.tasasPorId(LocalDate.now());
+        String[] codigos = tabla.monedas().toArray(String[]::new);
+
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        precios = new BigDecimal[CONVERSIONES];
+        tasasPorFila = new BigDecimal[CONVERSIONES];
+        // Los destinos se reservan aquí en las tres variantes: solo se mide la conversión
+        convertidos = new BigDecimal[CONVERSIONES];
+        montos = new long[CONVERSIONES];
+        monedas = new int[CONVERSIONES];
+        destino = new long[CONVERSIONES];
+        for (int i = 0; i < CONVERSIONES; i++) {
+            // Precios de 1,00 a 100 000,00 en la moneda local
+            precios[i] = BigDecimal.valueOf(aleatorio.nextLong(100, 10_000_000), 2);
+            monedas[i] = tabla.idMoneda(codigos[aleatorio.nextInt(codigos.length)]);
+            tasasPorFila[i] = tasas.exactas()[monedas[i]];
+            montos[i] = MontoFijo.aMicros(precios[i]);
+        }
+        if (!ConversionLote.esVectorial()) {
+            throw new IllegalStateException("Iniciar JMH con --add-modules=jdk.incubator.vector");
+        }
+    }
+
+    @Benchmark
+    public BigDecimal[] antesBigDecimal() {
+        for (int i = 0; i < CONVERSIONES; i++) {
+            convertidos[i] = precios[i].multiply(tasasPorFila[i]);
+        }
+        return convertidos;
+    }
+
+    @Benchmark
+    public long[] escalar() {
+        ConversionLote.convertirEscalar(montos, monedas, tasas, destino);
+        return destino;
+    }
+
+    @Benchmark
+    public long[] vectorial() {
+        ConversionLote.convertirVectorial(montos, monedas, tasas, destino);
+        return destino;
+    }
+}
@@ -0,0 +1,156 @@
+package com.financorp.serf.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.financorp.serf.decorator.FirmaDigitalDecorator;
+import com.financorp.serf.decorator.MarcaAguaDecorator;
+import com.financorp.serf.decorator.ReporteBasico;
+import com.financorp.serf.decorator.ReporteComponent;
+import com.financorp.serf.decorator.ReporteDecorator;
+import com.financorp.serf.model.reporte.ReporteMensual;
+
+/**
+ * Cadenas de decoradores de 1 a 5 niveles (marca de agua y firma digital alternadas)
+ * sobre un reporte mensual de unas 500 líneas. La implementación anterior, reproducida
+ * aquí, concatena Strings en cada nivel y la firma vuelve a generar el contenido interno
+ * en su constructor; la actual escribe cada nivel alrededor de una única escritura del
+ * interno y calcula el hash mientras escribe. Se incluye la construcción de la cadena,
+ * como hace {@code ReporteDecoratorFactory} por cada reporte. Con {@code -prof gc} se
+ * ve además la memoria asignada por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DecoradoresReporteBenchmark {
+
+    @Param({"1", "2", "3", "4", "5"})
+    private int profundidad;
+
+    private ReporteMensual reporte;
+    private final StringBuilder salida = new StringBuilder(64 * 1024);
+
+    @Setup
+    public void preparar() {
+        reporte = new ReporteMensual(LocalDate.of(2025, 6, 1));
+        reporte.setEmpresa("FinanCorp S.A.");
+        reporte.setFirmaAutorizada("Gerencia General FinanCorp S.A.");
+        Map<String, Object> datos = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            datos.put("Producto " + i, "ventas=" + (i * 37 % 1000) + " ingresos=" + (i * 1234.5));
+        }
+        reporte.setDatos(datos);
+    }
+
+    @Benchmark
+    public String anterior() {
+        ReporteComponent cadena = new ReporteBasico(reporte);
+        for (int nivel = 0; nivel < profundidad; nivel++) {
+            cadena = nivel % 2 == 0 ? new MarcaAguaAnterior(cadena) : new FirmaDigitalAnterior(cadena);
+        }
+        return cadena.generarContenido();
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        ReporteComponent cadena = new ReporteBasico(reporte);
+        for (int nivel = 0; nivel < profundidad; nivel++) {
+            cadena = nivel % 2 == 0 ? new MarcaAguaDecorator(cadena) : new FirmaDigitalDecorator(cadena);
+        }
+        salida.setLength(0);
+        cadena.renderTo(salida);
+        return salida.length();
+    }
+
+    /**
+     * MarcaAguaDecorator antes de renderTo: concatena el documento completo
+     */
+    static class MarcaAguaAnterior extends ReporteDecorator {
+
+        private static final String MARCA_AGUA = """
+
+            =====================================
+            |      FINANCORP S.A. - CONFIDENCIAL      |
+            |         Documento Corporativo           |
+            |    Generado: %s    |
+            =====================================
+
+            """;
+
+        MarcaAguaAnterior(ReporteComponent reporteComponent) {
+            super(reporteComponent);
+        }
+
+        @Override
+        public String generarContenido() {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+            return String.format(MARCA_AGUA, timestamp) + reporteComponent.generarContenido();
+        }
+
+        @Override
+        public void renderTo(Appendable destino) throws IOException {
+            destino.append(generarContenido());
+        }
+    }
+
+    /**
+     * FirmaDigitalDecorator antes de renderTo: genera el contenido interno en el
+     * constructor para el hash y otra vez al generar el documento
+     */
+    static class FirmaDigitalAnterior extends ReporteDecorator {
+
+        private final LocalDateTime fechaFirma = LocalDateTime.now();
+        private final String hashDocumento;
+
+        FirmaDigitalAnterior(ReporteComponent reporteComponent) {
+            super(reporteComponent);
+            this.hashDocumento = sha256(reporteComponent.generarContenido());
+        }
+
+        @Override
+        public String generarContenido() {
+            String fecha = fechaFirma.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+            return reporteComponent.generarContenido()
+                + String.format("%nFIRMA DIGITAL%nAutorizado por: %s%nFecha de Firma: %s%nHash: %s...%n",
+                    "Gerencia General FinanCorp S.A.", fecha, hashDocumento.substring(0, 16));
+        }
+
+        @Override
+        public void renderTo(Appendable destino) throws IOException {
+            destino.append(generarContenido());
+        }
+
+        private static String sha256(String contenido) {
+            try {
+                return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(contenido.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.financorp.serf.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.financorp.serf.service.LimitadorJdbc;
+
+/**
+ * Hilo por petición (pool de 200 hilos, como Tomcat por defecto) frente a hilos virtuales
+ * con 1000 clientes concurrentes. Cada petición simula E/S de red y una consulta sobre un
+ * pool de 10 conexiones; uno de cada diez clientes pide un reporte lento, limitado por
+ * {@link LimitadorJdbc}. Se mide el tiempo hasta atender a todos los clientes.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class HilosVirtualesBenchmark {
+
+    private static final int HILOS_TOMCAT = 200;
+    private static final int CONEXIONES_POOL = 10;
+
+    @Param({"PLATAFORMA", "VIRTUAL"})
+    private String modo;
+
+    @Param({"1000"})
+    private int clientes;
+
+    private ExecutorService ejecutor;
+    private Semaphore poolConexiones;
+    private LimitadorJdbc limitadorJdbc;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        ejecutor = "VIRTUAL".equals(modo)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(HILOS_TOMCAT);
+        poolConexiones = new Semaphore(CONEXIONES_POOL, true);
+        limitadorJdbc = new LimitadorJdbc(6, 30_000);
+    }
+
+    @TearDown(Level.Iteration)
+    public void liberar() {
+        ejecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int atenderClientes() throws Exception {
+        List<Callable<Integer>> peticiones = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            boolean reporte = i % 10 == 0;
+            peticiones.add(() -> {
+                // Lectura de la petición y escritura de la respuesta
+                Thread.sleep(5);
+                if (reporte) {
+                    return limitadorJdbc.ejecutar(() -> consultar(50));
+                }
+                return consultar(2);
+            });
+        }
+        int atendidas = 0;
+        for (var resultado : ejecutor.invokeAll(peticiones)) {
+            atendidas += resultado.get();
+        }
+        return atendidas;
+    }
+
+    private int consultar(long duracionMs) {
+        try {
+            poolConexiones.acquire();
+            try {
+                Thread.sleep(duracionMs);
+                return 1;
+            } finally {
+                poolConexiones.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+}
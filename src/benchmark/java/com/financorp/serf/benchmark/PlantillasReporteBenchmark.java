@@ -0,0 +1,142 @@
+package com.financorp.serf.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.financorp.serf.model.reporte.ReporteMensual;
+import com.financorp.serf.plantilla.Plantilla;
+
+/**
+ * Bloques de marca de agua y firma y un reporte mensual de 20 líneas: String.format con
+ * un DateTimeFormatter nuevo en cada llamada y concatenación (implementación anterior,
+ * reproducida aquí) frente a plantillas compiladas que escriben en un búfer reutilizado.
+ * Ejecutar con {@code -prof gc} para ver la memoria asignada por escritura.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PlantillasReporteBenchmark {
+
+    private static final String MARCA_AGUA_FORMATO = """
+
+        =====================================
+        |      FINANCORP S.A. - CONFIDENCIAL      |
+        |         Documento Corporativo           |
+        |    Generado: %s    |
+        =====================================
+
+        """;
+
+    private static final Plantilla MARCA_AGUA = Plantilla.compilar("""
+
+        =====================================
+        |      FINANCORP S.A. - CONFIDENCIAL      |
+        |         Documento Corporativo           |
+        |    Generado: {generado:fechaHora}    |
+        =====================================
+
+        """, "generado");
+
+    private static final String FIRMA_FORMATO = """
+
+        FIRMA DIGITAL
+        Autorizado por: %s
+        Fecha de Firma: %s
+        Hash del Documento: %s
+        Algoritmo: SHA-256
+        """;
+
+    private static final Plantilla FIRMA = Plantilla.compilar("""
+
+        FIRMA DIGITAL
+        Autorizado por: {autoridad}
+        Fecha de Firma: {fechaFirma:fechaHora}
+        Hash del Documento: {hash}...
+        Algoritmo: SHA-256
+        """, "autoridad", "fechaFirma", "hash");
+
+    private static final String HASH = "5d85080174ba74c10a18bf4849849b18fc3069fe3a8543700f670e936e452b3a";
+
+    private final LocalDateTime ahora = LocalDateTime.of(2025, 6, 1, 10, 30, 15);
+    private final StringBuilder salida = new StringBuilder(8 * 1024);
+    private ReporteMensual reporte;
+
+    @Setup
+    public void preparar() {
+        reporte = new ReporteMensual(LocalDate.of(2025, 6, 1));
+        reporte.setEmpresa("FinanCorp S.A.");
+        reporte.setFirmaAutorizada("Gerencia General");
+        Map<String, Object> datos = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            datos.put("Producto " + i, "ventas=" + i * 37);
+        }
+        reporte.setDatos(datos);
+    }
+
+    @Benchmark
+    public String marcaAguaAnterior() {
+        return String.format(MARCA_AGUA_FORMATO, ahora.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
+    }
+
+    @Benchmark
+    public int marcaAguaCompilada() throws IOException {
+        salida.setLength(0);
+        MARCA_AGUA.renderTo(salida, ahora);
+        return salida.length();
+    }
+
+    @Benchmark
+    public String firmaAnterior() {
+        String fecha = ahora.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
+        return String.format(FIRMA_FORMATO, "Gerencia General", fecha, HASH.substring(0, 16) + "...");
+    }
+
+    @Benchmark
+    public int firmaCompilada() throws IOException {
+        salida.setLength(0);
+        FIRMA.renderTo(salida, "Gerencia General", ahora, HASH.substring(0, 16));
+        return salida.length();
+    }
+
+    @Benchmark
+    public String reporteMensualAnterior() {
+        StringBuilder contenido = new StringBuilder();
+        contenido.append("=== REPORTE MENSUAL ===\n");
+        contenido.append("Empresa: ").append(reporte.getEmpresa()).append("\n");
+        LocalDate mes = reporte.getMesReporte();
+        contenido.append("Mes: ").append(mes.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+        contenido.append(" ").append(mes.getYear()).append("\n");
+        contenido.append("Fecha de generación: ").append(reporte.getFechaGeneracion()).append("\n");
+        reporte.getDatos().forEach((key, value) -> contenido.append(key).append(": ").append(value).append("\n"));
+        contenido.append("\nFirma autorizada: ").append(reporte.getFirmaAutorizada()).append("\n");
+        return contenido.toString();
+    }
+
+    @Benchmark
+    public int reporteMensualCompilado() throws IOException {
+        salida.setLength(0);
+        reporte.renderTo(salida);
+        return salida.length();
+    }
+}
@@ -0,0 +1,99 @@
+package com.financorp.serf.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.financorp.serf.SerfSistemaApplication;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VentaRepository;
+import com.financorp.serf.service.ReporteService;
+
+/**
+ * Reporte de ventas de un año: materializar todas las ventas del período y sumarlas
+ * en memoria (implementación anterior) frente a agregar en la base de datos.
+ * Usa la aplicación completa sobre H2 en memoria con las ventas repartidas en 365 días.
+ * Con 5M filas la propia base en memoria ocupa casi todo el heap por defecto; usar
+ * {@code -jvmArgs -Xmx12g} o limitar con {@code -p filas=100000,1000000}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ReportePeriodoBenchmark {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 12, 31);
+
+    @Param({"100000", "1000000", "5000000"})
+    private int filas;
+
+    private ConfigurableApplicationContext contexto;
+    private VentaRepository ventaRepository;
+    private ReporteService reporteService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(SerfSistemaApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.com.financorp.serf=WARN")
+            .run();
+        ventaRepository = contexto.getBean(VentaRepository.class);
+        reporteService = contexto.getBean(ReporteService.class);
+
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO productos (id, codigo, nombre, costo_importacion, moneda_origen, precio_venta_sugerido, "
+            + "stock_inicial, stock_actual, version) "
+            + "VALUES (1, 'BENCH-1', 'Producto', 10, 'USD', 12, 0, 0, 0)");
+        jdbc.update("INSERT INTO ventas (id, numero_factura, fecha_venta, producto_id, cantidad, precio_unitario, "
+            + "moneda_local, metodo_pago, pais_filial, precio_unitarioeur, total_ventaeur) "
+            + "SELECT X, CONCAT('B-', X), DATEADD(MINUTE, MOD(X * 7919, 525600), TIMESTAMP '2025-01-01 00:00:00'), "
+            + "1, 1 + MOD(X, 5), 10.00, 'PEN', CASEWHEN(MOD(X, 2) = 0, 'TARJETA', 'EFECTIVO'), "
+            + "CASEWHEN(MOD(X, 3) = 0, 'PERU', 'CHILE'), 2.40, 2.40 * (1 + MOD(X, 5)) "
+            + "FROM SYSTEM_RANGE(1, ?)", filas);
+    }
+
+    @TearDown(Level.Trial)
+    public void liberar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public BigDecimal antesListaEnMemoria() {
+        List<Venta> ventas = ventaRepository.findByFechaVentaBetween(INICIO.atStartOfDay(), FIN.atTime(23, 59, 59));
+        return ventas.stream()
+            .map(Venta::getTotalVentaEUR)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Map<String, Object> despuesAgregadoEnBaseDatos() {
+        return reporteService.generarReporteVentasPorPeriodo(INICIO, FIN, false);
+    }
+}
@@ -1,5 +1,13 @@
 package com.financorp.serf.composite;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
 public abstract class ComponenteReporte {
     
     protected String nombre;
@@ -8,12 +16,42 @@ public abstract class ComponenteReporte {
         this.nombre = nombre;
     }
     
-    public abstract String renderizar();
+    /**
+     * Recorre el componente (y sus hijos, si es una sección) con el visitante
+     */
+    public abstract void aceptar(VisitanteReporte visitante) throws IOException;
     
     public abstract void agregar(ComponenteReporte componente);
     
     public abstract void remover(ComponenteReporte componente);
     
+    public String renderizar() {
+        StringBuilder resultado = new StringBuilder();
+        try {
+            renderizar(resultado);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+        return resultado.toString();
+    }
+    
+    /**
+     * Escribe el reporte en el destino a medida que recorre el árbol
+     */
+    public void renderizar(Appendable destino) throws IOException {
+        aceptar(new EscritorTextoReporte(destino));
+    }
+    
+    /**
+     * Escribe el reporte en UTF-8; la salida se vacía pero no se cierra
+     */
+    public void renderizar(OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        renderizar(escritor);
+        escritor.flush();
+    }
+    
     public String getNombre() {
         return nombre;
     }
@@ -0,0 +1,42 @@
+package com.financorp.serf.composite;
+
+import java.io.IOException;
+
+/**
+ * Escribe el árbol como texto directamente en el destino, sin construir un String por
+ * nivel: encabezado "=== SECCIÓN ===" y cada componente de una sección seguido de salto de línea
+ */
+public class EscritorTextoReporte implements VisitanteReporte {
+    
+    private final Appendable destino;
+    private int profundidad;
+    
+    public EscritorTextoReporte(Appendable destino) {
+        this.destino = destino;
+    }
+    
+    @Override
+    public void visitarItem(ItemReporte item) throws IOException {
+        destino.append(item.getNombre()).append(": ").append(item.getContenido());
+        terminarComponente();
+    }
+    
+    @Override
+    public void entrarSeccion(SeccionReporte seccion) throws IOException {
+        destino.append("=== ").append(seccion.getNombre().toUpperCase()).append(" ===\n");
+        profundidad++;
+    }
+    
+    @Override
+    public void salirSeccion(SeccionReporte seccion) throws IOException {
+        profundidad--;
+        terminarComponente();
+    }
+    
+    // Los componentes dentro de una sección terminan en salto de línea; la raíz no
+    private void terminarComponente() throws IOException {
+        if (profundidad > 0) {
+            destino.append('\n');
+        }
+    }
+}
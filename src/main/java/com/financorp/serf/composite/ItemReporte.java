@@ -1,5 +1,7 @@
 package com.financorp.serf.composite;
 
+import java.io.IOException;
+
 public class ItemReporte extends ComponenteReporte {
     
     private String contenido;
@@ -10,8 +12,8 @@ public class ItemReporte extends ComponenteReporte {
     }
     
     @Override
-    public String renderizar() {
-        return nombre + ": " + contenido;
+    public void aceptar(VisitanteReporte visitante) throws IOException {
+        visitante.visitarItem(this);
     }
     
     @Override
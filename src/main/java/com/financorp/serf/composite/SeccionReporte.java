@@ -1,5 +1,6 @@
 package com.financorp.serf.composite;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,15 +14,12 @@ public class SeccionReporte extends ComponenteReporte {
     }
     
     @Override
-    public String renderizar() {
-        StringBuilder resultado = new StringBuilder();
-        resultado.append("=== ").append(nombre.toUpperCase()).append(" ===\n");
-        
+    public void aceptar(VisitanteReporte visitante) throws IOException {
+        visitante.entrarSeccion(this);
         for (ComponenteReporte componente : componentes) {
-            resultado.append(componente.renderizar()).append("\n");
+            componente.aceptar(visitante);
         }
-        
-        return resultado.toString();
+        visitante.salirSeccion(this);
     }
     
     @Override
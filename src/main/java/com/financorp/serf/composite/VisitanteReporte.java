@@ -0,0 +1,16 @@
+package com.financorp.serf.composite;
+
+import java.io.IOException;
+
+/**
+ * Recorrido en profundidad del árbol de un reporte: cada sección se visita al entrar,
+ * luego sus componentes en orden y por último al salir
+ */
+public interface VisitanteReporte {
+    
+    void visitarItem(ItemReporte item) throws IOException;
+    
+    void entrarSeccion(SeccionReporte seccion) throws IOException;
+    
+    void salirSeccion(SeccionReporte seccion) throws IOException;
+}
@@ -1,8 +1,14 @@
 package com.financorp.serf.config;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.financorp.serf.monto.MontoFijo;
 
 import org.springframework.stereotype.Component;
 
@@ -15,8 +21,12 @@ public class ConfiguracionGlobal {
     // Moneda corporativa
     private final String monedaCorporativa = "EUR";
     
-    // Tasas de cambio (en producción vendría de una API)
-    private final Map<String, BigDecimal> tasasCambio;
+    // Vigencia de las tasas iniciales: se aplican a cualquier fecha sin una tasa posterior
+    public static final LocalDate VIGENCIA_TASAS_INICIALES = LocalDate.EPOCH;
+    
+    // Historial de tasas de cambio (en producción vendría de una API). Cada actualización publica
+    // una tabla inmutable nueva: las lecturas no bloquean ni copian y ven todas las tasas de una versión
+    private final AtomicReference<TablaTasasCambio> tasasCambio;
     
     // Configuración de reportes
     private String formatoFechaReportes = "dd/MM/yyyy";
@@ -25,8 +35,7 @@ public class ConfiguracionGlobal {
     
     // Constructor privado para Singleton
     private ConfiguracionGlobal() {
-        tasasCambio = new HashMap<>();
-        inicializarTasasCambio();
+        tasasCambio = new AtomicReference<>(tasasCambioIniciales());
     }
     
     // Método para obtener la instancia única
@@ -37,30 +46,67 @@ public class ConfiguracionGlobal {
         return instancia;
     }
     
-    private void inicializarTasasCambio() {
+    private static TablaTasasCambio tasasCambioIniciales() {
         // Tasas de cambio a EUR (ejemplo)
-        tasasCambio.put("PEN", new BigDecimal("0.24")); // 1 PEN = 0.24 EUR
-        tasasCambio.put("CNY", new BigDecimal("0.13")); // 1 CNY = 0.13 EUR
-        tasasCambio.put("USD", new BigDecimal("0.92")); // 1 USD = 0.92 EUR
-        tasasCambio.put("MXN", new BigDecimal("0.050")); // 1 MXN = 0.050 EUR
-        tasasCambio.put("COP", new BigDecimal("0.00021")); // 1 COP = 0.00021 EUR
-        tasasCambio.put("EUR", BigDecimal.ONE); // 1 EUR = 1 EUR
+        Map<String, BigDecimal> tasas = Map.of(
+            "PEN", new BigDecimal("0.24"),    // 1 PEN = 0.24 EUR
+            "CNY", new BigDecimal("0.13"),    // 1 CNY = 0.13 EUR
+            "USD", new BigDecimal("0.92"),    // 1 USD = 0.92 EUR
+            "MXN", new BigDecimal("0.050"),   // 1 MXN = 0.050 EUR
+            "COP", new BigDecimal("0.00021"), // 1 COP = 0.00021 EUR
+            "EUR", BigDecimal.ONE             // 1 EUR = 1 EUR
+        );
+        Map<String, SortedMap<LocalDate, BigDecimal>> historial = new HashMap<>();
+        tasas.forEach((moneda, tasa) -> historial.put(moneda, new TreeMap<>(Map.of(VIGENCIA_TASAS_INICIALES, tasa))));
+        return TablaTasasCambio.de(1, historial);
     }
     
-    // Método principal: conversión de moneda
+    // Método principal: conversión de moneda con las tasas vigentes hoy
     public BigDecimal convertirAMonedaCorporativa(BigDecimal monto, String monedaOrigen) {
+        return convertirAMonedaCorporativa(monto, monedaOrigen, LocalDate.now());
+    }
+    
+    /**
+     * Conversión con la tasa vigente en una fecha (p. ej. la de una venta con fecha pasada)
+     */
+    public BigDecimal convertirAMonedaCorporativa(BigDecimal monto, String monedaOrigen, LocalDate fecha) {
+        return convertirAMonedaCorporativa(monto, monedaOrigen, fecha, tasasCambio.get());
+    }
+    
+    /**
+     * Conversión con una tabla de tasas concreta, para convertir varios importes
+     * con la misma versión (obtenida con {@link #getTablaTasasCambio()}). El producto exacto
+     * se redondea a micros con HALF_EVEN, igual que en {@link #convertirLoteAMonedaCorporativa}.
+     */
+    public BigDecimal convertirAMonedaCorporativa(BigDecimal monto, String monedaOrigen, LocalDate fecha, TablaTasasCambio tasas) {
         if (monedaOrigen.equals(monedaCorporativa)) {
-            return monto;
+            return MontoFijo.redondear(monto);
         }
-        
-        BigDecimal tasaCambio = tasasCambio.get(monedaOrigen);
-        if (tasaCambio == null) {
-            throw new IllegalArgumentException("Moneda no soportada: " + monedaOrigen);
+        return MontoFijo.redondear(monto.multiply(tasas.tasa(monedaOrigen, fecha)));
+    }
+
+    /**
+     * Conversión en lote de importes en micros ({@link com.financorp.serf.monto.MontoFijo}):
+     * {@code destino[i]} recibe {@code montos[i]} en la moneda {@code monedas[i]} (identificador
+     * de {@link TablaTasasCambio#idMoneda}) convertido con la tasa vigente en la fecha y redondeado
+     * a micros con HALF_EVEN. Usa la Vector API si está disponible (ver {@link ConversionLote}).
+     *
+     * @throws IllegalArgumentException si alguna moneda no tiene tasa vigente en la fecha
+     */
+    public void convertirLoteAMonedaCorporativa(long[] montos, int[] monedas, LocalDate fecha,
+                                                TablaTasasCambio tasas, long[] destino) {
+        if (monedas.length != montos.length || destino.length != montos.length) {
+            throw new IllegalArgumentException("Los arrays de importes, monedas y destino deben tener la misma longitud");
+        }
+        TablaTasasCambio.TasasPorId vigentes = tasas.tasasPorId(fecha);
+        for (int moneda : monedas) {
+            if (!vigentes.tieneTasa(moneda)) {
+                throw new IllegalArgumentException("Sin tasa de cambio vigente para la moneda " + moneda + " el " + fecha);
+            }
         }
-        
-        return monto.multiply(tasaCambio);
+        ConversionLote.convertir(montos, monedas, vigentes, destino);
     }
-    
+
     // Getters
     public String getMonedaCorporativa() {
         return monedaCorporativa;
@@ -78,8 +124,13 @@ public class ConfiguracionGlobal {
         return firmaDigitalAutorizada;
     }
     
+    // Tasas vigentes hoy
     public Map<String, BigDecimal> getTasasCambio() {
-        return new HashMap<>(tasasCambio);
+        return tasasCambio.get().tasas();
+    }
+    
+    public TablaTasasCambio getTablaTasasCambio() {
+        return tasasCambio.get();
     }
     
     // Setters (para actualizar configuración)
@@ -88,6 +139,45 @@ public class ConfiguracionGlobal {
     }
     
     public void actualizarTasaCambio(String moneda, BigDecimal tasa) {
-        tasasCambio.put(moneda, tasa);
+        actualizarTasasCambio(Map.of(moneda, tasa));
+    }
+    
+    /**
+     * Tasas en vigor desde hoy
+     */
+    public TablaTasasCambio actualizarTasasCambio(Map<String, BigDecimal> tasas) {
+        return actualizarTasasCambio(LocalDate.now(), tasas);
+    }
+    
+    /**
+     * Añade varias tasas al historial a la vez: ninguna conversión ve unas tasas nuevas y otras antiguas.
+     * Solo en memoria: la versión es la siguiente a la actual y no se conserva al reiniciar
+     * (las tasas persistidas se publican desde {@code TasaCambioService} con su versión)
+     * 
+     * @return Tabla publicada, con la versión siguiente
+     */
+    public TablaTasasCambio actualizarTasasCambio(LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+        return tasasCambio.updateAndGet(actual -> actual.con(vigenteDesde, tasas));
+    }
+    
+    /**
+     * Añade tasas al historial publicando la tabla con la versión indicada. La versión
+     * publicada nunca retrocede: si ya hay una posterior, la tabla la conserva.
+     * 
+     * @return Tabla publicada
+     */
+    public TablaTasasCambio actualizarTasasCambio(long version, LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+        return tasasCambio.updateAndGet(actual -> actual.con(Math.max(actual.version(), version), vigenteDesde, tasas));
+    }
+    
+    /**
+     * Reemplaza el historial completo (p. ej. al cargarlo de la base de datos)
+     * 
+     * @return Tabla publicada, con la versión indicada
+     */
+    public TablaTasasCambio reemplazarHistorialTasas(long version, Map<String, ? extends SortedMap<LocalDate, BigDecimal>> historial) {
+        TablaTasasCambio tabla = TablaTasasCambio.de(version, historial);
+        tasasCambio.set(tabla);
+        return tabla;
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.financorp.serf.config;
+
+import java.math.BigDecimal;
+
+import com.financorp.serf.config.TablaTasasCambio.TasasPorId;
+import com.financorp.serf.monto.MontoFijo;
+
+/**
+ * Conversión en lote de importes en micros ({@link MontoFijo}) a la moneda corporativa.
+ *
+ * El producto importe × tasa se calcula en double y se redondea al micro más cercano.
+ * Mientras el importe y el resultado no superen {@link #LIMITE_DOUBLE} micros, el error
+ * del double es inferior a 1/500 de micro, así que el redondeo coincide con el exacto
+ * salvo cuando el resultado cae cerca de medio micro: esos elementos (y los que superan
+ * el límite) se recalculan con BigDecimal y HALF_EVEN. El resultado es siempre el mismo
+ * que con {@code MontoFijo.aMicros(monto.multiply(tasa))}.
+ *
+ * Si el módulo {@code jdk.incubator.vector} está cargado (opción de JVM
+ * {@code --add-modules jdk.incubator.vector}) se usa el núcleo de {@code ConversionVectorial};
+ * si no, el bucle escalar equivalente. Ese núcleo se compila en una ejecución aparte del
+ * compilador (ver pom.xml) y se carga por reflexión, para que solo él dependa del módulo incubado. Lo normal es usarla a través de
+ * {@link ConfiguracionGlobal#convertirLoteAMonedaCorporativa}, que valida las monedas.
+ */
+public final class ConversionLote {
+
+    // 2^43 micros (unos 8,8 millones de unidades)
+    static final double LIMITE_DOUBLE = 0x1p43;
+    // Distancia a medio micro por debajo de la cual se recalcula de forma exacta
+    static final double TOLERANCIA_EMPATE = 1.0 / 64;
+    // Sumado a un double de magnitud menor que 2^51 lo redondea al entero más cercano
+    static final double REDONDEO_MAGICO = 0x1.8p52;
+
+    private static final Nucleo VECTORIAL = cargarVectorial();
+
+    /**
+     * Núcleo de conversión alternativo al bucle escalar
+     */
+    interface Nucleo {
+
+        int lanes();
+
+        void convertir(long[] montos, int[] monedas, TasasPorId tasas, long[] destino);
+    }
+
+    private ConversionLote() {
+    }
+
+    private static Nucleo cargarVectorial() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            Nucleo nucleo = (Nucleo) Class.forName("com.financorp.serf.config.ConversionVectorial")
+                .getDeclaredConstructor().newInstance();
+            // Falla al enlazar si la plataforma no implementa la Vector API
+            return nucleo.lanes() > 1 ? nucleo : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indica si las conversiones en lote usan la Vector API
+     */
+    public static boolean esVectorial() {
+        return VECTORIAL != null;
+    }
+
+    /**
+     * Convierte {@code montos[i]} de la moneda {@code monedas[i]} y lo deja en {@code destino[i]}.
+     * Todas las monedas deben tener tasa en {@code tasas}.
+     */
+    public static void convertir(long[] montos, int[] monedas, TasasPorId tasas, long[] destino) {
+        if (VECTORIAL != null) {
+            VECTORIAL.convertir(montos, monedas, tasas, destino);
+        } else {
+            convertirEscalar(montos, monedas, tasas, destino, 0);
+        }
+    }
+
+    public static void convertirEscalar(long[] montos, int[] monedas, TasasPorId tasas, long[] destino) {
+        convertirEscalar(montos, monedas, tasas, destino, 0);
+    }
+
+    /**
+     * @throws IllegalStateException si la Vector API no está disponible
+     */
+    public static void convertirVectorial(long[] montos, int[] monedas, TasasPorId tasas, long[] destino) {
+        if (VECTORIAL == null) {
+            throw new IllegalStateException("Vector API no disponible: iniciar con --add-modules jdk.incubator.vector");
+        }
+        VECTORIAL.convertir(montos, monedas, tasas, destino);
+    }
+
+    /**
+     * Bucle escalar desde la posición indicada (también resuelve la cola del bucle vectorial)
+     */
+    static void convertirEscalar(long[] montos, int[] monedas, TasasPorId tasas, long[] destino, int desde) {
+        double[] aproximadas = tasas.aproximadas();
+        for (int i = desde; i < montos.length; i++) {
+            long monto = montos[i];
+            double producto = monto * aproximadas[monedas[i]];
+            double redondeado = Math.rint(producto);
+            if (Math.abs((double) monto) >= LIMITE_DOUBLE || Math.abs(producto) >= LIMITE_DOUBLE
+                    || Math.abs(producto - redondeado) > 0.5 - TOLERANCIA_EMPATE) {
+                destino[i] = convertirExacto(monto, tasas.exactas()[monedas[i]]);
+            } else {
+                destino[i] = (long) redondeado;
+            }
+        }
+    }
+
+    static long convertirExacto(long monto, BigDecimal tasa) {
+        return MontoFijo.aMicros(MontoFijo.aBigDecimal(monto).multiply(tasa));
+    }
+}
@@ -0,0 +1,66 @@
+package com.financorp.serf.config;
+
+import com.financorp.serf.config.TablaTasasCambio.TasasPorId;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Núcleo de {@link ConversionLote} con la Vector API: mismo cálculo que el bucle escalar,
+ * tantos elementos por iteración como lanes de 64 bits tenga la CPU. Las tasas de cada
+ * lane se leen con un gather por identificador de moneda.
+ *
+ * Solo se carga si el módulo {@code jdk.incubator.vector} está presente. Es el único fuente
+ * compilado con ese módulo (ejecución {@code compilar-nucleo-vectorial} del pom).
+ */
+final class ConversionVectorial implements ConversionLote.Nucleo {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final long BITS_REDONDEO_MAGICO = Double.doubleToRawLongBits(ConversionLote.REDONDEO_MAGICO);
+
+    ConversionVectorial() {
+    }
+
+    @Override
+    public int lanes() {
+        return DOUBLES.length();
+    }
+
+    @Override
+    public void convertir(long[] montos, int[] monedas, TasasPorId tasas, long[] destino) {
+        double[] aproximadas = tasas.aproximadas();
+        int lanes = DOUBLES.length();
+        int limite = DOUBLES.loopBound(montos.length);
+        int i = 0;
+        for (; i < limite; i += lanes) {
+            DoubleVector monto = (DoubleVector) LongVector.fromArray(LONGS, montos, i).convert(VectorOperators.L2D, 0);
+            DoubleVector tasa = DoubleVector.fromArray(DOUBLES, aproximadas, 0, monedas, i);
+            DoubleVector producto = monto.mul(tasa);
+
+            // Redondeo al más cercano sumando y restando 1,5 × 2^52: los bits del double
+            // intermedio menos los de la constante son el entero redondeado
+            DoubleVector desplazado = producto.add(ConversionLote.REDONDEO_MAGICO);
+            desplazado.reinterpretAsLongs().sub(BITS_REDONDEO_MAGICO).intoArray(destino, i);
+
+            // Lanes cerca de medio micro o fuera del rango seguro del double: cálculo exacto
+            DoubleVector redondeado = desplazado.sub(ConversionLote.REDONDEO_MAGICO);
+            VectorMask<Double> exactos = producto.sub(redondeado).abs()
+                .compare(VectorOperators.GT, 0.5 - ConversionLote.TOLERANCIA_EMPATE)
+                .or(producto.abs().compare(VectorOperators.GE, ConversionLote.LIMITE_DOUBLE))
+                .or(monto.abs().compare(VectorOperators.GE, ConversionLote.LIMITE_DOUBLE));
+            if (exactos.anyTrue()) {
+                for (int lane = 0; lane < lanes; lane++) {
+                    if (exactos.laneIsSet(lane)) {
+                        destino[i + lane] = ConversionLote.convertirExacto(
+                            montos[i + lane], tasas.exactas()[monedas[i + lane]]);
+                    }
+                }
+            }
+        }
+        ConversionLote.convertirEscalar(montos, monedas, tasas, destino, i);
+    }
+}
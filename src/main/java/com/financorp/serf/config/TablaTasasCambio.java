@@ -0,0 +1,220 @@
+package com.financorp.serf.config;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Instantánea inmutable del historial de tasas de cambio a la moneda corporativa.
+ * Cada actualización publica una tabla nueva con otra versión; quien la lee puede
+ * convertir varios importes con las mismas tasas y registrar qué versión usó.
+ *
+ * Por moneda se guardan las fechas de vigencia como días epoch ordenados en un long[]
+ * y las tasas en un array paralelo: la tasa vigente en una fecha es la de la última
+ * vigencia anterior o igual, localizada por búsqueda binaria sin crear objetos.
+ */
+public final class TablaTasasCambio {
+
+    private final long version;
+    private final Map<String, Serie> series;
+    // Identificador numérico de cada moneda (posición en orden alfabético), para conversiones en lote
+    private final String[] monedasPorId;
+    private final Map<String, Integer> idsMoneda;
+
+    private TablaTasasCambio(long version, Map<String, Serie> series) {
+        this.version = version;
+        this.series = Map.copyOf(series);
+        this.monedasPorId = series.keySet().stream().sorted().toArray(String[]::new);
+        Map<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < monedasPorId.length; id++) {
+            ids.put(monedasPorId[id], id);
+        }
+        this.idsMoneda = Map.copyOf(ids);
+    }
+
+    /**
+     * @param historial Tasas de cada moneda por fecha de entrada en vigor
+     */
+    public static TablaTasasCambio de(long version, Map<String, ? extends SortedMap<LocalDate, BigDecimal>> historial) {
+        Map<String, Serie> series = new HashMap<>();
+        historial.forEach((moneda, tasas) -> {
+            tasas.forEach((vigenteDesde, tasa) -> validar(moneda, vigenteDesde, tasa));
+            series.put(moneda, Serie.de(tasas));
+        });
+        return new TablaTasasCambio(version, series);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Tasa vigente en la fecha indicada
+     *
+     * @throws IllegalArgumentException si la moneda no tiene tasa vigente en esa fecha
+     */
+    public BigDecimal tasa(String moneda, LocalDate fecha) {
+        Serie serie = series.get(moneda);
+        BigDecimal tasa = serie != null ? serie.tasaEn(fecha.toEpochDay()) : null;
+        if (tasa == null) {
+            throw new IllegalArgumentException(serie == null
+                ? "Moneda no soportada: " + moneda
+                : "Sin tasa de cambio vigente para " + moneda + " el " + fecha);
+        }
+        return tasa;
+    }
+
+    /**
+     * Tasa vigente hoy
+     */
+    public BigDecimal tasa(String moneda) {
+        return tasa(moneda, LocalDate.now());
+    }
+
+    /**
+     * Tasas vigentes hoy de todas las monedas
+     */
+    public Map<String, BigDecimal> tasas() {
+        return tasas(LocalDate.now());
+    }
+
+    /**
+     * Tasas vigentes en una fecha de todas las monedas que tenían alguna
+     */
+    public Map<String, BigDecimal> tasas(LocalDate fecha) {
+        long dia = fecha.toEpochDay();
+        Map<String, BigDecimal> vigentes = new HashMap<>();
+        series.forEach((moneda, serie) -> {
+            BigDecimal tasa = serie.tasaEn(dia);
+            if (tasa != null) {
+                vigentes.put(moneda, tasa);
+            }
+        });
+        return vigentes;
+    }
+
+    public Set<String> monedas() {
+        return series.keySet();
+    }
+
+    /**
+     * Identificador de la moneda en esta tabla, o -1 si no tiene tasas.
+     * Solo es válido con la misma tabla (otra versión puede numerar distinto).
+     */
+    public int idMoneda(String moneda) {
+        Integer id = idsMoneda.get(moneda);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Tasas vigentes en una fecha indexadas por {@link #idMoneda}
+     */
+    public TasasPorId tasasPorId(LocalDate fecha) {
+        long dia = fecha.toEpochDay();
+        BigDecimal[] exactas = new BigDecimal[monedasPorId.length];
+        double[] aproximadas = new double[monedasPorId.length];
+        for (int id = 0; id < monedasPorId.length; id++) {
+            exactas[id] = series.get(monedasPorId[id]).tasaEn(dia);
+            aproximadas[id] = exactas[id] != null ? exactas[id].doubleValue() : Double.NaN;
+        }
+        return new TasasPorId(exactas, aproximadas);
+    }
+
+    /**
+     * Historial completo de una moneda (vacío si no tiene tasas)
+     */
+    public SortedMap<LocalDate, BigDecimal> historial(String moneda) {
+        Serie serie = series.get(moneda);
+        return serie != null ? serie.aMapa() : new TreeMap<>();
+    }
+
+    /**
+     * Tabla siguiente con las tasas indicadas en vigor desde la fecha dada, añadidas
+     * al historial o reemplazando las que ya entraban en vigor ese mismo día
+     *
+     * @throws IllegalArgumentException si alguna tasa no es positiva
+     */
+    public TablaTasasCambio con(LocalDate vigenteDesde, Map<String, BigDecimal> nuevasTasas) {
+        return con(version + 1, vigenteDesde, nuevasTasas);
+    }
+
+    /**
+     * Como {@link #con(LocalDate, Map)}, con la versión indicada (p. ej. la persistida)
+     */
+    public TablaTasasCambio con(long nuevaVersion, LocalDate vigenteDesde, Map<String, BigDecimal> nuevasTasas) {
+        Map<String, Serie> combinadas = new HashMap<>(series);
+        nuevasTasas.forEach((moneda, tasa) -> {
+            validar(moneda, vigenteDesde, tasa);
+            Serie actual = series.get(moneda);
+            SortedMap<LocalDate, BigDecimal> historial = actual != null ? actual.aMapa() : new TreeMap<>();
+            historial.put(vigenteDesde, tasa);
+            combinadas.put(moneda, Serie.de(historial));
+        });
+        return new TablaTasasCambio(nuevaVersion, combinadas);
+    }
+
+    private static void validar(String moneda, LocalDate vigenteDesde, BigDecimal tasa) {
+        if (moneda == null || vigenteDesde == null || tasa == null || tasa.signum() <= 0) {
+            throw new IllegalArgumentException("Tasa de cambio inválida para " + moneda + " desde " + vigenteDesde + ": " + tasa);
+        }
+    }
+
+    /**
+     * Tasas de una fecha por identificador de moneda: exactas (null si la moneda no tenía
+     * tasa vigente) y su aproximación en double (NaN en ese caso) para los cálculos vectoriales
+     */
+    public record TasasPorId(BigDecimal[] exactas, double[] aproximadas) {
+
+        public boolean tieneTasa(int id) {
+            return id >= 0 && id < exactas.length && exactas[id] != null;
+        }
+    }
+
+    /**
+     * Vigencias (días epoch, ascendentes) y tasas de una moneda en arrays paralelos
+     */
+    private static final class Serie {
+
+        private final long[] dias;
+        private final BigDecimal[] tasas;
+
+        private Serie(long[] dias, BigDecimal[] tasas) {
+            this.dias = dias;
+            this.tasas = tasas;
+        }
+
+        static Serie de(SortedMap<LocalDate, BigDecimal> historial) {
+            long[] dias = new long[historial.size()];
+            BigDecimal[] tasas = new BigDecimal[historial.size()];
+            int i = 0;
+            for (Map.Entry<LocalDate, BigDecimal> entrada : historial.entrySet()) {
+                dias[i] = entrada.getKey().toEpochDay();
+                tasas[i++] = entrada.getValue();
+            }
+            return new Serie(dias, tasas);
+        }
+
+        // null si el día es anterior a la primera vigencia
+        BigDecimal tasaEn(long dia) {
+            int posicion = Arrays.binarySearch(dias, dia);
+            if (posicion < 0) {
+                // Punto de inserción - 1: última vigencia anterior al día
+                posicion = -posicion - 2;
+            }
+            return posicion >= 0 ? tasas[posicion] : null;
+        }
+
+        SortedMap<LocalDate, BigDecimal> aMapa() {
+            SortedMap<LocalDate, BigDecimal> historial = new TreeMap<>();
+            for (int i = 0; i < dias.length; i++) {
+                historial.put(LocalDate.ofEpochDay(dias[i]), tasas[i]);
+            }
+            return historial;
+        }
+    }
+}
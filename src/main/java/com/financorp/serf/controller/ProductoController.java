@@ -1,7 +1,9 @@
 package com.financorp.serf.controller;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -35,6 +37,29 @@ public class ProductoController {
         return ResponseEntity.ok(productos);
     }
     
+    /**
+     * Listado paginado por cursor: pasar siguienteCursor de la respuesta anterior
+     * para obtener la página siguiente
+     */
+    @GetMapping(params = "tamano")
+    public ResponseEntity<Map<String, Object>> listarPagina(
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(productoService.listarPagina(cursor, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Página siguiente sin tamaño: se usa el tamaño de página por defecto
+     */
+    @GetMapping(params = {"cursor", "!tamano"})
+    public ResponseEntity<Map<String, Object>> listarPaginaSiguiente(@RequestParam String cursor) {
+        return listarPagina(null, cursor);
+    }
+    
     @GetMapping("/bajo-stock")
     public ResponseEntity<List<Producto>> obtenerBajoStock(
             @RequestParam(defaultValue = "10") Integer limite) {
@@ -77,6 +102,8 @@ public class ProductoController {
         try {
             Producto productoActualizado = productoService.actualizarProducto(id, producto);
             return ResponseEntity.ok(productoActualizado);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -1,17 +1,33 @@
 package com.financorp.serf.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.financorp.serf.facade.ColaTrabajosReporte;
 import com.financorp.serf.facade.ReporteFacade;
+import com.financorp.serf.facade.SolicitudTrabajoReporte;
+import com.financorp.serf.facade.TrabajoReporte;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,10 +37,37 @@ import lombok.RequiredArgsConstructor;
 @CrossOrigin(origins = "*")
 public class ReporteController {
     
+    private static final int MAX_TOP_PRODUCTOS = 1000;
+    private static final MediaType MEDIA_TYPE_ARROW_STREAM = new MediaType("application", "vnd.apache.arrow.stream");
+    
     private final ReporteFacade reporteFacade;
+    private final ColaTrabajosReporte colaTrabajosReporte;
+    
+    /**
+     * Con incluirVentas=true el listado de ventas se escribe en streaming tras los totales
+     */
+    @GetMapping("/ventas/periodo")
+    public ResponseEntity<?> reportePeriodo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "false") boolean incluirVentas) {
+        try {
+            if (fechaFin.isBefore(fechaInicio)) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (incluirVentas) {
+                StreamingResponseBody cuerpo = salida -> reporteFacade.escribirReporteVentasPorPeriodo(fechaInicio, fechaFin, salida);
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+            }
+            Map<String, Object> reporte = reporteFacade.generarReporteVentasPorPeriodo(fechaInicio, fechaFin, false);
+            return documento(reporte);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
     
     @GetMapping("/ventas/mensual")
-    public ResponseEntity<Map<String, Object>> reporteMensual(
+    public ResponseEntity<StreamingResponseBody> reporteMensual(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
         try {
             // Si no se proporciona fecha, usar la fecha actual
@@ -32,14 +75,14 @@ public class ReporteController {
                 fecha = LocalDate.now();
             }
             Map<String, Object> reporte = reporteFacade.generarReporteMensual(fecha);
-            return ResponseEntity.ok(reporte);
+            return documento(reporte);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
     @GetMapping("/ventas/trimestral")
-    public ResponseEntity<Map<String, Object>> reporteTrimestral(
+    public ResponseEntity<StreamingResponseBody> reporteTrimestral(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
         try {
             // Si no se proporciona fecha, usar la fecha actual
@@ -47,14 +90,14 @@ public class ReporteController {
                 fecha = LocalDate.now();
             }
             Map<String, Object> reporte = reporteFacade.generarReporteTrimestral(fecha);
-            return ResponseEntity.ok(reporte);
+            return documento(reporte);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
     @GetMapping("/ventas/anual")
-    public ResponseEntity<Map<String, Object>> reporteAnual(
+    public ResponseEntity<StreamingResponseBody> reporteAnual(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
         try {
             // Si no se proporciona fecha, usar la fecha actual
@@ -62,29 +105,246 @@ public class ReporteController {
                 fecha = LocalDate.now();
             }
             Map<String, Object> reporte = reporteFacade.generarReporteAnual(fecha);
-            return ResponseEntity.ok(reporte);
+            return documento(reporte);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
     @GetMapping("/productos/stock")
-    public ResponseEntity<Map<String, Object>> reporteStock() {
+    public ResponseEntity<StreamingResponseBody> reporteStock() {
         try {
             Map<String, Object> reporte = reporteFacade.generarReporteStock();
-            return ResponseEntity.ok(reporte);
+            return documento(reporte);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    /**
+     * Top k productos por unidades vendidas; por defecto, los 10 del último mes
+     */
     @GetMapping("/productos/top-vendidos")
-    public ResponseEntity<Map<String, Object>> reporteTopProductos() {
+    public ResponseEntity<StreamingResponseBody> reporteTopProductos(
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        try {
+            if (hasta == null) {
+                hasta = LocalDate.now();
+            }
+            if (desde == null) {
+                desde = hasta.minusMonths(1);
+            }
+            if (k < 1 || k > MAX_TOP_PRODUCTOS || hasta.isBefore(desde)) {
+                return ResponseEntity.badRequest().build();
+            }
+            Map<String, Object> reporte = reporteFacade.generarReporteTopProductos(k, desde, hasta);
+            return documento(reporte);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Genera en paralelo varios reportes, p. ej. ?tipos=MENSUAL,TRIMESTRAL,ANUAL,STOCK,TOP
+     */
+    @GetMapping("/lote")
+    public ResponseEntity<StreamingResponseBody> reportesEnLote(
+            @RequestParam List<String> tipos,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
         try {
-            Map<String, Object> reporte = reporteFacade.generarReporteTopProductos();
-            return ResponseEntity.ok(reporte);
+            if (fecha == null) {
+                fecha = LocalDate.now();
+            }
+            List<String> tiposNormalizados = tipos.stream().map(tipo -> tipo.trim().toUpperCase()).distinct().toList();
+            if (tiposNormalizados.isEmpty() || !ReporteFacade.TIPOS_LOTE.containsAll(tiposNormalizados)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return documento(reporteFacade.generarReportesEnLote(tiposNormalizados, fecha));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
+    
+    /**
+     * Encola un reporte asíncrono; una solicitud idéntica a otra en curso devuelve el mismo trabajo
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> enviarTrabajo(@RequestBody SolicitudTrabajoReporte solicitud) {
+        try {
+            TrabajoReporte trabajo = colaTrabajosReporte.enviar(solicitud);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(colaTrabajosReporte.obtenerEstado(trabajo.id()).orElseThrow());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<Map<String, Object>> estadoTrabajo(@PathVariable String id) {
+        return colaTrabajosReporte.obtenerEstado(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Resultado del trabajo; 409 mientras no esté completado
+     */
+    @GetMapping("/jobs/{id}/resultado")
+    public ResponseEntity<?> resultadoTrabajo(@PathVariable String id) {
+        if (colaTrabajosReporte.obtener(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return colaTrabajosReporte.obtenerResultado(id)
+            .<ResponseEntity<?>>map(ruta -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new FileSystemResource(ruta)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).body(colaTrabajosReporte.obtenerEstado(id).orElse(null)));
+    }
+    
+    /**
+     * Exporta ventas, stock o top de productos en CSV, escrito en streaming desde la base de datos.
+     * Columnas opcionales, p. ej. ?tipo=ventas&columnas=numeroFactura,fechaVenta,totalVentaEUR;
+     * la respuesta se comprime con gzip si el cliente lo acepta.
+     */
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportarCsv(
+            @RequestParam String tipo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) List<String> columnas,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        try {
+            String tipoCsv = tipo.trim().toLowerCase();
+            // Las ventas sin fechas se exportan todas; el top usa por defecto el último mes
+            if ("top".equals(tipoCsv)) {
+                if (hasta == null) {
+                    hasta = LocalDate.now();
+                }
+                if (desde == null) {
+                    desde = hasta.minusMonths(1);
+                }
+                if (k < 1 || k > MAX_TOP_PRODUCTOS) {
+                    return ResponseEntity.badRequest().build();
+                }
+            } else if ("ventas".equals(tipoCsv) && (desde == null) != (hasta == null)) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (desde != null && hasta != null && hasta.isBefore(desde)) {
+                return ResponseEntity.badRequest().build();
+            }
+            List<String> columnasCsv = reporteFacade.resolverColumnasCsv(tipoCsv, columnas);
+            
+            LocalDate inicio = desde;
+            LocalDate fin = hasta;
+            boolean gzip = aceptaGzip(aceptaCodificacion);
+            StreamingResponseBody cuerpo = salida -> {
+                if (!gzip) {
+                    reporteFacade.exportarCsv(tipoCsv, columnasCsv, inicio, fin, k, salida);
+                    return;
+                }
+                // syncFlush: cada volcado del exportador llega al cliente como un bloque comprimido
+                GZIPOutputStream comprimido = new GZIPOutputStream(salida, 8192, true);
+                reporteFacade.exportarCsv(tipoCsv, columnasCsv, inicio, fin, k, comprimido);
+                comprimido.finish();
+            };
+            
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(tipoCsv + "_serf_" + LocalDate.now() + ".csv").build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return respuesta.body(cuerpo);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Indica si Accept-Encoding admite gzip (RFC 9110, 12.5.3): "gzip" o "x-gzip" con q mayor que 0,
+     * o "*" con q mayor que 0 si gzip no aparece de forma explícita. "gzip;q=0" lo rechaza.
+     */
+    static boolean aceptaGzip(String aceptaCodificacion) {
+        if (aceptaCodificacion == null) {
+            return false;
+        }
+        Boolean comodin = null;
+        for (String elemento : aceptaCodificacion.split(",")) {
+            String[] partes = elemento.split(";");
+            String codificacion = partes[0].trim().toLowerCase();
+            boolean aceptada = calidad(partes) > 0;
+            if ("gzip".equals(codificacion) || "x-gzip".equals(codificacion)) {
+                return aceptada;
+            }
+            if ("*".equals(codificacion)) {
+                comodin = aceptada;
+            }
+        }
+        return Boolean.TRUE.equals(comodin);
+    }
+    
+    // Valor de q entre los parámetros de una codificación; 1 si no aparece, 0 si no es válido
+    private static double calidad(String[] partes) {
+        for (int i = 1; i < partes.length; i++) {
+            String[] parametro = partes[i].split("=", 2);
+            if (parametro.length == 2 && "q".equalsIgnoreCase(parametro[0].trim())) {
+                try {
+                    double q = Double.parseDouble(parametro[1].trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+    
+    /**
+     * Ventas con código y categoría del producto en formato Apache Arrow IPC de streaming,
+     * para clientes analíticos (p. ej. pyarrow.ipc.open_stream)
+     */
+    @GetMapping("/export.arrow")
+    public ResponseEntity<StreamingResponseBody> exportarArrow(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer filasPorLote) {
+        if ((desde == null) != (hasta == null) || (desde != null && hasta.isBefore(desde))) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody cuerpo = salida -> reporteFacade.exportarVentasArrow(desde, hasta, filasPorLote, salida);
+        return ResponseEntity.ok()
+            .contentType(MEDIA_TYPE_ARROW_STREAM)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("ventas_serf_" + LocalDate.now() + ".arrows").build().toString())
+            .body(cuerpo);
+    }
+    
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> estadisticasCache() {
+        return ResponseEntity.ok(reporteFacade.obtenerEstadisticasCache());
+    }
+    
+    @PostMapping("/ventas-diarias/reconstruir")
+    public ResponseEntity<Map<String, Object>> reconstruirVentasDiarias() {
+        try {
+            Map<String, Object> resultado = reporteFacade.reconstruirVentasDiarias();
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Respuesta JSON con el hash del documento calculado mientras se escribe
+     */
+    private ResponseEntity<StreamingResponseBody> documento(Map<String, Object> reporte) {
+        StreamingResponseBody cuerpo = salida -> reporteFacade.escribirDocumento(reporte, salida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
 }
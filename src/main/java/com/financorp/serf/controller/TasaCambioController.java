@@ -0,0 +1,85 @@
+package com.financorp.serf.controller;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.financorp.serf.service.ActualizadorTasasCambio;
+import com.financorp.serf.service.TasaCambioService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/tasas-cambio")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class TasaCambioController {
+    
+    private final TasaCambioService tasaCambioService;
+    private final ActualizadorTasasCambio actualizadorTasasCambio;
+    
+    /**
+     * Tasas vigentes en la fecha indicada (por defecto, hoy)
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> tasasVigentes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(tasaCambioService.obtenerTasasVigentes(fecha != null ? fecha : LocalDate.now()));
+    }
+    
+    @GetMapping("/{moneda}/historial")
+    public ResponseEntity<Map<LocalDate, BigDecimal>> historial(@PathVariable String moneda) {
+        try {
+            return ResponseEntity.ok(tasaCambioService.obtenerHistorial(moneda.toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    /**
+     * Registra tasas en vigor desde una fecha, p. ej. {"vigenteDesde":"2025-01-01","tasas":{"PEN":0.25}}
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> registrar(@RequestBody SolicitudTasas solicitud) {
+        try {
+            LocalDate vigenteDesde = solicitud.vigenteDesde() != null ? solicitud.vigenteDesde() : LocalDate.now();
+            return ResponseEntity.ok(tasaCambioService.registrarTasas(vigenteDesde, solicitud.tasas()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Fuente y antigüedad de las tasas vigentes y resultado de los últimos refrescos
+     */
+    @GetMapping("/estado")
+    public ResponseEntity<Map<String, Object>> estado() {
+        return ResponseEntity.ok(actualizadorTasasCambio.obtenerEstado());
+    }
+    
+    /**
+     * Pide un refresco inmediato al proveedor; se hace en segundo plano
+     */
+    @PostMapping("/actualizar")
+    public ResponseEntity<Map<String, Object>> actualizar() {
+        if (!actualizadorTasasCambio.solicitarActualizacion()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(actualizadorTasasCambio.obtenerEstado());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(actualizadorTasasCambio.obtenerEstado());
+    }
+    
+    public record SolicitudTasas(LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+    }
+}
@@ -1,21 +1,31 @@
 package com.financorp.serf.controller;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.financorp.serf.model.Venta;
+import com.financorp.serf.service.EscritorDiarioVentas;
+import com.financorp.serf.service.EscritorJsonVentas;
+import com.financorp.serf.service.ImportacionVentasService;
 import com.financorp.serf.service.VentaService;
 
 import jakarta.validation.Valid;
@@ -28,28 +38,101 @@ import lombok.RequiredArgsConstructor;
 public class VentaController {
     
     private final VentaService ventaService;
+    private final ImportacionVentasService importacionVentasService;
+    private final EscritorDiarioVentas escritorDiarioVentas;
+    private final EscritorJsonVentas escritorJsonVentas;
     
+    /**
+     * Lista todas las ventas escribiendo el JSON en streaming (transferencia por bloques)
+     */
     @GetMapping
-    public ResponseEntity<List<Venta>> listarTodas() {
-        List<Venta> ventas = ventaService.listarTodas();
-        return ResponseEntity.ok(ventas);
+    public ResponseEntity<StreamingResponseBody> listarTodas() {
+        StreamingResponseBody cuerpo = escritorJsonVentas::escribirTodas;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+    
+    /**
+     * Listado paginado por cursor (más recientes primero): pasar siguienteCursor
+     * de la respuesta anterior para obtener la página siguiente
+     */
+    @GetMapping(params = "tamano")
+    public ResponseEntity<Map<String, Object>> listarPagina(
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(ventaService.listarPagina(cursor, tamano));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Página siguiente sin tamaño: se usa el tamaño de página por defecto
+     */
+    @GetMapping(params = {"cursor", "!tamano"})
+    public ResponseEntity<Map<String, Object>> listarPaginaSiguiente(@RequestParam String cursor) {
+        return listarPagina(null, cursor);
     }
     
     @PostMapping
     public ResponseEntity<Venta> registrar(@Valid @RequestBody Venta venta) {
         try {
-            // Establecer fecha de venta si no se proporciona
-            if (venta.getFechaVenta() == null) {
-                venta.setFechaVenta(LocalDateTime.now());
-            }
-            
+            // La fecha por defecto la pone el servicio
             Venta ventaGuardada = ventaService.registrarVenta(venta);
-            return ResponseEntity.status(HttpStatus.CREATED).body(ventaGuardada);
+            // Sin ID: la venta quedó anotada en el diario y se insertará en segundo plano
+            HttpStatus estado = ventaGuardada.getId() != null ? HttpStatus.CREATED : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(estado).body(ventaGuardada);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @PostMapping("/lote")
+    public ResponseEntity<Map<String, Object>> registrarLote(@RequestBody List<Venta> ventas) {
+        try {
+            Map<String, Object> resumen = ventaService.registrarLote(ventas);
+            return ResponseEntity.ok(resumen);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Importación en streaming de archivos NDJSON (una venta JSON por línea) o CSV con cabecera.
+     * Para reanudar una importación interrumpida, enviar el mismo archivo con
+     * desdeLinea = ultimaLineaConfirmada del intento anterior. Si la importación falla,
+     * la respuesta 400 incluye igualmente el id y la última línea confirmada.
+     */
+    @PostMapping(value = "/importar", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Map<String, Object>> importar(
+            InputStream cuerpo,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(defaultValue = "0") long desdeLinea,
+            @RequestParam(required = false) String id) {
+        String importacionId = id != null ? id : UUID.randomUUID().toString();
+        try {
+            boolean csv = contentType.startsWith("text/csv");
+            Map<String, Object> resumen = importacionVentasService.importar(importacionId, cuerpo, csv, desdeLinea);
+            return ResponseEntity.ok(resumen);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(importacionVentasService.obtenerProgreso(importacionId));
+        }
+    }
+    
+    @GetMapping("/importar/{id}")
+    public ResponseEntity<Map<String, Object>> progresoImportacion(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(importacionVentasService.obtenerProgreso(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/diario")
+    public ResponseEntity<Map<String, Object>> estadoDiario() {
+        return ResponseEntity.ok(escritorDiarioVentas.obtenerEstado());
+    }
+    
     @GetMapping("/pais/{pais}")
     public ResponseEntity<List<Venta>> obtenerPorPais(@PathVariable String pais) {
         List<Venta> ventas = ventaService.obtenerVentasPorPais(pais);
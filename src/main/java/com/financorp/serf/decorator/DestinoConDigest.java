@@ -0,0 +1,112 @@
+package com.financorp.serf.decorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Destino que reenvía el texto a otro y a la vez acumula el SHA-256 de sus bytes UTF-8,
+ * sin construir una copia del contenido: los caracteres pasan por búferes fijos de 1 KB
+ */
+class DestinoConDigest implements Appendable {
+    
+    private final Appendable destino;
+    private final MessageDigest digest;
+    // Como String.getBytes: los surrogates sueltos se sustituyen por '?'
+    private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer caracteres = CharBuffer.allocate(1024);
+    private final ByteBuffer bytes = ByteBuffer.allocate(4096);
+    
+    DestinoConDigest(Appendable destino) {
+        this.destino = destino;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    @Override
+    public Appendable append(CharSequence texto) throws IOException {
+        CharSequence valor = texto != null ? texto : "null";
+        return append(valor, 0, valor.length());
+    }
+    
+    @Override
+    public Appendable append(CharSequence texto, int inicio, int fin) throws IOException {
+        CharSequence valor = texto != null ? texto : "null";
+        destino.append(valor, inicio, fin);
+        while (inicio < fin) {
+            int n = Math.min(fin - inicio, caracteres.remaining());
+            copiar(valor, inicio, inicio + n);
+            inicio += n;
+            // Solo se codifica con el búfer lleno: las filas cortas no pagan un digest cada una
+            if (!caracteres.hasRemaining()) {
+                codificar(false);
+            }
+        }
+        return this;
+    }
+    
+    @Override
+    public Appendable append(char c) throws IOException {
+        destino.append(c);
+        caracteres.put(c);
+        if (!caracteres.hasRemaining()) {
+            codificar(false);
+        }
+        return this;
+    }
+    
+    /**
+     * Hash hexadecimal de todo lo escrito; el destino no debe usarse después
+     */
+    String hashHex() {
+        codificar(true);
+        while (codificador.flush(bytes) == CoderResult.OVERFLOW) {
+            volcar();
+        }
+        volcar();
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private void copiar(CharSequence texto, int inicio, int fin) {
+        char[] destinoCaracteres = caracteres.array();
+        int posicion = caracteres.arrayOffset() + caracteres.position();
+        if (texto instanceof String cadena) {
+            cadena.getChars(inicio, fin, destinoCaracteres, posicion);
+        } else if (texto instanceof StringBuilder constructor) {
+            constructor.getChars(inicio, fin, destinoCaracteres, posicion);
+        } else {
+            for (int i = inicio; i < fin; i++) {
+                destinoCaracteres[posicion++] = texto.charAt(i);
+            }
+        }
+        caracteres.position(caracteres.position() + fin - inicio);
+    }
+    
+    private void codificar(boolean finEntrada) {
+        caracteres.flip();
+        while (codificador.encode(caracteres, bytes, finEntrada) == CoderResult.OVERFLOW) {
+            volcar();
+        }
+        volcar();
+        // Un surrogate alto al final queda en el búfer hasta recibir su pareja
+        caracteres.compact();
+    }
+    
+    private void volcar() {
+        bytes.flip();
+        digest.update(bytes);
+        bytes.clear();
+    }
+}
@@ -1,26 +1,27 @@
 package com.financorp.serf.decorator;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
+import com.financorp.serf.plantilla.Plantilla;
+
 /**
  * Decorador que añade firma digital a los reportes
  * Implementa autenticación y verificación de integridad documental
  */
 public class FirmaDigitalDecorator extends ReporteDecorator {
     
-    private static final String TEMPLATE_FIRMA = """
+    private static final Plantilla TEMPLATE_FIRMA = Plantilla.compilar("""
         
         ╔════════════════════════════════════════════════════════════════╗
         ║                        FIRMA DIGITAL                           ║
         ╠════════════════════════════════════════════════════════════════╣
-        ║ Autorizado por: %s                           ║
-        ║ Fecha de Firma: %s                                    ║
-        ║ Hash del Documento: %s                        ║
+        ║ Autorizado por: {autoridad}                           ║
+        ║ Fecha de Firma: {fechaFirma:fechaHora}                                    ║
+        ║ Hash del Documento: {hash}...                        ║
         ║ Algoritmo: SHA-256                                             ║
         ║ Estado: VÁLIDO                                                 ║
         ╚════════════════════════════════════════════════════════════════╝
@@ -28,11 +29,13 @@ public class FirmaDigitalDecorator extends ReporteDecorator {
         NOTA: Esta firma digital garantiza la autenticidad e integridad 
         del documento. Cualquier modificación invalidará la firma.
         
-        """;
+        """, "autoridad", "fechaFirma", "hash");
     
     private final String autoridad;
     private final LocalDateTime fechaFirma;
-    private final String hashDocumento;
+    // Hash del documento firmado: se fija una sola vez por instancia, en la primera escritura
+    // o en la primera consulta de metadatos, y no cambia después
+    private volatile String hashDocumento;
     
     public FirmaDigitalDecorator(ReporteComponent reporteComponent) {
         this(reporteComponent, "Gerencia General FinanCorp S.A.");
@@ -42,18 +45,21 @@ public class FirmaDigitalDecorator extends ReporteDecorator {
         super(reporteComponent);
         this.autoridad = autoridadFirmante;
         this.fechaFirma = LocalDateTime.now();
-        
-        // Generar hash del contenido original para integridad
-        String contenidoOriginal = super.generarContenido();
-        this.hashDocumento = generarHashSHA256(contenidoOriginal);
     }
     
+    /**
+     * Escribe el contenido original una sola vez, acumulando su hash, y después la firma.
+     * Todas las escrituras de la instancia deben producir el mismo documento: si el reporte
+     * interno cambió después de firmarse se lanza IllegalStateException en lugar de escribir
+     * una firma que no corresponde a los metadatos
+     */
     @Override
-    public String generarContenido() {
-        String contenidoOriginal = super.generarContenido();
-        String firmaDigital = generarFirmaDigital();
-        
-        return contenidoOriginal + firmaDigital;
+    public void renderTo(Appendable destino) throws IOException {
+        DestinoConDigest conDigest = new DestinoConDigest(destino);
+        super.renderTo(conDigest);
+        String hash = fijarHash(conDigest.hashHex());
+        // Solo mostrar parte del hash por seguridad
+        TEMPLATE_FIRMA.renderTo(destino, autoridad, fechaFirma, hash.substring(0, 16));
     }
     
     @Override
@@ -62,7 +68,7 @@ public class FirmaDigitalDecorator extends ReporteDecorator {
         metadatos.put("firmaDigital", true);
         metadatos.put("autoridadFirmante", autoridad);
         metadatos.put("fechaFirma", fechaFirma);
-        metadatos.put("hashDocumento", hashDocumento);
+        metadatos.put("hashDocumento", obtenerHashDocumento());
         metadatos.put("algoritmoHash", "SHA-256");
         metadatos.put("estadoFirma", "VÁLIDO");
         metadatos.put("seguridad", true);
@@ -74,35 +80,39 @@ public class FirmaDigitalDecorator extends ReporteDecorator {
         return true;
     }
     
-    private String generarFirmaDigital() {
-        String fechaFormateada = fechaFirma.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-        return String.format(TEMPLATE_FIRMA, 
-            autoridad, 
-            fechaFormateada, 
-            hashDocumento.substring(0, 16) + "..."  // Solo mostrar parte del hash por seguridad
-        );
+    private String obtenerHashDocumento() {
+        String hash = hashDocumento;
+        if (hash != null) {
+            return hash;
+        }
+        // Metadatos pedidos antes de escribir: una única pasada solo para el digest,
+        // que queda fijado para esta instancia y las escrituras posteriores comprueban
+        DestinoConDigest conDigest = new DestinoConDigest(Writer.nullWriter());
+        try {
+            super.renderTo(conDigest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fijarHash(conDigest.hashHex());
+    }
+    
+    private synchronized String fijarHash(String hash) {
+        if (hashDocumento == null) {
+            hashDocumento = hash;
+        } else if (!hashDocumento.equals(hash)) {
+            throw new IllegalStateException("El contenido del reporte cambió después de firmarse");
+        }
+        return hash;
     }
     
-    private String generarHashSHA256(String contenido) {
+    private static String calcularHash(String contenido) {
+        DestinoConDigest conDigest = new DestinoConDigest(Writer.nullWriter());
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(contenido.getBytes(StandardCharsets.UTF_8));
-            
-            // Convertir bytes a hexadecimal
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
-            
-        } catch (NoSuchAlgorithmException e) {
-            // Fallback a un hash simple si SHA-256 no está disponible
-            return String.valueOf(contenido.hashCode());
+            conDigest.append(contenido);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return conDigest.hashHex();
     }
     
     /**
@@ -111,7 +121,7 @@ public class FirmaDigitalDecorator extends ReporteDecorator {
      * @return true si el documento mantiene su integridad
      */
     public boolean verificarIntegridad(String contenidoActual) {
-        String hashActual = generarHashSHA256(contenidoActual);
-        return hashDocumento.equals(hashActual);
+        String hashActual = calcularHash(contenidoActual);
+        return obtenerHashDocumento().equals(hashActual);
     }
 }
\ No newline at end of file
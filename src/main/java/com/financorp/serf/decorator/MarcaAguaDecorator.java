@@ -1,27 +1,33 @@
 package com.financorp.serf.decorator;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
+import com.financorp.serf.plantilla.Plantilla;
+
 /**
  * Decorador que añade marca de agua a los reportes
  * Implementa funcionalidad de seguridad documental
  */
 public class MarcaAguaDecorator extends ReporteDecorator {
     
-    private static final String MARCA_AGUA_DEFAULT = """
+    private static final String CAMPO_GENERADO = "generado";
+    
+    private static final Plantilla MARCA_AGUA_DEFAULT = Plantilla.compilar("""
         
         =====================================
         |      FINANCORP S.A. - CONFIDENCIAL      |
         |         Documento Corporativo           |
-        |    Generado: %s    |
+        |    Generado: {generado:fechaHora}    |
         =====================================
         
-        """;
+        """, CAMPO_GENERADO);
     
-    private final String textoMarcaAgua;
+    private final Plantilla plantillaMarcaAgua;
     private final String posicion;
+    // Fijada al decorar, como la fecha de la firma: todas las escrituras del reporte son idénticas
+    private final LocalDateTime generado;
     
     public MarcaAguaDecorator(ReporteComponent reporteComponent) {
         this(reporteComponent, null, "ENCABEZADO");
@@ -29,21 +35,22 @@ public class MarcaAguaDecorator extends ReporteDecorator {
     
     public MarcaAguaDecorator(ReporteComponent reporteComponent, String textoPersonalizado, String posicion) {
         super(reporteComponent);
-        this.textoMarcaAgua = textoPersonalizado != null ? textoPersonalizado : MARCA_AGUA_DEFAULT;
+        this.plantillaMarcaAgua = textoPersonalizado != null ? compilarTextoPersonalizado(textoPersonalizado) : MARCA_AGUA_DEFAULT;
         this.posicion = posicion != null ? posicion : "ENCABEZADO";
+        this.generado = LocalDateTime.now();
     }
     
     @Override
-    public String generarContenido() {
-        String contenidoOriginal = super.generarContenido();
-        String marcaAgua = generarMarcaAgua();
+    public void renderTo(Appendable destino) throws IOException {
+        String ubicacion = posicion.toUpperCase();
         
-        return switch (posicion.toUpperCase()) {
-            case "ENCABEZADO" -> marcaAgua + contenidoOriginal;
-            case "PIE" -> contenidoOriginal + marcaAgua;
-            case "AMBOS" -> marcaAgua + contenidoOriginal + marcaAgua;
-            default -> marcaAgua + contenidoOriginal;
-        };
+        if (!"PIE".equals(ubicacion)) {
+            plantillaMarcaAgua.renderTo(destino, generado);
+        }
+        super.renderTo(destino);
+        if ("PIE".equals(ubicacion) || "AMBOS".equals(ubicacion)) {
+            plantillaMarcaAgua.renderTo(destino, generado);
+        }
     }
     
     @Override
@@ -51,7 +58,7 @@ public class MarcaAguaDecorator extends ReporteDecorator {
         Map<String, Object> metadatos = super.obtenerMetadatos();
         metadatos.put("marcaAgua", true);
         metadatos.put("posicionMarcaAgua", posicion);
-        metadatos.put("fechaAplicacionMarcaAgua", LocalDateTime.now());
+        metadatos.put("fechaAplicacionMarcaAgua", generado);
         metadatos.put("seguridad", true);
         return metadatos;
     }
@@ -61,8 +68,30 @@ public class MarcaAguaDecorator extends ReporteDecorator {
         return true;
     }
     
-    private String generarMarcaAgua() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-        return String.format(textoMarcaAgua, timestamp);
+    /**
+     * Compila un texto de marca de agua con la sintaxis de String.format: cada %s es la
+     * fecha de generación, %n un salto de línea y %% un signo de porcentaje
+     */
+    private static Plantilla compilarTextoPersonalizado(String texto) {
+        StringBuilder plantilla = new StringBuilder(texto.length() + 16);
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            char siguiente = i + 1 < texto.length() ? texto.charAt(i + 1) : 0;
+            if (c == '{') {
+                plantilla.append("{{");
+            } else if (c == '%' && siguiente == 's') {
+                plantilla.append('{').append(CAMPO_GENERADO).append(":fechaHora}");
+                i++;
+            } else if (c == '%' && siguiente == 'n') {
+                plantilla.append(System.lineSeparator());
+                i++;
+            } else if (c == '%' && siguiente == '%') {
+                plantilla.append('%');
+                i++;
+            } else {
+                plantilla.append(c);
+            }
+        }
+        return Plantilla.compilar(plantilla.toString(), CAMPO_GENERADO);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.financorp.serf.decorator;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +31,11 @@ public class ReporteBasico implements ReporteComponent {
         metadatos.put("firmaDigital", false);
     }
     
+    @Override
+    public void renderTo(Appendable destino) throws IOException {
+        reporte.renderTo(destino);
+    }
+    
     @Override
     public String generarContenido() {
         return reporte.generarContenido();
@@ -1,16 +1,36 @@
 package com.financorp.serf.decorator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Componente base para el patrón Decorator
  * Define la interfaz para reportes que pueden ser decorados
  */
 public interface ReporteComponent {
     
+    /**
+     * Escribe el contenido del reporte en el destino. Cada decorador escribe su
+     * encabezado y su pie alrededor de una única escritura del componente interno,
+     * así que el reporte base se genera una sola vez sea cual sea la profundidad de la cadena.
+     * @param destino Destino del contenido (StringBuilder, Writer de la respuesta...)
+     */
+    void renderTo(Appendable destino) throws IOException;
+    
     /**
      * Genera el contenido del reporte
      * @return Contenido del reporte como String
      */
-    String generarContenido();
+    default String generarContenido() {
+        StringBuilder contenido = new StringBuilder();
+        try {
+            renderTo(contenido);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+        return contenido.toString();
+    }
     
     /**
      * Obtiene los metadatos del reporte
@@ -29,4 +49,4 @@ public interface ReporteComponent {
      * @return true si tiene seguridad, false en caso contrario
      */
     boolean tieneSeguridad();
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.financorp.serf.decorator;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -15,8 +16,8 @@ public abstract class ReporteDecorator implements ReporteComponent {
     }
     
     @Override
-    public String generarContenido() {
-        return reporteComponent.generarContenido();
+    public void renderTo(Appendable destino) throws IOException {
+        reporteComponent.renderTo(destino);
     }
     
     @Override
@@ -0,0 +1,324 @@
+package com.financorp.serf.facade;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.service.CacheReportes;
+import com.financorp.serf.service.PeriodoReporte;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cola de trabajos de reporte asíncronos para reportes que superarían el tiempo de
+ * espera de una petición HTTP.
+ *
+ * Cada trabajo se guarda en disco como {@code <id>.trabajo.json} en cada transición y
+ * su resultado como {@code <id>.resultado.json}, ambos escritos en un temporal y movidos
+ * de forma atómica. Al arrancar se recargan los trabajos: los que quedaron pendientes o
+ * en curso vuelven a encolarse y los expirados se borran.
+ *
+ * Una solicitud con los mismos parámetros que un trabajo pendiente devuelve ese trabajo, y
+ * también la de uno en curso o completado (y no expirado) si desde que empezó a generarse no
+ * se han confirmado ventas de su período ({@link CacheReportes#versionDatos}). Si las hubo, se
+ * crea un trabajo nuevo y el anterior sigue disponible por su ID hasta que expira. El reporte
+ * de stock no tiene período y solo se comparte mientras está pendiente.
+ */
+@Component
+public class ColaTrabajosReporte {
+    
+    private static final String SUFIJO_TRABAJO = ".trabajo.json";
+    private static final String SUFIJO_RESULTADO = ".resultado.json";
+    
+    private final ReporteFacade reporteFacade;
+    private final CacheReportes cacheReportes;
+    private final ObjectMapper objectMapper;
+    private final Path directorio;
+    private final int hilos;
+    private final int capacidadCola;
+    private final Duration ttl;
+    
+    private final Map<String, TrabajoReporte> trabajos = new ConcurrentHashMap<>();
+    private final Map<SolicitudTrabajoReporte, String> trabajoPorSolicitud = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor;
+    
+    public ColaTrabajosReporte(ReporteFacade reporteFacade,
+                               CacheReportes cacheReportes,
+                               ObjectMapper objectMapper,
+                               @Value("${serf.reportes.jobs.directorio:data/reportes-jobs}") String directorio,
+                               @Value("${serf.reportes.jobs.hilos:2}") int hilos,
+                               @Value("${serf.reportes.jobs.capacidad-cola:100}") int capacidadCola,
+                               @Value("${serf.reportes.jobs.ttl-minutos:1440}") long ttlMinutos) {
+        this.reporteFacade = reporteFacade;
+        this.cacheReportes = cacheReportes;
+        this.objectMapper = objectMapper;
+        this.directorio = Path.of(directorio);
+        this.hilos = hilos;
+        this.capacidadCola = capacidadCola;
+        this.ttl = Duration.ofMinutes(ttlMinutos);
+        this.ejecutor = Executors.newFixedThreadPool(hilos, Thread.ofPlatform().name("reportes-jobs-", 0).factory());
+    }
+    
+    /**
+     * Recupera los trabajos guardados antes de un reinicio
+     */
+    @PostConstruct
+    public synchronized void cargar() throws IOException {
+        Files.createDirectories(directorio);
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.toList()) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.startsWith("tmp-")) {
+                    // Escritura interrumpida por una caída
+                    Files.deleteIfExists(archivo);
+                    continue;
+                }
+                if (!nombre.endsWith(SUFIJO_TRABAJO)) {
+                    continue;
+                }
+                TrabajoReporte trabajo;
+                try {
+                    trabajo = objectMapper.readValue(archivo.toFile(), TrabajoReporte.class);
+                } catch (IOException e) {
+                    // Archivo incompleto o ilegible: el trabajo se descarta
+                    Files.deleteIfExists(archivo);
+                    continue;
+                }
+                if (trabajo.activo()) {
+                    registrar(trabajo.pendiente());
+                } else {
+                    // Su versión de datos es de la ejecución anterior: se puede consultar
+                    // por ID, pero no se reutiliza para solicitudes nuevas
+                    trabajos.put(trabajo.id(), trabajo);
+                }
+            }
+        }
+        purgarExpirados();
+    }
+    
+    /**
+     * Encola los trabajos recuperados una vez que la aplicación está lista
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarPendientes() {
+        trabajos.values().stream()
+            .filter(TrabajoReporte::activo)
+            .sorted(Comparator.comparing(TrabajoReporte::creado))
+            .forEach(trabajo -> ejecutor.execute(() -> ejecutar(trabajo.id())));
+    }
+    
+    @PreDestroy
+    public void detener() {
+        // Los trabajos interrumpidos siguen en disco como EN_CURSO y se reanudan al arrancar
+        ejecutor.shutdownNow();
+    }
+    
+    /**
+     * Encola un reporte o devuelve el trabajo existente con los mismos parámetros
+     * @throws IllegalArgumentException si la solicitud no es válida
+     * @throws IllegalStateException si la cola está llena
+     */
+    public synchronized TrabajoReporte enviar(SolicitudTrabajoReporte solicitud) {
+        SolicitudTrabajoReporte normalizada = solicitud.normalizar();
+        purgarExpirados();
+        
+        String idExistente = trabajoPorSolicitud.get(normalizada);
+        TrabajoReporte existente = idExistente != null ? trabajos.get(idExistente) : null;
+        if (existente != null && esReutilizable(existente)) {
+            return existente;
+        }
+        
+        long activos = trabajos.values().stream().filter(TrabajoReporte::activo).count();
+        if (activos >= hilos + capacidadCola) {
+            throw new IllegalStateException("Cola de reportes llena, intente más tarde");
+        }
+        
+        TrabajoReporte trabajo = TrabajoReporte.nuevo(UUID.randomUUID().toString(), normalizada);
+        if (existente != null && existente.estado() == TrabajoReporte.Estado.ERROR) {
+            eliminar(existente);
+        }
+        registrar(trabajo);
+        guardar(trabajo);
+        ejecutor.execute(() -> ejecutar(trabajo.id()));
+        return trabajo;
+    }
+    
+    private boolean esReutilizable(TrabajoReporte trabajo) {
+        return switch (trabajo.estado()) {
+            case PENDIENTE -> true;
+            case EN_CURSO, COMPLETADO -> {
+                PeriodoReporte periodo = trabajo.solicitud().periodo();
+                yield periodo != null && trabajo.versionDatos() != null
+                    && trabajo.versionDatos() == cacheReportes.versionDatos(periodo);
+            }
+            case ERROR -> false;
+        };
+    }
+    
+    public Optional<TrabajoReporte> obtener(String id) {
+        return Optional.ofNullable(trabajos.get(id)).filter(trabajo -> !trabajo.expirado(Instant.now()));
+    }
+    
+    /**
+     * Estado del trabajo para la API, con su posición en la cola si aún no ha empezado
+     */
+    public Optional<Map<String, Object>> obtenerEstado(String id) {
+        return obtener(id).map(trabajo -> {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("id", trabajo.id());
+            estado.put("solicitud", trabajo.solicitud());
+            estado.put("estado", trabajo.estado());
+            estado.put("progreso", trabajo.progreso());
+            if (trabajo.estado() == TrabajoReporte.Estado.PENDIENTE) {
+                estado.put("posicionEnCola", trabajos.values().stream()
+                    .filter(otro -> otro.estado() == TrabajoReporte.Estado.PENDIENTE)
+                    .filter(otro -> otro.creado().isBefore(trabajo.creado()))
+                    .count() + 1);
+            }
+            estado.put("creado", trabajo.creado());
+            estado.put("iniciado", trabajo.iniciado());
+            estado.put("finalizado", trabajo.finalizado());
+            estado.put("expira", trabajo.expira());
+            estado.put("error", trabajo.error());
+            return estado;
+        });
+    }
+    
+    /**
+     * Archivo con el resultado si el trabajo está completado
+     */
+    public Optional<Path> obtenerResultado(String id) {
+        return obtener(id)
+            .filter(trabajo -> trabajo.estado() == TrabajoReporte.Estado.COMPLETADO)
+            .map(trabajo -> rutaResultado(trabajo.id()))
+            .filter(Files::exists);
+    }
+    
+    /**
+     * Borra de memoria y de disco los trabajos cuyo resultado ya expiró
+     */
+    public synchronized void purgarExpirados() {
+        Instant ahora = Instant.now();
+        List<TrabajoReporte> expirados = trabajos.values().stream()
+            .filter(trabajo -> trabajo.expirado(ahora))
+            .toList();
+        expirados.forEach(this::eliminar);
+    }
+    
+    private void ejecutar(String id) {
+        // La versión se toma antes de leer los datos: una venta confirmada durante la
+        // generación deja el resultado como no reutilizable
+        TrabajoReporte trabajo = actualizar(id, t -> {
+            PeriodoReporte periodo = t.solicitud().periodo();
+            return t.iniciar(periodo != null ? cacheReportes.versionDatos(periodo) : null);
+        });
+        if (trabajo == null) {
+            return;
+        }
+        try {
+            Map<String, Object> reporte = generar(trabajo.solicitud());
+            actualizar(id, t -> t.conProgreso(90));
+            escribirAtomico(rutaResultado(id), salida -> reporteFacade.escribirDocumento(reporte, salida));
+            actualizar(id, t -> t.completar(Instant.now().plus(ttl)));
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Parada de la aplicación: se reanudará en el próximo arranque
+                return;
+            }
+            actualizar(id, t -> t.fallar(e.getMessage(), Instant.now().plus(ttl)));
+        }
+    }
+    
+    private Map<String, Object> generar(SolicitudTrabajoReporte solicitud) {
+        return switch (solicitud.tipo()) {
+            case "MENSUAL" -> reporteFacade.generarReporteMensual(solicitud.fecha());
+            case "TRIMESTRAL" -> reporteFacade.generarReporteTrimestral(solicitud.fecha());
+            case "ANUAL" -> reporteFacade.generarReporteAnual(solicitud.fecha());
+            case "PERIODO" -> reporteFacade.generarReporteVentasPorPeriodo(solicitud.fechaInicio(), solicitud.fechaFin(), false);
+            case "STOCK" -> reporteFacade.generarReporteStock();
+            case "TOP" -> reporteFacade.generarReporteTopProductos(solicitud.k(), solicitud.fechaInicio(), solicitud.fechaFin());
+            default -> throw new IllegalArgumentException("Tipo de reporte no soportado: " + solicitud.tipo());
+        };
+    }
+    
+    private synchronized TrabajoReporte actualizar(String id, UnaryOperator<TrabajoReporte> transicion) {
+        TrabajoReporte actual = trabajos.get(id);
+        if (actual == null) {
+            return null;
+        }
+        TrabajoReporte nuevo = transicion.apply(actual);
+        // Se guarda antes de publicarlo: un estado visible por la API ya está en disco
+        guardar(nuevo);
+        trabajos.put(id, nuevo);
+        return nuevo;
+    }
+    
+    private void registrar(TrabajoReporte trabajo) {
+        trabajos.put(trabajo.id(), trabajo);
+        trabajoPorSolicitud.put(trabajo.solicitud(), trabajo.id());
+    }
+    
+    private void eliminar(TrabajoReporte trabajo) {
+        trabajos.remove(trabajo.id());
+        trabajoPorSolicitud.remove(trabajo.solicitud(), trabajo.id());
+        try {
+            Files.deleteIfExists(rutaResultado(trabajo.id()));
+            Files.deleteIfExists(directorio.resolve(trabajo.id() + SUFIJO_TRABAJO));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void guardar(TrabajoReporte trabajo) {
+        escribirAtomico(directorio.resolve(trabajo.id() + SUFIJO_TRABAJO), salida -> objectMapper.writeValue(salida, trabajo));
+    }
+    
+    private Path rutaResultado(String id) {
+        return directorio.resolve(id + SUFIJO_RESULTADO);
+    }
+    
+    @FunctionalInterface
+    private interface Escritura {
+        void escribir(OutputStream salida) throws IOException;
+    }
+    
+    private void escribirAtomico(Path destino, Escritura escritura) {
+        try {
+            Path temporal = Files.createTempFile(directorio, "tmp-", ".json");
+            try {
+                try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                    escritura.escribir(salida);
+                }
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package com.financorp.serf.facade;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.stereotype.Component;
 
 import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.service.CacheReportes;
+import com.financorp.serf.service.CacheReportes.ClaveReporte;
+import com.financorp.serf.service.EjecutorReportes;
+import com.financorp.serf.service.EscritorJsonVentas;
+import com.financorp.serf.service.EscritorReporteFirmado;
+import com.financorp.serf.service.ExportadorArrowVentas;
+import com.financorp.serf.service.ExportadorCsv;
+import com.financorp.serf.service.LimitadorJdbc;
+import com.financorp.serf.service.PeriodoReporte;
 import com.financorp.serf.service.ReporteService;
+import com.financorp.serf.service.VentaDiariaService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,14 +32,31 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ReporteFacade {
     
+    // Tipos admitidos por generarReportesEnLote
+    public static final List<String> TIPOS_LOTE = List.of("MENSUAL", "TRIMESTRAL", "ANUAL", "STOCK", "TOP");
+    private static final int TOP_PRODUCTOS_LOTE = 10;
+    
     private final ReporteService reporteService;
+    private final LimitadorJdbc limitadorJdbc;
+    private final VentaDiariaService ventaDiariaService;
+    private final EscritorJsonVentas escritorJsonVentas;
+    private final CacheReportes cacheReportes;
+    private final EjecutorReportes ejecutorReportes;
+    private final EscritorReporteFirmado escritorReporteFirmado;
+    private final ExportadorCsv exportadorCsv;
+    private final ExportadorArrowVentas exportadorArrowVentas;
     private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
     
     /**
      * Genera un reporte mensual con seguridad documental aplicada
      */
     public Map<String, Object> generarReporteMensual(LocalDate fecha) {
-        Map<String, Object> reporte = reporteService.generarReporteMensual(fecha);
+        return cacheReportes.obtener(new ClaveReporte("MENSUAL", PeriodoReporte.mensual(fecha)),
+            () -> construirReporteMensual(fecha));
+    }
+    
+    private Map<String, Object> construirReporteMensual(LocalDate fecha) {
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(() -> reporteService.generarReporteMensual(fecha));
         
         // Agregar metadatos del reporte con seguridad documental
         reporte.put("tipoReporte", "MENSUAL");
@@ -35,13 +70,50 @@ public class ReporteFacade {
         reporte.put("marcaAgua", true);
         reporte.put("firmaDigital", true);
         reporte.put("seguridadAplicada", true);
-        reporte.put("hashDocumento", generateSecurityHash(reporte.toString()));
         
         return reporte;
     }
     
+    /**
+     * Reporte de un período arbitrario; el listado de ventas solo se incluye si se solicita
+     */
+    public Map<String, Object> generarReporteVentasPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin, boolean incluirVentas) {
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(
+            () -> reporteService.generarReporteVentasPorPeriodo(fechaInicio, fechaFin, incluirVentas));
+        
+        // Agregar metadatos del reporte con seguridad
+        reporte.put("tipoReporte", "PERIODO");
+        reporte.put("fechaGeneracion", LocalDate.now());
+        reporte.put("formatoFecha", configuracion.getFormatoFechaReportes());
+        reporte.put("empresa", configuracion.getLogoEmpresa());
+        reporte.put("firmaAutorizada", configuracion.getFirmaDigitalAutorizada());
+        reporte.put("monedaCorporativa", configuracion.getMonedaCorporativa());
+        reporte.put("marcaAgua", true);
+        reporte.put("firmaDigital", true);
+        reporte.put("seguridadAplicada", true);
+        
+        return reporte;
+    }
+    
+    /**
+     * Escribe el reporte del período con el listado completo de ventas en streaming.
+     * El listado se lee mientras se escribe y el hash del documento lo incluye.
+     */
+    public void escribirReporteVentasPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin, OutputStream salida) {
+        Map<String, Object> reporte = generarReporteVentasPorPeriodo(fechaInicio, fechaFin, false);
+        limitadorJdbc.ejecutar(() -> {
+            escritorJsonVentas.escribirReporte(reporte, fechaInicio.atStartOfDay(), fechaFin.atTime(23, 59, 59), salida);
+            return null;
+        });
+    }
+    
     public Map<String, Object> generarReporteTrimestral(LocalDate fecha) {
-        Map<String, Object> reporte = reporteService.generarReporteTrimestral(fecha);
+        return cacheReportes.obtener(new ClaveReporte("TRIMESTRAL", PeriodoReporte.trimestral(fecha)),
+            () -> construirReporteTrimestral(fecha));
+    }
+    
+    private Map<String, Object> construirReporteTrimestral(LocalDate fecha) {
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(() -> reporteService.generarReporteTrimestral(fecha));
         
         // Agregar metadatos del reporte con seguridad
         reporte.put("tipoReporte", "TRIMESTRAL");
@@ -53,13 +125,17 @@ public class ReporteFacade {
         reporte.put("marcaAgua", true);
         reporte.put("firmaDigital", true);
         reporte.put("seguridadAplicada", true);
-        reporte.put("hashDocumento", generateSecurityHash(reporte.toString()));
         
         return reporte;
     }
     
     public Map<String, Object> generarReporteAnual(LocalDate fecha) {
-        Map<String, Object> reporte = reporteService.generarReporteAnual(fecha);
+        return cacheReportes.obtener(new ClaveReporte("ANUAL", PeriodoReporte.anual(fecha)),
+            () -> construirReporteAnual(fecha));
+    }
+    
+    private Map<String, Object> construirReporteAnual(LocalDate fecha) {
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(() -> reporteService.generarReporteAnual(fecha));
         
         // Agregar metadatos del reporte con seguridad
         reporte.put("tipoReporte", "ANUAL");
@@ -71,13 +147,12 @@ public class ReporteFacade {
         reporte.put("marcaAgua", true);
         reporte.put("firmaDigital", true);
         reporte.put("seguridadAplicada", true);
-        reporte.put("hashDocumento", generateSecurityHash(reporte.toString()));
         
         return reporte;
     }
     
     public Map<String, Object> generarReporteStock() {
-        Map<String, Object> reporte = reporteService.generarReporteStock();
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(() -> reporteService.generarReporteStock());
         
         // Agregar metadatos del reporte con seguridad
         reporte.put("tipoReporte", "STOCK");
@@ -89,13 +164,13 @@ public class ReporteFacade {
         reporte.put("marcaAgua", true);
         reporte.put("firmaDigital", true);
         reporte.put("seguridadAplicada", true);
-        reporte.put("hashDocumento", generateSecurityHash(reporte.toString()));
         
         return reporte;
     }
     
-    public Map<String, Object> generarReporteTopProductos() {
-        Map<String, Object> reporte = reporteService.generarReporteTopProductos();
+    public Map<String, Object> generarReporteTopProductos(int k, LocalDate fechaInicio, LocalDate fechaFin) {
+        Map<String, Object> reporte = limitadorJdbc.ejecutar(
+            () -> reporteService.generarReporteTopProductos(k, fechaInicio, fechaFin));
         
         // Agregar metadatos del reporte con seguridad
         reporte.put("tipoReporte", "TOP_PRODUCTOS");
@@ -107,15 +182,143 @@ public class ReporteFacade {
         reporte.put("marcaAgua", true);
         reporte.put("firmaDigital", true);
         reporte.put("seguridadAplicada", true);
-        reporte.put("hashDocumento", generateSecurityHash(reporte.toString()));
         
         return reporte;
     }
     
     /**
-     * Genera un hash de seguridad para validar la integridad del documento
+     * Recalcula el resumen diario de ventas a partir de la tabla de ventas
      */
-    private String generateSecurityHash(String content) {
-        return "SHA256-" + Integer.toHexString(content.hashCode()).toUpperCase();
+    public Map<String, Object> reconstruirVentasDiarias() {
+        int filas = limitadorJdbc.ejecutar(() -> ventaDiariaService.reconstruir());
+        cacheReportes.invalidarTodo();
+        
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("filasResumen", filas);
+        resultado.put("fechaReconstruccion", LocalDateTime.now());
+        return resultado;
+    }
+    
+    /**
+     * Genera varios reportes en paralelo; cada uno espera su permiso del limitador JDBC
+     * antes de abrir sus transacciones, igual que cuando se pide por separado.
+     * El tiempo total se acerca al del reporte más lento en lugar de a la suma de todos.
+     * 
+     * @param tipos Reportes a generar: MENSUAL, TRIMESTRAL, ANUAL, STOCK, TOP
+     * @param fecha Fecha de referencia de los reportes por período
+     */
+    public Map<String, Object> generarReportesEnLote(List<String> tipos, LocalDate fecha) {
+        long inicioLote = System.nanoTime();
+        Map<String, CompletableFuture<Map<String, Object>>> tareas = new LinkedHashMap<>();
+        Map<String, Long> tiempos = new ConcurrentHashMap<>();
+        for (String tipo : tipos) {
+            CompletableFuture<Map<String, Object>> tarea;
+            try {
+                tarea = ejecutorReportes.enviar(() -> {
+                    long inicio = System.nanoTime();
+                    try {
+                        return generarPorTipo(tipo, fecha);
+                    } finally {
+                        tiempos.put(tipo, (System.nanoTime() - inicio) / 1_000_000);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                tarea = CompletableFuture.failedFuture(new RuntimeException("Demasiados reportes en curso, intente más tarde"));
+            }
+            tareas.put(tipo, tarea);
+        }
+        
+        Map<String, Object> reportes = new LinkedHashMap<>();
+        Map<String, Object> tiemposMs = new LinkedHashMap<>();
+        Map<String, Object> errores = new LinkedHashMap<>();
+        tareas.forEach((tipo, tarea) -> {
+            try {
+                reportes.put(tipo, tarea.join());
+            } catch (CompletionException e) {
+                errores.put(tipo, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+            tiemposMs.put(tipo, tiempos.get(tipo));
+        });
+        
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("fecha", fecha);
+        resultado.put("reportes", reportes);
+        resultado.put("tiemposMs", tiemposMs);
+        resultado.put("tiempoTotalMs", (System.nanoTime() - inicioLote) / 1_000_000);
+        if (!errores.isEmpty()) {
+            resultado.put("errores", errores);
+        }
+        return resultado;
+    }
+    
+    private Map<String, Object> generarPorTipo(String tipo, LocalDate fecha) {
+        return switch (tipo) {
+            case "MENSUAL" -> generarReporteMensual(fecha);
+            case "TRIMESTRAL" -> generarReporteTrimestral(fecha);
+            case "ANUAL" -> generarReporteAnual(fecha);
+            case "STOCK" -> generarReporteStock();
+            case "TOP" -> generarReporteTopProductos(TOP_PRODUCTOS_LOTE, fecha.minusMonths(1), fecha);
+            default -> throw new IllegalArgumentException("Tipo de reporte no soportado: " + tipo);
+        };
+    }
+    
+    /**
+     * Escribe un reporte como documento JSON con su hash SHA-256, calculado durante la escritura
+     */
+    public void escribirDocumento(Map<String, Object> reporte, OutputStream salida) {
+        escritorReporteFirmado.escribir(reporte, salida);
+    }
+    
+    /**
+     * Columnas de la exportación CSV; se validan antes de empezar a escribir la respuesta
+     * 
+     * @throws IllegalArgumentException si el tipo o alguna columna no existen
+     */
+    public List<String> resolverColumnasCsv(String tipo, List<String> columnas) {
+        return exportadorCsv.resolverColumnas(tipo, columnas);
+    }
+    
+    /**
+     * Exporta en CSV las ventas del período (sin fechas, todas), el stock de productos
+     * o los k productos más vendidos del período
+     */
+    public void exportarCsv(String tipo, List<String> columnas, LocalDate desde, LocalDate hasta, int k, OutputStream salida) {
+        switch (tipo) {
+            case "ventas" -> limitadorJdbc.ejecutar(() -> {
+                exportadorCsv.escribirVentas(columnas,
+                    desde != null ? desde.atStartOfDay() : null,
+                    hasta != null ? hasta.atTime(23, 59, 59) : null,
+                    salida);
+                return null;
+            });
+            case "stock" -> limitadorJdbc.ejecutar(() -> {
+                exportadorCsv.escribirStock(columnas, salida);
+                return null;
+            });
+            case "top" -> {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> topProductos = (List<Map<String, Object>>) limitadorJdbc.ejecutar(
+                    () -> reporteService.generarReporteTopProductos(k, desde, hasta)).get("topProductos");
+                exportadorCsv.escribirTop(columnas, topProductos, salida);
+            }
+            default -> throw new IllegalArgumentException("Tipo de exportación no soportado: " + tipo);
+        }
+    }
+    
+    /**
+     * Exporta las ventas del período (sin fechas, todas) en formato Arrow IPC de streaming
+     */
+    public void exportarVentasArrow(LocalDate desde, LocalDate hasta, Integer filasPorLote, OutputStream salida) {
+        limitadorJdbc.ejecutar(() -> {
+            exportadorArrowVentas.escribir(
+                desde != null ? desde.atStartOfDay() : null,
+                hasta != null ? hasta.atTime(23, 59, 59) : null,
+                filasPorLote, salida);
+            return null;
+        });
+    }
+    
+    public Map<String, Object> obtenerEstadisticasCache() {
+        return cacheReportes.obtenerEstadisticas();
     }
 }
@@ -0,0 +1,64 @@
+package com.financorp.serf.facade;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.financorp.serf.service.PeriodoReporte;
+
+/**
+ * Parámetros de un trabajo de reporte asíncrono.
+ * MENSUAL, TRIMESTRAL y ANUAL usan {@code fecha}; PERIODO usa {@code fechaInicio} y
+ * {@code fechaFin} (puede abarcar varios años); TOP usa {@code k}, {@code fechaInicio}
+ * y {@code fechaFin}; STOCK no lleva parámetros.
+ */
+public record SolicitudTrabajoReporte(String tipo, LocalDate fecha, LocalDate fechaInicio, LocalDate fechaFin, Integer k) {
+    
+    public static final List<String> TIPOS = List.of("MENSUAL", "TRIMESTRAL", "ANUAL", "PERIODO", "STOCK", "TOP");
+    private static final int MAX_TOP_PRODUCTOS = 1000;
+    
+    /**
+     * Valida la solicitud, completa los valores por defecto y anula los parámetros que el
+     * tipo no usa, de modo que dos solicitudes equivalentes resulten iguales
+     * @throws IllegalArgumentException si la solicitud no es válida
+     */
+    public SolicitudTrabajoReporte normalizar() {
+        String tipoNormalizado = tipo == null ? "" : tipo.trim().toUpperCase();
+        switch (tipoNormalizado) {
+            case "MENSUAL", "TRIMESTRAL", "ANUAL" -> {
+                return new SolicitudTrabajoReporte(tipoNormalizado, fecha != null ? fecha : LocalDate.now(), null, null, null);
+            }
+            case "PERIODO" -> {
+                if (fechaInicio == null || fechaFin == null || fechaFin.isBefore(fechaInicio)) {
+                    throw new IllegalArgumentException("Período inválido");
+                }
+                return new SolicitudTrabajoReporte(tipoNormalizado, null, fechaInicio, fechaFin, null);
+            }
+            case "STOCK" -> {
+                return new SolicitudTrabajoReporte(tipoNormalizado, null, null, null, null);
+            }
+            case "TOP" -> {
+                int top = k != null ? k : 10;
+                LocalDate hasta = fechaFin != null ? fechaFin : LocalDate.now();
+                LocalDate desde = fechaInicio != null ? fechaInicio : hasta.minusMonths(1);
+                if (top < 1 || top > MAX_TOP_PRODUCTOS || hasta.isBefore(desde)) {
+                    throw new IllegalArgumentException("Parámetros de top productos inválidos");
+                }
+                return new SolicitudTrabajoReporte(tipoNormalizado, null, desde, hasta, top);
+            }
+            default -> throw new IllegalArgumentException("Tipo de reporte no soportado: " + tipo);
+        }
+    }
+    
+    /**
+     * Período de ventas que cubre el reporte de una solicitud normalizada; null para STOCK
+     */
+    public PeriodoReporte periodo() {
+        return switch (tipo) {
+            case "MENSUAL" -> PeriodoReporte.mensual(fecha);
+            case "TRIMESTRAL" -> PeriodoReporte.trimestral(fecha);
+            case "ANUAL" -> PeriodoReporte.anual(fecha);
+            case "PERIODO", "TOP" -> new PeriodoReporte(fechaInicio, fechaFin);
+            default -> null;
+        };
+    }
+}
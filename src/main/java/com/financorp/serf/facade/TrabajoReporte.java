@@ -0,0 +1,49 @@
+package com.financorp.serf.facade;
+
+import java.time.Instant;
+
+/**
+ * Estado de un trabajo de reporte asíncrono; inmutable, cada transición crea una copia.
+ * {@code versionDatos} es la versión de los datos del período al empezar a generarlo
+ * (null si el reporte no tiene período o aún no ha empezado).
+ */
+public record TrabajoReporte(String id, SolicitudTrabajoReporte solicitud, Estado estado, int progreso,
+                             Instant creado, Instant iniciado, Instant finalizado, Instant expira, String error,
+                             Long versionDatos) {
+    
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETADO, ERROR
+    }
+    
+    public static TrabajoReporte nuevo(String id, SolicitudTrabajoReporte solicitud) {
+        return new TrabajoReporte(id, solicitud, Estado.PENDIENTE, 0, Instant.now(), null, null, null, null, null);
+    }
+    
+    public TrabajoReporte pendiente() {
+        return new TrabajoReporte(id, solicitud, Estado.PENDIENTE, 0, creado, null, null, null, null, null);
+    }
+    
+    public TrabajoReporte iniciar(Long versionDatosInicial) {
+        return new TrabajoReporte(id, solicitud, Estado.EN_CURSO, 10, creado, Instant.now(), null, null, null, versionDatosInicial);
+    }
+    
+    public TrabajoReporte conProgreso(int nuevoProgreso) {
+        return new TrabajoReporte(id, solicitud, estado, nuevoProgreso, creado, iniciado, finalizado, expira, error, versionDatos);
+    }
+    
+    public TrabajoReporte completar(Instant expiracion) {
+        return new TrabajoReporte(id, solicitud, Estado.COMPLETADO, 100, creado, iniciado, Instant.now(), expiracion, null, versionDatos);
+    }
+    
+    public TrabajoReporte fallar(String mensaje, Instant expiracion) {
+        return new TrabajoReporte(id, solicitud, Estado.ERROR, progreso, creado, iniciado, Instant.now(), expiracion, mensaje, versionDatos);
+    }
+    
+    public boolean activo() {
+        return estado == Estado.PENDIENTE || estado == Estado.EN_CURSO;
+    }
+    
+    public boolean expirado(Instant ahora) {
+        return expira != null && !expira.isAfter(ahora);
+    }
+}
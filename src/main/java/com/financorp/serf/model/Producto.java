@@ -8,14 +8,16 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = @Index(name = "idx_productos_codigo_id", columnList = "codigo, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Producto {
     
+    // Secuencia con pool para permitir inserciones por lotes (JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -49,6 +51,10 @@ public class Producto {
     @Column(nullable = false)
     private Integer stockActual;
     
+    // Control de concurrencia optimista para ediciones completas del producto
+    @Version
+    private Long version;
+    
     public enum CategoriaProducto {
         LAPTOP,
         SMARTPHONE,
@@ -0,0 +1,34 @@
+package com.financorp.serf.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Tasa de cambio de una moneda a la moneda corporativa, en vigor desde una fecha
+ * hasta la siguiente vigencia de la misma moneda
+ */
+@Entity
+@Table(name = "tasas_cambio", uniqueConstraints = @UniqueConstraint(columnNames = {"moneda", "vigente_desde"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TasaCambioHistorica {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 3)
+    private String moneda;
+    
+    @Column(name = "vigente_desde", nullable = false)
+    private LocalDate vigenteDesde;
+    
+    // Unidades de moneda corporativa por unidad de la moneda (p. ej. 1 COP = 0.00021 EUR)
+    @Column(nullable = false, precision = 24, scale = 12)
+    private BigDecimal tasa;
+}
@@ -8,14 +8,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ventas")
+@Table(name = "ventas", indexes = @Index(name = "idx_ventas_fecha_venta_id", columnList = "fechaVenta, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Venta {
     
+    // Secuencia con pool para permitir inserciones por lotes (JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_seq", allocationSize = 50)
     private Long id;
     
     @Column(unique = true, nullable = false)
@@ -52,6 +54,9 @@ public class Venta {
     
     private BigDecimal totalVentaEUR;
     
+    // Versión de la tabla de tasas de cambio usada en la conversión a EUR
+    private Long versionTasasCambio;
+    
     public enum MetodoPago {
         EFECTIVO,
         TARJETA,
@@ -0,0 +1,51 @@
+package com.financorp.serf.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resumen diario de ventas, mantenido de forma incremental en la misma transacción
+ * que registra cada venta. Los reportes por período leen de aquí en lugar de recorrer
+ * todas las ventas.
+ */
+@Entity
+@Table(name = "ventas_diarias", uniqueConstraints = @UniqueConstraint(
+    columnNames = {"dia", "pais_filial", "producto_id", "moneda_local", "metodo_pago"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiaria {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate dia;
+    
+    @Column(nullable = false)
+    private String paisFilial;
+    
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+    
+    @Column(nullable = false)
+    private String monedaLocal;
+    
+    @Enumerated(EnumType.STRING)
+    private Venta.MetodoPago metodoPago;
+    
+    @Column(nullable = false)
+    private Long numeroVentas;
+    
+    @Column(nullable = false)
+    private Long cantidad;
+    
+    // Suma de totalVentaEUR de las ventas del grupo
+    @Column(name = "total_eur", nullable = false)
+    private BigDecimal totalEUR;
+}
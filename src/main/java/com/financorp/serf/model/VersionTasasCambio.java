@@ -0,0 +1,26 @@
+package com.financorp.serf.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Publicación del historial de tasas de cambio. Su ID es la versión de la tabla en memoria
+ * que registra cada venta: la genera la base de datos, así que no se repite entre reinicios.
+ */
+@Entity
+@Table(name = "versiones_tasas_cambio")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionTasasCambio {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDateTime registrada;
+}
@@ -1,9 +1,16 @@
 package com.financorp.serf.model.reporte;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.Map;
 
+import com.financorp.serf.plantilla.Plantilla;
+
 public abstract class Reporte implements Cloneable {
+    
+    private static final Plantilla PIE = Plantilla.compilar("\nFirma autorizada: {firma}\n", "firma");
+    
     protected String tipoReporte;
     protected LocalDate fechaGeneracion;
     protected String empresa;
@@ -14,7 +21,32 @@ public abstract class Reporte implements Cloneable {
         this.fechaGeneracion = LocalDate.now();
     }
     
-    public abstract String generarContenido();
+    public String generarContenido() {
+        StringBuilder contenido = new StringBuilder(256 + (datos != null ? datos.size() * 32 : 0));
+        try {
+            renderTo(contenido);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+        return contenido.toString();
+    }
+    
+    /**
+     * Escribe el reporte en el destino: encabezado propio del tipo, datos y firma
+     */
+    public void renderTo(Appendable destino) throws IOException {
+        escribirEncabezado(destino);
+        if (datos != null) {
+            // Las filas "clave: valor" se escriben directamente: una plantilla por fila solo añade coste
+            for (Map.Entry<String, Object> dato : datos.entrySet()) {
+                destino.append(dato.getKey()).append(": ").append(String.valueOf(dato.getValue())).append('\n');
+            }
+        }
+        PIE.renderTo(destino, firmaAutorizada);
+    }
+    
+    protected abstract void escribirEncabezado(Appendable destino) throws IOException;
     
     @Override
     public Reporte clone() throws CloneNotSupportedException {
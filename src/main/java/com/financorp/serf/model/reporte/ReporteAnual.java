@@ -1,7 +1,18 @@
 package com.financorp.serf.model.reporte;
 
+import java.io.IOException;
+
+import com.financorp.serf.plantilla.Plantilla;
+
 public class ReporteAnual extends Reporte {
     
+    private static final Plantilla ENCABEZADO = Plantilla.compilar("""
+        === REPORTE ANUAL ===
+        Empresa: {empresa}
+        Año: {ano}
+        Fecha de generación: {fechaGeneracion:fecha}
+        """, "empresa", "ano", "fechaGeneracion");
+    
     private int anoReporte;
     
     public ReporteAnual() {
@@ -15,21 +26,8 @@ public class ReporteAnual extends Reporte {
     }
     
     @Override
-    public String generarContenido() {
-        StringBuilder contenido = new StringBuilder();
-        contenido.append("=== REPORTE ANUAL ===\n");
-        contenido.append("Empresa: ").append(empresa).append("\n");
-        contenido.append("Año: ").append(anoReporte).append("\n");
-        contenido.append("Fecha de generación: ").append(fechaGeneracion).append("\n");
-        
-        if (datos != null) {
-            datos.forEach((key, value) -> 
-                contenido.append(key).append(": ").append(value).append("\n")
-            );
-        }
-        
-        contenido.append("\nFirma autorizada: ").append(firmaAutorizada).append("\n");
-        return contenido.toString();
+    protected void escribirEncabezado(Appendable destino) throws IOException {
+        ENCABEZADO.renderTo(destino, empresa, anoReporte, fechaGeneracion);
     }
     
     public int getAnoReporte() {
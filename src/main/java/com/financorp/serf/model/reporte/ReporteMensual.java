@@ -1,11 +1,21 @@
 package com.financorp.serf.model.reporte;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.TextStyle;
 import java.util.Locale;
 
+import com.financorp.serf.plantilla.Plantilla;
+
 public class ReporteMensual extends Reporte {
     
+    private static final Plantilla ENCABEZADO = Plantilla.compilar("""
+        === REPORTE MENSUAL ===
+        Empresa: {empresa}
+        Mes: {mes} {anio}
+        Fecha de generación: {fechaGeneracion:fecha}
+        """, "empresa", "mes", "anio", "fechaGeneracion");
+    
     private LocalDate mesReporte;
     
     public ReporteMensual() {
@@ -19,22 +29,9 @@ public class ReporteMensual extends Reporte {
     }
     
     @Override
-    public String generarContenido() {
-        StringBuilder contenido = new StringBuilder();
-        contenido.append("=== REPORTE MENSUAL ===\n");
-        contenido.append("Empresa: ").append(empresa).append("\n");
-        contenido.append("Mes: ").append(mesReporte.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH));
-        contenido.append(" ").append(mesReporte.getYear()).append("\n");
-        contenido.append("Fecha de generación: ").append(fechaGeneracion).append("\n");
-        
-        if (datos != null) {
-            datos.forEach((key, value) -> 
-                contenido.append(key).append(": ").append(value).append("\n")
-            );
-        }
-        
-        contenido.append("\nFirma autorizada: ").append(firmaAutorizada).append("\n");
-        return contenido.toString();
+    protected void escribirEncabezado(Appendable destino) throws IOException {
+        ENCABEZADO.renderTo(destino, empresa,
+            mesReporte.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH), mesReporte.getYear(), fechaGeneracion);
     }
     
     public LocalDate getMesReporte() {
@@ -1,7 +1,18 @@
 package com.financorp.serf.model.reporte;
 
+import java.io.IOException;
+
+import com.financorp.serf.plantilla.Plantilla;
+
 public class ReporteTrimestral extends Reporte {
     
+    private static final Plantilla ENCABEZADO = Plantilla.compilar("""
+        === REPORTE TRIMESTRAL ===
+        Empresa: {empresa}
+        Trimestre: {trimestre} - Año: {ano}
+        Fecha de generación: {fechaGeneracion:fecha}
+        """, "empresa", "trimestre", "ano", "fechaGeneracion");
+    
     private int trimestre;
     private int ano;
     
@@ -17,21 +28,8 @@ public class ReporteTrimestral extends Reporte {
     }
     
     @Override
-    public String generarContenido() {
-        StringBuilder contenido = new StringBuilder();
-        contenido.append("=== REPORTE TRIMESTRAL ===\n");
-        contenido.append("Empresa: ").append(empresa).append("\n");
-        contenido.append("Trimestre: ").append(trimestre).append(" - Año: ").append(ano).append("\n");
-        contenido.append("Fecha de generación: ").append(fechaGeneracion).append("\n");
-        
-        if (datos != null) {
-            datos.forEach((key, value) -> 
-                contenido.append(key).append(": ").append(value).append("\n")
-            );
-        }
-        
-        contenido.append("\nFirma autorizada: ").append(firmaAutorizada).append("\n");
-        return contenido.toString();
+    protected void escribirEncabezado(Appendable destino) throws IOException {
+        ENCABEZADO.renderTo(destino, empresa, trimestre, ano, fechaGeneracion);
     }
     
     public int getTrimestre() {
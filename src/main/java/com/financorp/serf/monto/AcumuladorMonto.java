@@ -0,0 +1,165 @@
+package com.financorp.serf.monto;
+
+import java.math.BigDecimal;
+
+/**
+ * Suma, cuenta, mínimo y máximo de importes en micros ({@link MontoFijo}).
+ * Sumar no crea objetos: la suma es un {@code long} y la escala no crece como con
+ * una cadena de {@code BigDecimal.add}; {@link MontoFijo#aMicros} convierte sin reservar
+ * memoria los importes de hasta 15 dígitos y 18 decimales, como los de la base de datos. Si la suma desborda, lo acumulado hasta ese
+ * momento pasa a un {@link BigDecimal} de reserva y se sigue sumando en {@code long};
+ * los importes que por sí solos no caben en micros se suman directamente a la reserva.
+ *
+ * No es thread-safe: cada hilo usa su acumulador y se combinan con {@link #combinar}.
+ */
+public final class AcumuladorMonto {
+
+    private long suma;
+    private long cuenta;
+    // Importes sumados en micros: el mínimo y el máximo solo son válidos si hay alguno
+    private long cuentaMicros;
+    private long minimo = Long.MAX_VALUE;
+    private long maximo = Long.MIN_VALUE;
+
+    // Solo se usan tras un desbordamiento o con importes fuera de rango
+    private BigDecimal reserva;
+    private BigDecimal minimoFueraRango;
+    private BigDecimal maximoFueraRango;
+
+    /**
+     * Suma un importe ya expresado en micros
+     */
+    public void sumarMicros(long micros) {
+        cuenta++;
+        cuentaMicros++;
+        if (micros < minimo) {
+            minimo = micros;
+        }
+        if (micros > maximo) {
+            maximo = micros;
+        }
+        long resultado = suma + micros;
+        // Desbordamiento: ambos sumandos tienen el mismo signo y el resultado el contrario
+        if (((suma ^ resultado) & (micros ^ resultado)) < 0) {
+            moverAReserva(MontoFijo.aBigDecimal(suma));
+            resultado = micros;
+        }
+        suma = resultado;
+    }
+
+    /**
+     * Suma un importe redondeándolo a micros; null se ignora
+     */
+    public void sumar(BigDecimal monto) {
+        if (monto == null) {
+            return;
+        }
+        if (MontoFijo.esRepresentable(monto)) {
+            sumarMicros(MontoFijo.aMicros(monto));
+            return;
+        }
+        BigDecimal redondeado = monto.setScale(MontoFijo.ESCALA, MontoFijo.REDONDEO);
+        cuenta++;
+        moverAReserva(redondeado);
+        if (minimoFueraRango == null || redondeado.compareTo(minimoFueraRango) < 0) {
+            minimoFueraRango = redondeado;
+        }
+        if (maximoFueraRango == null || redondeado.compareTo(maximoFueraRango) > 0) {
+            maximoFueraRango = redondeado;
+        }
+    }
+
+    /**
+     * Añade lo acumulado por otro acumulador (p. ej. el de otro hilo)
+     */
+    public void combinar(AcumuladorMonto otro) {
+        if (otro.cuenta == 0) {
+            return;
+        }
+        long resultado = suma + otro.suma;
+        if (((suma ^ resultado) & (otro.suma ^ resultado)) < 0) {
+            moverAReserva(MontoFijo.aBigDecimal(suma));
+            resultado = otro.suma;
+        }
+        suma = resultado;
+        if (otro.reserva != null) {
+            moverAReserva(otro.reserva);
+        }
+        cuenta += otro.cuenta;
+        if (otro.cuentaMicros > 0) {
+            cuentaMicros += otro.cuentaMicros;
+            minimo = Math.min(minimo, otro.minimo);
+            maximo = Math.max(maximo, otro.maximo);
+        }
+        if (otro.minimoFueraRango != null && (minimoFueraRango == null || otro.minimoFueraRango.compareTo(minimoFueraRango) < 0)) {
+            minimoFueraRango = otro.minimoFueraRango;
+        }
+        if (otro.maximoFueraRango != null && (maximoFueraRango == null || otro.maximoFueraRango.compareTo(maximoFueraRango) > 0)) {
+            maximoFueraRango = otro.maximoFueraRango;
+        }
+    }
+
+    private void moverAReserva(BigDecimal monto) {
+        reserva = reserva == null ? monto : reserva.add(monto);
+    }
+
+    public long cuenta() {
+        return cuenta;
+    }
+
+    /**
+     * Indica si la suma ya no cabe en micros y se lleva (en parte) en BigDecimal
+     */
+    public boolean desbordado() {
+        return reserva != null;
+    }
+
+    /**
+     * Suma en micros
+     *
+     * @throws ArithmeticException si la suma no cabe en un long
+     */
+    public long sumaMicros() {
+        if (reserva != null) {
+            return Math.addExact(MontoFijo.aMicros(reserva), suma);
+        }
+        return suma;
+    }
+
+    /**
+     * Suma exacta con {@link MontoFijo#ESCALA} decimales (cero si no se sumó nada)
+     */
+    public BigDecimal total() {
+        BigDecimal enMicros = MontoFijo.aBigDecimal(suma);
+        return reserva != null ? reserva.add(enMicros) : enMicros;
+    }
+
+    /**
+     * Suma con los decimales de presentación de los reportes
+     */
+    public BigDecimal totalPresentacion() {
+        return MontoFijo.aPresentacion(total());
+    }
+
+    /**
+     * Importe mínimo sumado, o null si no se sumó nada
+     */
+    public BigDecimal minimo() {
+        BigDecimal enRango = cuentaMicros > 0 ? MontoFijo.aBigDecimal(minimo) : null;
+        if (minimoFueraRango == null) {
+            return enRango;
+        }
+        return enRango == null || minimoFueraRango.compareTo(enRango) < 0 ? minimoFueraRango : enRango;
+    }
+
+    /**
+     * Importe máximo sumado, o null si no se sumó nada
+     */
+    public BigDecimal maximo() {
+        BigDecimal enRango = cuentaMicros > 0 ? MontoFijo.aBigDecimal(maximo) : null;
+        if (maximoFueraRango == null) {
+            return enRango;
+        }
+        return enRango == null || maximoFueraRango.compareTo(enRango) > 0 ? maximoFueraRango : enRango;
+    }
+}
@@ -0,0 +1,115 @@
+package com.financorp.serf.monto;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Importes en punto fijo: un {@code long} con el número de millonésimas de la moneda
+ * (micro-euros para la moneda corporativa).
+ *
+ * Política de redondeo, común a todas las agregaciones:
+ * <ul>
+ *   <li>Al pasar de {@link BigDecimal} a micros se redondea a {@link #ESCALA} decimales con
+ *       {@link #REDONDEO} (HALF_EVEN, sin sesgo al sumar muchos importes).</li>
+ *   <li>Las sumas en micros son exactas; si exceden el rango de {@code long} se continúan
+ *       en {@link BigDecimal} (ver {@link AcumuladorMonto}).</li>
+ *   <li>Los totales de los reportes se presentan con {@link #ESCALA_PRESENTACION} decimales,
+ *       redondeando también con HALF_EVEN.</li>
+ * </ul>
+ */
+public final class MontoFijo {
+
+    // Decimales representados: 1 unidad = 1 000 000 micros
+    public static final int ESCALA = 6;
+    public static final long MICROS_POR_UNIDAD = 1_000_000L;
+
+    // Decimales de los totales en los reportes (los importes en BD tienen 2)
+    public static final int ESCALA_PRESENTACION = 2;
+
+    public static final RoundingMode REDONDEO = RoundingMode.HALF_EVEN;
+
+    private static final BigInteger LONG_MINIMO = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAXIMO = BigInteger.valueOf(Long.MAX_VALUE);
+
+    // Camino sin objetos de aMicros: hasta 15 dígitos (valor sin escala < 2^50) y escala 0..18
+    private static final int PRECISION_RAPIDA = 15;
+    private static final int ESCALA_RAPIDA = 18;
+    private static final long[] POTENCIAS = new long[ESCALA_RAPIDA + 1];
+    private static final double[] POTENCIAS_DOUBLE = new double[ESCALA_RAPIDA + 1];
+
+    static {
+        long potencia = 1;
+        for (int i = 0; i <= ESCALA_RAPIDA; i++) {
+            POTENCIAS[i] = potencia;
+            POTENCIAS_DOUBLE[i] = potencia;
+            potencia *= 10;
+        }
+    }
+
+    private MontoFijo() {
+    }
+
+    /**
+     * Importe en micros, redondeado con la política común
+     *
+     * @throws ArithmeticException si no cabe en un long (más de ~9,2 billones de unidades)
+     */
+    public static long aMicros(BigDecimal monto) {
+        int escala = monto.scale();
+        int precision = monto.precision();
+        if (precision <= PRECISION_RAPIDA && escala >= 0 && escala <= ESCALA_RAPIDA
+                && precision - escala <= 18 - ESCALA) {
+            // doubleValue() de un valor compacto con escala <= 22 es una sola división correctamente
+            // redondeada y no reserva memoria; con menos de 2^50 el error al multiplicar por 10^escala
+            // es menor que 0,5 y Math.round recupera exactamente el valor sin escala
+            long sinEscala = Math.round(monto.doubleValue() * POTENCIAS_DOUBLE[escala]);
+            return escala <= ESCALA
+                ? sinEscala * POTENCIAS[ESCALA - escala]
+                : dividirHalfEven(sinEscala, POTENCIAS[escala - ESCALA]);
+        }
+        BigInteger micros = monto.setScale(ESCALA, REDONDEO).unscaledValue();
+        if (micros.compareTo(LONG_MINIMO) < 0 || micros.compareTo(LONG_MAXIMO) > 0) {
+            throw new ArithmeticException("Importe fuera del rango de punto fijo: " + monto);
+        }
+        return micros.longValue();
+    }
+
+    private static long dividirHalfEven(long dividendo, long divisor) {
+        long cociente = dividendo / divisor;
+        long dobleResto = Math.abs(dividendo % divisor) * 2;
+        if (dobleResto > divisor || (dobleResto == divisor && (cociente & 1) != 0)) {
+            cociente += Long.signum(dividendo);
+        }
+        return cociente;
+    }
+
+    /**
+     * Indica si el importe se puede representar en micros sin desbordar
+     */
+    public static boolean esRepresentable(BigDecimal monto) {
+        // Con hasta 12 dígitos enteros, el importe escalado a 6 decimales tiene menos de 19 y cabe en un long
+        return monto.precision() - monto.scale() <= 18 - ESCALA;
+    }
+
+    /**
+     * Importe exacto con {@link #ESCALA} decimales
+     */
+    public static BigDecimal aBigDecimal(long micros) {
+        return BigDecimal.valueOf(micros, ESCALA);
+    }
+
+    /**
+     * Importe redondeado a {@link #ESCALA} decimales con la política común, sin límite de rango
+     */
+    public static BigDecimal redondear(BigDecimal monto) {
+        return monto.setScale(ESCALA, REDONDEO);
+    }
+
+    /**
+     * Importe con los decimales de presentación de los reportes
+     */
+    public static BigDecimal aPresentacion(BigDecimal monto) {
+        return monto.setScale(ESCALA_PRESENTACION, REDONDEO);
+    }
+}
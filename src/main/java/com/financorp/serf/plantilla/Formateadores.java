@@ -0,0 +1,43 @@
+package com.financorp.serf.plantilla;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.financorp.serf.config.ConfiguracionGlobal;
+
+/**
+ * Formateadores de fecha compartidos, creados una vez por patrón.
+ * Los de fecha y fecha-hora siguen el formato configurado en
+ * {@link ConfiguracionGlobal#getFormatoFechaReportes()}, que puede cambiar en ejecución.
+ */
+public final class Formateadores {
+    
+    private static final String SUFIJO_HORA = " HH:mm:ss";
+    
+    private static final Map<String, DateTimeFormatter> POR_PATRON = new ConcurrentHashMap<>();
+    // Clave: formato de fecha configurado; valor: ese formato seguido de la hora
+    private static final Map<String, DateTimeFormatter> FECHA_HORA = new ConcurrentHashMap<>();
+    
+    private Formateadores() {
+    }
+    
+    public static DateTimeFormatter porPatron(String patron) {
+        return POR_PATRON.computeIfAbsent(patron, DateTimeFormatter::ofPattern);
+    }
+    
+    /**
+     * Formato de fecha de los reportes
+     */
+    public static DateTimeFormatter fecha() {
+        return porPatron(ConfiguracionGlobal.getInstance().getFormatoFechaReportes());
+    }
+    
+    /**
+     * Formato de fecha de los reportes seguido de la hora (HH:mm:ss)
+     */
+    public static DateTimeFormatter fechaHora() {
+        return FECHA_HORA.computeIfAbsent(ConfiguracionGlobal.getInstance().getFormatoFechaReportes(),
+            formato -> DateTimeFormatter.ofPattern(formato + SUFIJO_HORA));
+    }
+}
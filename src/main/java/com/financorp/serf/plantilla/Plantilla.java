@@ -0,0 +1,163 @@
+package com.financorp.serf.plantilla;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plantilla de texto compilada una sola vez en una secuencia de segmentos.
+ *
+ * Sintaxis: {@code {campo}} inserta el valor como texto, {@code {campo:fecha}} y
+ * {@code {campo:fechaHora}} lo formatean con el formato de fecha configurado y
+ * {@code {campo:fecha:patrón}} con un patrón fijo. Dos llaves de apertura seguidas escriben
+ * una llave literal.
+ * Los valores se pasan en el orden en que se declaran los campos al compilar.
+ * Escribir no vuelve a analizar la plantilla ni crea formateadores.
+ */
+public final class Plantilla {
+    
+    private final Segmento[] segmentos;
+    private final int numeroCampos;
+    
+    private Plantilla(Segmento[] segmentos, int numeroCampos) {
+        this.segmentos = segmentos;
+        this.numeroCampos = numeroCampos;
+    }
+    
+    /**
+     * @param texto  Texto de la plantilla
+     * @param campos Nombres de los campos, en el orden en que se pasarán sus valores
+     * @throws IllegalArgumentException si la plantilla usa un campo no declarado o está mal formada
+     */
+    public static Plantilla compilar(String texto, String... campos) {
+        List<String> nombres = Arrays.asList(campos);
+        List<Segmento> segmentos = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < texto.length() && texto.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+                continue;
+            }
+            int cierre = texto.indexOf('}', i);
+            if (cierre < 0) {
+                throw new IllegalArgumentException("Campo sin cerrar en la plantilla, posición " + i);
+            }
+            if (!literal.isEmpty()) {
+                segmentos.add(Segmento.literal(literal.toString()));
+                literal.setLength(0);
+            }
+            segmentos.add(compilarCampo(texto.substring(i + 1, cierre), nombres));
+            i = cierre + 1;
+        }
+        if (!literal.isEmpty()) {
+            segmentos.add(Segmento.literal(literal.toString()));
+        }
+        return new Plantilla(segmentos.toArray(Segmento[]::new), campos.length);
+    }
+    
+    private static Segmento compilarCampo(String definicion, List<String> nombres) {
+        String[] partes = definicion.split(":", 3);
+        int indice = nombres.indexOf(partes[0].trim());
+        if (indice < 0) {
+            throw new IllegalArgumentException("Campo no declarado en la plantilla: " + partes[0]);
+        }
+        if (partes.length == 1) {
+            return Segmento.campo(Tipo.TEXTO, indice, null);
+        }
+        return switch (partes[1].trim()) {
+            case "fecha" -> partes.length == 3
+                ? Segmento.campo(Tipo.PATRON, indice, Formateadores.porPatron(partes[2]))
+                : Segmento.campo(Tipo.FECHA, indice, null);
+            case "fechaHora" -> Segmento.campo(Tipo.FECHA_HORA, indice, null);
+            default -> throw new IllegalArgumentException("Tipo de campo desconocido en la plantilla: " + partes[1]);
+        };
+    }
+    
+    /**
+     * Escribe la plantilla con los valores de sus campos en el destino
+     */
+    public void renderTo(Appendable destino, Object... valores) throws IOException {
+        if (valores.length != numeroCampos) {
+            throw new IllegalArgumentException("Se esperaban " + numeroCampos + " valores y se recibieron " + valores.length);
+        }
+        for (Segmento segmento : segmentos) {
+            segmento.escribir(destino, valores);
+        }
+    }
+    
+    public String renderizar(Object... valores) {
+        StringBuilder resultado = new StringBuilder();
+        try {
+            renderTo(resultado, valores);
+        } catch (IOException e) {
+            // StringBuilder no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+        return resultado.toString();
+    }
+    
+    private enum Tipo {
+        LITERAL, TEXTO, FECHA, FECHA_HORA, PATRON
+    }
+    
+    /**
+     * Trozo de la plantilla. Una sola clase con un switch por tipo evita llamadas
+     * polimórficas en el bucle de escritura.
+     */
+    private record Segmento(Tipo tipo, String literal, int indice, DateTimeFormatter patronFijo) {
+        
+        static Segmento literal(String texto) {
+            return new Segmento(Tipo.LITERAL, texto, -1, null);
+        }
+        
+        static Segmento campo(Tipo tipo, int indice, DateTimeFormatter patronFijo) {
+            return new Segmento(tipo, null, indice, patronFijo);
+        }
+        
+        void escribir(Appendable destino, Object[] valores) throws IOException {
+            if (tipo == Tipo.LITERAL) {
+                destino.append(literal);
+            } else if (tipo == Tipo.TEXTO) {
+                escribirTexto(destino, valores[indice]);
+            } else {
+                escribirFecha(destino, valores[indice]);
+            }
+        }
+        
+        private static void escribirTexto(Appendable destino, Object valor) throws IOException {
+            if (valor instanceof CharSequence texto) {
+                destino.append(texto);
+            } else if (valor instanceof Integer numero && destino instanceof StringBuilder constructor) {
+                constructor.append(numero.intValue());
+            } else {
+                destino.append(String.valueOf(valor));
+            }
+        }
+        
+        private void escribirFecha(Appendable destino, Object valor) throws IOException {
+            if (valor instanceof TemporalAccessor fecha) {
+                // El formato configurado se consulta al escribir por si cambió
+                DateTimeFormatter formateador = switch (tipo) {
+                    case FECHA -> Formateadores.fecha();
+                    case FECHA_HORA -> Formateadores.fechaHora();
+                    default -> patronFijo;
+                };
+                formateador.formatTo(fecha, destino);
+            } else {
+                destino.append(String.valueOf(valor));
+            }
+        }
+    }
+}
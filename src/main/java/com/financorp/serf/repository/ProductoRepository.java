@@ -2,14 +2,56 @@ package com.financorp.serf.repository;
 
 import com.financorp.serf.model.Producto;
 import com.financorp.serf.model.Producto.CategoriaProducto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     Optional<Producto> findByCodigo(String codigo);
     List<Producto> findByCategoria(CategoriaProducto categoria);
     List<Producto> findByStockActualLessThan(Integer stock);
+    
+    /**
+     * Recorre todos los productos por código, leyendo en bloques como las consultas de streaming
+     * de ventas. Debe consumirse dentro de una transacción.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = VentaRepository.TAMANO_FETCH))
+    @Query("SELECT p FROM Producto p ORDER BY p.codigo, p.id")
+    Stream<Producto> streamTodos();
+    
+    @Query("SELECT p FROM Producto p ORDER BY p.codigo, p.id")
+    List<Producto> findPrimeraPagina(Limit limite);
+    
+    /**
+     * Página siguiente a (codigo, id), recorriendo el índice (codigo, id) por rango
+     */
+    @Query("SELECT p FROM Producto p WHERE p.codigo >= :codigo AND (p.codigo > :codigo OR p.id > :id) " +
+           "ORDER BY p.codigo, p.id")
+    List<Producto> findPaginaDespuesDe(@Param("codigo") String codigo, @Param("id") Long id, Limit limite);
+    
+    /**
+     * Descuenta stock de forma atómica y condicional en una sola sentencia UPDATE.
+     * También incrementa la versión para que las ediciones optimistas concurrentes se reintenten.
+     * @return número de filas afectadas (0 si el producto no existe o no tiene stock suficiente)
+     */
+    @Modifying
+    @Query("UPDATE Producto p SET p.stockActual = p.stockActual - :cantidad, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.stockActual >= :cantidad")
+    int descontarStock(@Param("id") Long id, @Param("cantidad") Integer cantidad);
+    
+    /**
+     * Stock actual leído de la base de datos, sin pasar por el contexto de persistencia
+     */
+    @Query("SELECT p.stockActual FROM Producto p WHERE p.id = :id")
+    Optional<Integer> findStockActualById(@Param("id") Long id);
 }
\ No newline at end of file
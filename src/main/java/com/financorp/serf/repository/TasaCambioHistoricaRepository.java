@@ -0,0 +1,12 @@
+package com.financorp.serf.repository;
+
+import com.financorp.serf.model.TasaCambioHistorica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface TasaCambioHistoricaRepository extends JpaRepository<TasaCambioHistorica, Long> {
+    Optional<TasaCambioHistorica> findByMonedaAndVigenteDesde(String moneda, LocalDate vigenteDesde);
+}
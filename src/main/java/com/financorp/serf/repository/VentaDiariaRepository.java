@@ -0,0 +1,86 @@
+package com.financorp.serf.repository;
+
+import com.financorp.serf.model.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+    
+    /**
+     * Suma una venta (o un grupo de ventas con la misma clave) al resumen del día,
+     * creando la fila si no existe
+     */
+    @Modifying
+    @Query(value = """
+        MERGE INTO ventas_diarias d
+        USING (SELECT CAST(:dia AS DATE) AS dia, CAST(:pais AS VARCHAR(255)) AS pais_filial,
+                      CAST(:productoId AS BIGINT) AS producto_id, CAST(:moneda AS VARCHAR(255)) AS moneda_local,
+                      CAST(:metodoPago AS VARCHAR(255)) AS metodo_pago) s
+        ON (d.dia = s.dia AND d.pais_filial = s.pais_filial AND d.producto_id = s.producto_id
+            AND d.moneda_local = s.moneda_local AND d.metodo_pago IS NOT DISTINCT FROM s.metodo_pago)
+        WHEN MATCHED THEN UPDATE SET
+            numero_ventas = d.numero_ventas + :numeroVentas,
+            cantidad = d.cantidad + :cantidad,
+            total_eur = d.total_eur + :totalEUR
+        WHEN NOT MATCHED THEN INSERT
+            (dia, pais_filial, producto_id, moneda_local, metodo_pago, numero_ventas, cantidad, total_eur)
+            VALUES (s.dia, s.pais_filial, s.producto_id, s.moneda_local, s.metodo_pago, :numeroVentas, :cantidad, :totalEUR)
+        """, nativeQuery = true)
+    int acumular(@Param("dia") LocalDate dia,
+                 @Param("pais") String paisFilial,
+                 @Param("productoId") Long productoId,
+                 @Param("moneda") String monedaLocal,
+                 @Param("metodoPago") String metodoPago,
+                 @Param("numeroVentas") long numeroVentas,
+                 @Param("cantidad") long cantidad,
+                 @Param("totalEUR") BigDecimal totalEUR);
+    
+    @Modifying
+    @Query(value = "DELETE FROM ventas_diarias", nativeQuery = true)
+    int eliminarTodo();
+    
+    /**
+     * Recalcula el resumen completo a partir de la tabla de ventas (backfill)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO ventas_diarias
+            (dia, pais_filial, producto_id, moneda_local, metodo_pago, numero_ventas, cantidad, total_eur)
+        SELECT CAST(v.fecha_venta AS DATE), v.pais_filial, v.producto_id, v.moneda_local, v.metodo_pago,
+               COUNT(*), SUM(v.cantidad), COALESCE(SUM(v.total_ventaeur), 0)
+        FROM ventas v
+        GROUP BY CAST(v.fecha_venta AS DATE), v.pais_filial, v.producto_id, v.moneda_local, v.metodo_pago
+        """, nativeQuery = true)
+    int reconstruirDesdeVentas();
+    
+    @Query("SELECT COALESCE(SUM(d.numeroVentas), 0) AS numeroVentas, COALESCE(SUM(d.cantidad), 0) AS cantidad, " +
+           "COALESCE(SUM(d.totalEUR), 0) AS totalEUR FROM VentaDiaria d WHERE d.dia BETWEEN :inicio AND :fin")
+    TotalesVentas totalizar(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+    
+    @Query("SELECT d.dia AS clave, SUM(d.numeroVentas) AS numeroVentas, SUM(d.cantidad) AS cantidad, " +
+           "SUM(d.totalEUR) AS totalEUR FROM VentaDiaria d WHERE d.dia BETWEEN :inicio AND :fin " +
+           "GROUP BY d.dia ORDER BY d.dia")
+    List<TotalesVentas> totalizarPorDia(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+    
+    @Query("SELECT d.paisFilial AS clave, SUM(d.numeroVentas) AS numeroVentas, SUM(d.cantidad) AS cantidad, " +
+           "SUM(d.totalEUR) AS totalEUR FROM VentaDiaria d WHERE d.dia BETWEEN :inicio AND :fin " +
+           "GROUP BY d.paisFilial ORDER BY d.paisFilial")
+    List<TotalesVentas> totalizarPorPais(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+    
+    /**
+     * Proyección de totales agregados, opcionalmente agrupados por una clave (día, país...)
+     */
+    interface TotalesVentas {
+        Object getClave();
+        Long getNumeroVentas();
+        Long getCantidad();
+        BigDecimal getTotalEUR();
+    }
+}
@@ -1,17 +1,31 @@
 package com.financorp.serf.repository;
 
 import com.financorp.serf.model.Venta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
+    
+    // Filas por viaje a la base de datos en las consultas de streaming
+    String TAMANO_FETCH = "500";
+    
     List<Venta> findByPaisFilial(String paisFilial);
     
+    boolean existsByNumeroFactura(String numeroFactura);
+    
     List<Venta> findByFechaVentaBetween(LocalDateTime inicio, LocalDateTime fin);
     
     @Query("SELECT v FROM Venta v WHERE v.fechaVenta BETWEEN :inicio AND :fin AND v.paisFilial = :pais")
@@ -26,4 +40,80 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
         @Param("inicio") LocalDateTime inicio,
         @Param("fin") LocalDateTime fin
     );
-}
\ No newline at end of file
+    
+    @Query("SELECT v FROM Venta v JOIN FETCH v.producto WHERE v.fechaVenta BETWEEN :inicio AND :fin ORDER BY v.fechaVenta")
+    List<Venta> findConProductoByRangoFecha(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin
+    );
+    
+    /**
+     * Recorre todas las ventas (con su producto) leyendo de la base de datos en bloques
+     * de {@link #TAMANO_FETCH} filas. Debe consumirse dentro de una transacción.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH))
+    @Query("SELECT v FROM Venta v JOIN FETCH v.producto ORDER BY v.id")
+    Stream<Venta> streamTodas();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TAMANO_FETCH))
+    @Query("SELECT v FROM Venta v JOIN FETCH v.producto WHERE v.fechaVenta BETWEEN :inicio AND :fin ORDER BY v.fechaVenta")
+    Stream<Venta> streamConProductoByRangoFecha(
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin
+    );
+    
+    /**
+     * Primera página por keyset: ventas más recientes primero
+     */
+    @Query("SELECT v FROM Venta v JOIN FETCH v.producto ORDER BY v.fechaVenta DESC, v.id DESC")
+    List<Venta> findPrimeraPagina(Limit limite);
+    
+    /**
+     * Página siguiente a (fechaVenta, id). La condición redundante sobre fechaVenta permite
+     * recorrer el índice (fecha_venta, id) por rango: cualquier página cuesta lo mismo que la primera.
+     */
+    @Query("SELECT v FROM Venta v JOIN FETCH v.producto " +
+           "WHERE v.fechaVenta <= :fecha AND (v.fechaVenta < :fecha OR v.id < :id) " +
+           "ORDER BY v.fechaVenta DESC, v.id DESC")
+    List<Venta> findPaginaDespuesDe(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Limit limite);
+    
+    @Query("SELECT v.numeroFactura FROM Venta v WHERE v.numeroFactura IN :numeros")
+    List<String> findNumerosFacturaExistentes(@Param("numeros") Collection<String> numeros);
+    
+    @Query("SELECT v.numeroFactura FROM Venta v")
+    Stream<String> streamNumerosFactura();
+    
+    /**
+     * Totales del período agrupados por país, método de pago y día, en una sola pasada.
+     * El número de filas depende de los grupos, no del número de ventas.
+     */
+    @Query("SELECT v.paisFilial AS paisFilial, v.metodoPago AS metodoPago, CAST(v.fechaVenta AS LocalDate) AS dia, " +
+           "COUNT(v) AS numeroVentas, SUM(v.cantidad) AS cantidad, SUM(v.totalVentaEUR) AS totalEUR " +
+           "FROM Venta v WHERE v.fechaVenta BETWEEN :inicio AND :fin " +
+           "GROUP BY v.paisFilial, v.metodoPago, CAST(v.fechaVenta AS LocalDate)")
+    List<GrupoVentas> resumirPorPeriodo(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+    
+    /**
+     * Unidades e ingresos por producto en el período (sin cargar ventas ni productos)
+     */
+    @Query("SELECT v.producto.id AS productoId, COUNT(v) AS numeroVentas, SUM(v.cantidad) AS cantidad, " +
+           "SUM(v.totalVentaEUR) AS totalEUR FROM Venta v WHERE v.fechaVenta BETWEEN :inicio AND :fin " +
+           "GROUP BY v.producto.id")
+    Stream<VentasProducto> totalizarPorProducto(@Param("inicio") LocalDateTime inicio, @Param("fin") LocalDateTime fin);
+    
+    interface VentasProducto {
+        Long getProductoId();
+        Long getNumeroVentas();
+        Long getCantidad();
+        BigDecimal getTotalEUR();
+    }
+    
+    interface GrupoVentas {
+        String getPaisFilial();
+        Venta.MetodoPago getMetodoPago();
+        LocalDate getDia();
+        Long getNumeroVentas();
+        Long getCantidad();
+        BigDecimal getTotalEUR();
+    }
+}
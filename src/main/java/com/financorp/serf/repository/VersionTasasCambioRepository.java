@@ -0,0 +1,11 @@
+package com.financorp.serf.repository;
+
+import com.financorp.serf.model.VersionTasasCambio;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface VersionTasasCambioRepository extends JpaRepository<VersionTasasCambio, Long> {
+    Optional<VersionTasasCambio> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,244 @@
+package com.financorp.serf.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.service.TasaCambioProvider.TasasObtenidas;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Refresca en segundo plano las tasas de cambio desde el {@link TasaCambioProvider} configurado.
+ *
+ * Las conversiones nunca esperan a la red: leen la tabla publicada en {@link ConfiguracionGlobal}
+ * y el refresco, en un hilo propio con intervalo fijo entre el final de una consulta y el inicio
+ * de la siguiente, solo publica una tabla nueva cuando la fuente responde con tasas válidas.
+ * Si la fuente tarda o falla se sigue usando la tabla actual.
+ *
+ * Las últimas tasas obtenidas se guardan en un archivo local (escrito en un temporal y movido
+ * de forma atómica) que se vuelve a publicar al arrancar, antes de consultar la fuente.
+ */
+@Component
+public class ActualizadorTasasCambio {
+
+    private final TasaCambioProvider proveedor;
+    private final TasaCambioService tasaCambioService;
+    private final ObjectMapper objectMapper;
+    private final Path archivoCache;
+    private final Duration intervalo;
+    private final Duration antiguedadMaxima;
+    private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
+
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final AtomicLong actualizaciones = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong fallosConsecutivos = new AtomicLong();
+    // Momento en que se obtuvieron las tasas vigentes (de la fuente o de la caché)
+    private volatile Instant ultimaObtencion;
+    private volatile String fuenteActual = "tasas iniciales";
+    private volatile Instant ultimoIntento;
+    private volatile String ultimoError;
+    private ScheduledExecutorService planificador;
+
+    public ActualizadorTasasCambio(ObjectProvider<TasaCambioProvider> proveedor,
+                                   TasaCambioService tasaCambioService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${serf.tasas.cache:data/tasas-cambio.json}") String archivoCache,
+                                   @Value("${serf.tasas.actualizacion.intervalo-segundos:300}") long intervaloSegundos,
+                                   @Value("${serf.tasas.antiguedad-maxima-minutos:60}") long antiguedadMaximaMinutos) {
+        this.proveedor = proveedor.getIfAvailable();
+        this.tasaCambioService = tasaCambioService;
+        this.objectMapper = objectMapper;
+        this.archivoCache = Path.of(archivoCache);
+        this.intervalo = Duration.ofSeconds(intervaloSegundos);
+        this.antiguedadMaxima = Duration.ofMinutes(antiguedadMaximaMinutos);
+    }
+
+    /**
+     * Publica la caché local y programa el refresco. Se ejecuta después de cargar el
+     * historial persistido ({@link TasaCambioService#cargar()}).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void iniciar() {
+        cargarCache();
+        if (proveedor == null) {
+            return;
+        }
+        planificador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("tasas-cambio-actualizador").factory());
+        planificador.scheduleWithFixedDelay(this::actualizar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void detener() {
+        if (planificador != null) {
+            planificador.shutdownNow();
+        }
+    }
+
+    /**
+     * Pide un refresco inmediato en segundo plano y vuelve sin esperar
+     *
+     * @return false si no hay proveedor configurado
+     */
+    public synchronized boolean solicitarActualizacion() {
+        if (planificador == null) {
+            return false;
+        }
+        planificador.execute(this::actualizar);
+        return true;
+    }
+
+    /**
+     * Consulta la fuente y publica sus tasas si son válidas. No se solapan dos consultas:
+     * si ya hay una en curso, esta no hace nada.
+     *
+     * @return true si se obtuvieron tasas válidas
+     */
+    boolean actualizar() {
+        if (proveedor == null || !enCurso.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            ultimoIntento = Instant.now();
+            TasasObtenidas obtenidas = proveedor.obtenerTasas();
+            Instant ahora = Instant.now();
+            LocalDate vigenteDesde = publicar(obtenidas, proveedor.nombre(), ahora);
+            // Se guarda la fecha con la que se registraron, no la de la fuente: si esta no la
+            // indica, un reinicio posterior no debe cambiarla por la fecha del reinicio
+            guardarCache(new CacheTasas(ahora, proveedor.nombre(), vigenteDesde, obtenidas.tasas()));
+            actualizaciones.incrementAndGet();
+            fallosConsecutivos.set(0);
+            ultimoError = null;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException | RuntimeException e) {
+            // Se mantiene la tabla publicada
+            fallos.incrementAndGet();
+            fallosConsecutivos.incrementAndGet();
+            ultimoError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            return false;
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * @return fecha de vigencia con la que se registran (hoy si la fuente no la indica)
+     */
+    private LocalDate publicar(TasasObtenidas obtenidas, String fuente, Instant obtenidasEn) {
+        if (obtenidas == null || obtenidas.tasas() == null || obtenidas.tasas().isEmpty()) {
+            throw new IllegalArgumentException("La fuente " + fuente + " no devolvió tasas");
+        }
+        LocalDate vigenteDesde = obtenidas.vigenteDesde() != null ? obtenidas.vigenteDesde() : LocalDate.now();
+        // Sin cambios no se añade historial ni se publica una versión nueva
+        if (!coincidenConVigentes(vigenteDesde, obtenidas.tasas())) {
+            tasaCambioService.registrarTasas(vigenteDesde, obtenidas.tasas());
+        }
+        ultimaObtencion = obtenidasEn;
+        fuenteActual = fuente;
+        return vigenteDesde;
+    }
+
+    private boolean coincidenConVigentes(LocalDate fecha, Map<String, BigDecimal> tasas) {
+        Map<String, BigDecimal> vigentes = configuracion.getTablaTasasCambio().tasas(fecha);
+        // Los códigos se comparan como los guarda el registro ("usd " es USD)
+        for (Map.Entry<String, BigDecimal> tasa : TasaCambioService.normalizarMonedas(tasas).entrySet()) {
+            BigDecimal vigente = vigentes.get(tasa.getKey());
+            if (vigente == null || tasa.getValue() == null || vigente.compareTo(tasa.getValue()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Publica las últimas tasas guardadas; un archivo ilegible o inválido se ignora, igual
+     * que uno sin fecha de vigencia (no se sabe desde cuándo rigen esas tasas)
+     */
+    void cargarCache() {
+        if (!Files.exists(archivoCache)) {
+            return;
+        }
+        try {
+            CacheTasas cache = objectMapper.readValue(archivoCache.toFile(), CacheTasas.class);
+            if (cache.vigenteDesde() == null) {
+                throw new IllegalArgumentException("sin fecha de vigencia");
+            }
+            publicar(new TasasObtenidas(cache.vigenteDesde(), cache.tasas()), "caché (" + cache.fuente() + ")", cache.obtenidas());
+        } catch (IOException | RuntimeException e) {
+            ultimoError = "Caché de tasas descartada: " + e.getMessage();
+        }
+    }
+
+    private void guardarCache(CacheTasas cache) throws IOException {
+        Path directorio = archivoCache.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "tmp-", ".json");
+        try {
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                objectMapper.writeValue(salida, cache);
+            }
+            Files.move(temporal, archivoCache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Antigüedad de las tasas vigentes y resultado de los últimos refrescos
+     */
+    public Map<String, Object> obtenerEstado() {
+        Instant obtenidas = ultimaObtencion;
+        Optional<Duration> antiguedad = Optional.ofNullable(obtenidas).map(instante -> Duration.between(instante, Instant.now()));
+
+        Map<String, Object> estado = new LinkedHashMap<>();
+        estado.put("proveedor", proveedor != null ? proveedor.nombre() : null);
+        estado.put("fuenteActual", fuenteActual);
+        estado.put("versionTasas", configuracion.getTablaTasasCambio().version());
+        estado.put("intervaloSegundos", intervalo.toSeconds());
+        estado.put("ultimaObtencion", obtenidas);
+        estado.put("antiguedadSegundos", antiguedad.map(Duration::toSeconds).orElse(null));
+        // Sin proveedor las tasas solo cambian a mano y no se consideran obsoletas
+        estado.put("obsoletas", proveedor != null && antiguedad.map(a -> a.compareTo(antiguedadMaxima) > 0).orElse(true));
+        estado.put("ultimoIntento", ultimoIntento);
+        estado.put("actualizacionEnCurso", enCurso.get());
+        estado.put("actualizaciones", actualizaciones.get());
+        estado.put("fallos", fallos.get());
+        estado.put("fallosConsecutivos", fallosConsecutivos.get());
+        estado.put("ultimoError", ultimoError);
+        return estado;
+    }
+
+    record CacheTasas(Instant obtenidas, String fuente, LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+    }
+}
@@ -0,0 +1,155 @@
+package com.financorp.serf.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caché de reportes por período (tipo, período, parámetros) con desalojo LRU por tamaño.
+ * Las entradas no caducan por tiempo: los períodos cerrados se conservan mientras haya
+ * espacio y los abiertos se invalidan al registrar ventas cuya fecha cae dentro de ellos.
+ * Las invalidaciones se aplican tras el commit; un reporte calculado mientras se
+ * confirmaba una venta de su período no se guarda, para no conservar datos anteriores a ella.
+ * Cada invalidación también avanza la versión de datos de sus días (ver {@link #versionDatos}),
+ * que usan quienes guardan reportes fuera de esta caché.
+ */
+@Component
+public class CacheReportes {
+    
+    private final int maxEntradas;
+    
+    // Orden de acceso: la primera entrada es la usada hace más tiempo
+    private final LinkedHashMap<ClaveReporte, Map<String, Object>> entradas;
+    
+    private long generacion;
+    // Generación de la última invalidación de cada día y de la última invalidación total
+    private final TreeMap<LocalDate, Long> generacionPorDia = new TreeMap<>();
+    private long generacionTotal;
+    private long aciertos;
+    private long fallos;
+    private long desalojos;
+    private long invalidaciones;
+    
+    public CacheReportes(@Value("${serf.reportes.cache.max-entradas:256}") int maxEntradas) {
+        this.maxEntradas = maxEntradas;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ClaveReporte, Map<String, Object>> mayor) {
+                if (size() > CacheReportes.this.maxEntradas) {
+                    desalojos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Devuelve una copia del reporte en caché o lo genera y lo guarda
+     */
+    public Map<String, Object> obtener(ClaveReporte clave, Supplier<Map<String, Object>> generador) {
+        long versionInicial;
+        synchronized (this) {
+            Map<String, Object> reporte = entradas.get(clave);
+            if (reporte != null) {
+                aciertos++;
+                return new HashMap<>(reporte);
+            }
+            fallos++;
+            versionInicial = versionDatos(clave.periodo());
+        }
+        
+        // Se genera fuera del lock para no serializar los reportes entre sí
+        Map<String, Object> reporte = generador.get();
+        synchronized (this) {
+            // Solo las ventas del período del reporte lo dejan desactualizado
+            if (versionDatos(clave.periodo()) == versionInicial) {
+                entradas.put(clave, new HashMap<>(reporte));
+            }
+        }
+        return reporte;
+    }
+    
+    /**
+     * Invalida los reportes cuyo período contiene alguno de los días, cuando la
+     * transacción en curso (si la hay) se confirma
+     */
+    public void invalidarAlConfirmar(Collection<LocalDate> dias) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidar(dias);
+                }
+            });
+        } else {
+            invalidar(dias);
+        }
+    }
+    
+    public synchronized void invalidar(Collection<LocalDate> dias) {
+        generacion++;
+        dias.forEach(dia -> generacionPorDia.put(dia, generacion));
+        entradas.keySet().removeIf(clave -> {
+            boolean afectada = dias.stream().anyMatch(clave.periodo()::contiene);
+            if (afectada) {
+                invalidaciones++;
+            }
+            return afectada;
+        });
+    }
+    
+    public synchronized void invalidarTodo() {
+        generacion++;
+        generacionTotal = generacion;
+        generacionPorDia.clear();
+        invalidaciones += entradas.size();
+        entradas.clear();
+    }
+    
+    /**
+     * Versión de los datos de un período: cambia cada vez que se confirman ventas con
+     * fecha dentro de él. Solo es comparable dentro de la misma ejecución de la aplicación.
+     */
+    public synchronized long versionDatos(PeriodoReporte periodo) {
+        long version = generacionTotal;
+        for (long generacionDia : generacionPorDia.subMap(periodo.inicio(), true, periodo.fin(), true).values()) {
+            version = Math.max(version, generacionDia);
+        }
+        return version;
+    }
+    
+    public synchronized Map<String, Object> obtenerEstadisticas() {
+        long cerradas = entradas.keySet().stream().filter(clave -> clave.periodo().estaCerrado()).count();
+        
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("entradas", entradas.size());
+        estadisticas.put("periodosCerrados", cerradas);
+        estadisticas.put("maxEntradas", maxEntradas);
+        estadisticas.put("aciertos", aciertos);
+        estadisticas.put("fallos", fallos);
+        estadisticas.put("desalojos", desalojos);
+        estadisticas.put("invalidaciones", invalidaciones);
+        return estadisticas;
+    }
+    
+    /**
+     * Clave de un reporte: tipo, período normalizado y parámetros adicionales
+     */
+    public record ClaveReporte(String tipo, PeriodoReporte periodo, List<Object> parametros) {
+        
+        public ClaveReporte(String tipo, PeriodoReporte periodo) {
+            this(tipo, periodo, List.of());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.financorp.serf.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para paginación por clave (keyset): codifica la clave de orden y el ID
+ * de la última fila de una página para que la siguiente consulta continúe justo
+ * después de ella, sin OFFSET.
+ */
+public record CursorKeyset(String clave, Long id) {
+    
+    public String codificar() {
+        String texto = clave + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static CursorKeyset decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // La clave (p. ej. un código de producto) puede contener el separador; el ID no
+            int corte = texto.lastIndexOf('|');
+            return new CursorKeyset(texto.substring(0, corte), Long.valueOf(texto.substring(corte + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+    
+    /**
+     * Arma la respuesta de una página a partir de las filas leídas con un límite de
+     * {@code tamano + 1}: la fila sobrante solo indica que hay página siguiente
+     */
+    public static <T> Map<String, Object> armarPagina(List<T> filas, int tamano, Function<T, CursorKeyset> posicion) {
+        boolean haySiguiente = filas.size() > tamano;
+        List<T> elementos = haySiguiente ? filas.subList(0, tamano) : filas;
+        
+        Map<String, Object> pagina = new LinkedHashMap<>();
+        pagina.put("elementos", elementos);
+        pagina.put("tamano", elementos.size());
+        pagina.put("siguienteCursor", haySiguiente ? posicion.apply(elementos.get(tamano - 1)).codificar() : null);
+        return pagina;
+    }
+}
@@ -0,0 +1,423 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Venta;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Diario local de ventas (append-only, mapeado en memoria) con commit en grupo.
+ *
+ * El archivo es un buffer circular: una cabecera de 8 bytes guarda la posición lógica
+ * hasta la que las ventas ya fueron aplicadas en base de datos y a continuación vienen
+ * los registros [longitud:int][crc32:int][venta en JSON], cada uno seguido de un entero 0
+ * que marca el final. Las posiciones lógicas solo crecen; la física es su módulo.
+ * Las escrituras se sincronizan a disco en grupo (cada N registros o M ms) y quien
+ * anota una venta espera hasta que su registro es durable.
+ *
+ * Cada venta anotada reserva su número de factura y su stock en {@link ReservasVentas}
+ * hasta que se aplica, de modo que lo confirmado al cliente no puede rechazarse después.
+ * Al reabrir el diario las reservas se reconstruyen a partir de los registros pendientes.
+ */
+@Component
+public class DiarioVentas {
+
+    private static final int CABECERA = 8;
+    private static final int CABECERA_REGISTRO = 8;
+    private static final int TERMINADOR = 4;
+    // Espera máxima de quien anota a que su registro sea durable
+    private static final long ESPERA_DURABLE_MS = 5_000;
+
+    private final ObjectMapper objectMapper;
+    private final boolean habilitado;
+    private final Path ruta;
+    private final int capacidad;
+    private final int registrosPorGrupo;
+    private final long intervaloGrupoMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition grupoCompleto = lock.newCondition();
+    private final Condition registrosDurables = lock.newCondition();
+    private final Condition espacioLiberado = lock.newCondition();
+    private final ReservasVentas reservas = new ReservasVentas();
+
+    private FileChannel canal;
+    private MappedByteBuffer buffer;
+    private long posicionEscritura;
+    private long posicionDurable;
+    private long posicionAplicada;
+    private int pendientesGrupo;
+    private volatile boolean activo;
+    // Motivo por el que el diario dejó de aceptar ventas (fallo de sincronización o cierre)
+    private RuntimeException detenido;
+    private Thread sincronizador;
+
+    public DiarioVentas(ObjectMapper objectMapper,
+                        @Value("${serf.ventas.diario.habilitado:false}") boolean habilitado,
+                        @Value("${serf.ventas.diario.ruta:data/ventas.diario}") String ruta,
+                        @Value("${serf.ventas.diario.capacidad-mb:64}") int capacidadMb,
+                        @Value("${serf.ventas.diario.registros-por-grupo:64}") int registrosPorGrupo,
+                        @Value("${serf.ventas.diario.intervalo-grupo-ms:5}") long intervaloGrupoMs) {
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        this.ruta = Path.of(ruta);
+        this.capacidad = capacidadMb * 1024 * 1024 - CABECERA;
+        this.registrosPorGrupo = registrosPorGrupo;
+        this.intervaloGrupoMs = intervaloGrupoMs;
+    }
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (!habilitado) {
+            return;
+        }
+        if (ruta.getParent() != null) {
+            Files.createDirectories(ruta.getParent());
+        }
+        canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) capacidad);
+
+        // Recuperación: los registros válidos posteriores a la posición aplicada se reprocesarán
+        // y sus ventas vuelven a reservar factura y stock
+        posicionAplicada = buffer.getLong(0);
+        long posicion = posicionAplicada;
+        byte[] datos;
+        while (posicion - posicionAplicada < capacidad && (datos = leerRegistro(posicion)) != null) {
+            Venta venta = deserializar(datos);
+            if (venta != null) {
+                reservas.restaurar(venta);
+            }
+            posicion += CABECERA_REGISTRO + datos.length;
+        }
+        posicionEscritura = posicion;
+        posicionDurable = posicion;
+
+        activo = true;
+        sincronizador = Thread.ofPlatform().daemon().name("diario-ventas-sync").start(this::sincronizarEnGrupo);
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException, InterruptedException {
+        if (!activo) {
+            return;
+        }
+        activo = false;
+        sincronizador.interrupt();
+        sincronizador.join();
+        buffer.force();
+        canal.close();
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    ReservasVentas getReservas() {
+        return reservas;
+    }
+
+    /**
+     * Reserva la factura y el stock de una venta validada, la anota y espera a que el
+     * registro sea durable en disco. No debe llamarse dentro de una transacción.
+     *
+     * @param facturaRegistrada Indica si el número de factura ya está en base de datos
+     * @param stockConfirmado Stock actual del producto en base de datos
+     * @throws RuntimeException "Factura duplicada", "Stock insuficiente", diario lleno o detenido,
+     *         o registro no durable a tiempo (en ese caso se aplicará si llega a serlo)
+     */
+    public void anotar(Venta venta, Predicate<String> facturaRegistrada, ToIntFunction<Long> stockConfirmado) {
+        byte[] datos = serializar(venta);
+        int necesario = CABECERA_REGISTRO + datos.length + TERMINADOR;
+        if (necesario > capacidad) {
+            throw new IllegalArgumentException("Venta demasiado grande para el diario");
+        }
+
+        reservas.reservar(venta, facturaRegistrada, stockConfirmado);
+        boolean escrito = false;
+        lock.lock();
+        try {
+            comprobarActivo();
+            // Sin espacio libre: esperar a que el escritor en segundo plano aplique ventas
+            while (posicionEscritura + necesario - posicionAplicada > capacidad) {
+                comprobarActivo();
+                if (!espacioLiberado.await(1, TimeUnit.SECONDS)) {
+                    throw new RuntimeException("Diario de ventas lleno: el escritor en segundo plano no avanza");
+                }
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(datos);
+            long inicio = posicionEscritura;
+            long fin = inicio + CABECERA_REGISTRO + datos.length;
+            escribir(inicio + CABECERA_REGISTRO, datos);
+            escribirEntero(fin, 0);
+            escribirEntero(inicio + 4, (int) crc.getValue());
+            // La longitud se escribe al final: hasta entonces el registro no existe para la recuperación
+            escribirEntero(inicio, datos.length);
+            posicionEscritura = fin;
+            escrito = true;
+
+            if (++pendientesGrupo >= registrosPorGrupo) {
+                grupoCompleto.signal();
+            }
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_DURABLE_MS);
+            while (posicionDurable < fin) {
+                comprobarActivo();
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    throw new RuntimeException("Diario de ventas: la venta no se confirmó en disco a tiempo");
+                }
+                registrosDurables.awaitNanos(restante);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrumpido esperando la escritura del diario", e);
+        } finally {
+            lock.unlock();
+            // Un registro escrito se aplicará (y liberará su reserva) aunque quien lo anotó
+            // no llegue a esperar a que sea durable
+            if (!escrito) {
+                reservas.liberar(venta);
+            }
+        }
+    }
+
+    /**
+     * Devuelve hasta {@code maximo} registros durables aún no aplicados, esperando como mucho
+     * {@code esperaMs} si no hay ninguno
+     */
+    public Pendientes leerPendientes(int maximo, long esperaMs) throws InterruptedException {
+        lock.lock();
+        try {
+            if (posicionAplicada == posicionDurable) {
+                registrosDurables.await(esperaMs, TimeUnit.MILLISECONDS);
+            }
+            List<Registro> registros = new ArrayList<>();
+            long posicion = posicionAplicada;
+            while (registros.size() < maximo && posicion < posicionDurable) {
+                byte[] datos = leerRegistro(posicion);
+                posicion += CABECERA_REGISTRO + datos.length;
+                registros.add(new Registro(posicion, datos, deserializar(datos)));
+            }
+            return new Pendientes(registros, posicion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marca como aplicados en base de datos los registros hasta {@code posicionFin}
+     * (la de un {@link Registro} o unos {@link Pendientes}) y libera su espacio
+     */
+    public void confirmarAplicadas(long posicionFin) {
+        lock.lock();
+        try {
+            posicionAplicada = posicionFin;
+            buffer.putLong(0, posicionAplicada);
+            buffer.force(0, CABECERA);
+            espacioLiberado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> obtenerEstado() {
+        lock.lock();
+        try {
+            Map<String, Object> estado = new LinkedHashMap<>();
+            estado.put("habilitado", habilitado);
+            estado.put("bytesPendientes", posicionEscritura - posicionAplicada);
+            estado.put("capacidad", capacidad);
+            estado.put("ventasReservadas", reservas.ventasReservadas());
+            estado.put("error", detenido != null ? detenido.getMessage() : null);
+            return estado;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sincronizarEnGrupo() {
+        try {
+            while (activo) {
+                long objetivo;
+                lock.lock();
+                try {
+                    if (pendientesGrupo < registrosPorGrupo) {
+                        grupoCompleto.await(intervaloGrupoMs, TimeUnit.MILLISECONDS);
+                    }
+                    if (posicionEscritura == posicionDurable) {
+                        continue;
+                    }
+                    objetivo = posicionEscritura;
+                    pendientesGrupo = 0;
+                } catch (InterruptedException e) {
+                    break;
+                } finally {
+                    lock.unlock();
+                }
+                sincronizarHasta(objetivo);
+            }
+            // Al cerrar, lo ya anotado se hace durable antes de despertar a quien espera
+            lock.lock();
+            long objetivo;
+            try {
+                objetivo = posicionEscritura;
+            } finally {
+                lock.unlock();
+            }
+            sincronizarHasta(objetivo);
+            detener(new IllegalStateException("Diario de ventas cerrado"));
+        } catch (RuntimeException e) {
+            // Tras un fallo de fsync no se sabe qué llegó a disco: no se aceptan más ventas
+            detener(new IllegalStateException("Diario de ventas detenido por un fallo al sincronizar", e));
+        }
+    }
+
+    private void sincronizarHasta(long objetivo) {
+        // fsync fuera del lock para no bloquear a quienes siguen anotando
+        forzar();
+
+        lock.lock();
+        try {
+            posicionDurable = Math.max(posicionDurable, objetivo);
+            registrosDurables.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Separado para poder simular fallos de disco en las pruebas
+    void forzar() {
+        buffer.force();
+    }
+
+    private void detener(RuntimeException motivo) {
+        lock.lock();
+        try {
+            if (detenido == null) {
+                detenido = motivo;
+            }
+            registrosDurables.signalAll();
+            espacioLiberado.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Con el lock tomado
+    private void comprobarActivo() {
+        if (detenido != null) {
+            throw new RuntimeException(detenido.getMessage(), detenido);
+        }
+    }
+
+    // Devuelve null al llegar al terminador o a un registro incompleto/corrupto
+    private byte[] leerRegistro(long posicion) {
+        int longitud = leerEntero(posicion);
+        if (longitud <= 0 || CABECERA_REGISTRO + longitud > capacidad) {
+            return null;
+        }
+        byte[] datos = new byte[longitud];
+        leer(posicion + CABECERA_REGISTRO, datos);
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        return (int) crc.getValue() == leerEntero(posicion + 4) ? datos : null;
+    }
+
+    private int fisica(long posicion) {
+        return CABECERA + (int) Math.floorMod(posicion, (long) capacidad);
+    }
+
+    private void escribir(long posicion, byte[] datos) {
+        int inicio = fisica(posicion);
+        int hastaFinal = Math.min(datos.length, CABECERA + capacidad - inicio);
+        buffer.put(inicio, datos, 0, hastaFinal);
+        buffer.put(CABECERA, datos, hastaFinal, datos.length - hastaFinal);
+    }
+
+    private void leer(long posicion, byte[] destino) {
+        int inicio = fisica(posicion);
+        int hastaFinal = Math.min(destino.length, CABECERA + capacidad - inicio);
+        buffer.get(inicio, destino, 0, hastaFinal);
+        buffer.get(CABECERA, destino, hastaFinal, destino.length - hastaFinal);
+    }
+
+    private void escribirEntero(long posicion, int valor) {
+        escribir(posicion, new byte[] {
+            (byte) (valor >>> 24), (byte) (valor >>> 16), (byte) (valor >>> 8), (byte) valor
+        });
+    }
+
+    private int leerEntero(long posicion) {
+        byte[] bytes = new byte[4];
+        leer(posicion, bytes);
+        return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff);
+    }
+
+    private byte[] serializar(Venta venta) {
+        Map<String, Object> registro = new LinkedHashMap<>();
+        registro.put("numeroFactura", venta.getNumeroFactura());
+        registro.put("fechaVenta", venta.getFechaVenta());
+        registro.put("producto", Map.of("id", venta.getProducto().getId()));
+        registro.put("cantidad", venta.getCantidad());
+        registro.put("precioUnitario", venta.getPrecioUnitario());
+        registro.put("monedaLocal", venta.getMonedaLocal());
+        registro.put("cliente", venta.getCliente());
+        registro.put("vendedorResponsable", venta.getVendedorResponsable());
+        registro.put("metodoPago", venta.getMetodoPago());
+        registro.put("paisFilial", venta.getPaisFilial());
+        // Importes tal como se confirmaron al cliente: se guardan sin volver a convertir
+        registro.put("precioUnitarioEUR", venta.getPrecioUnitarioEUR());
+        registro.put("totalVentaEUR", venta.getTotalVentaEUR());
+        registro.put("versionTasasCambio", venta.getVersionTasasCambio());
+        try {
+            return objectMapper.writeValueAsBytes(registro);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // null si el registro (íntegro según su CRC) no es una venta legible
+    private Venta deserializar(byte[] datos) {
+        try {
+            return objectMapper.readValue(datos, Venta.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Registro leído del diario: sus bytes, la venta (null si no se pudo leer) y la
+     * posición lógica en la que termina
+     */
+    public record Registro(long posicionFin, byte[] datos, Venta venta) {
+    }
+
+    /**
+     * Registros leídos del diario y posición lógica hasta la que llegan
+     */
+    public record Pendientes(List<Registro> registros, long posicionFin) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.financorp.serf.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pool acotado (hilos y cola) para generar varios reportes en paralelo.
+ * Si la cola está llena la tarea se rechaza en lugar de acumular trabajo sin límite.
+ *
+ * Las tareas no abren transacción: cada reporte toma primero su permiso del
+ * {@link LimitadorJdbc} y después su propia transacción, de modo que ninguna tarea
+ * retiene una conexión mientras espera un permiso.
+ */
+@Component
+public class EjecutorReportes {
+    
+    private final ExecutorService ejecutor;
+    
+    public EjecutorReportes(@Value("${serf.reportes.lote.hilos:4}") int hilos,
+                            @Value("${serf.reportes.lote.capacidad-cola:32}") int capacidadCola) {
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacidadCola),
+            Thread.ofPlatform().name("reportes-lote-", 0).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+    
+    /**
+     * Ejecuta el trabajo en el pool
+     * @throws java.util.concurrent.RejectedExecutionException si la cola está llena
+     */
+    public <T> CompletableFuture<T> enviar(Supplier<T> trabajo) {
+        return CompletableFuture.supplyAsync(trabajo, ejecutor);
+    }
+}
@@ -0,0 +1,223 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.service.DiarioVentas.Pendientes;
+import com.financorp.serf.service.DiarioVentas.Registro;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Escritor en segundo plano que vacía el {@link DiarioVentas} en la base de datos por lotes.
+ * La reaplicación es idempotente: las ventas cuyo número de factura ya existe se omiten.
+ *
+ * Los errores transitorios de base de datos se reintentan sin límite. Un lote que falla
+ * {@code max-intentos} veces por otro motivo se reprocesa venta a venta, y la venta que vuelve
+ * a fallar ese número de veces (o un registro que no se puede leer) se aparta al archivo de
+ * cuarentena y se registra como error para que no detenga al resto del diario.
+ */
+@Slf4j
+@Component
+public class EscritorDiarioVentas {
+
+    private static final long ESPERA_MS = 100;
+
+    private final DiarioVentas diarioVentas;
+    private final VentaService ventaService;
+    private final ObjectMapper objectMapper;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final Path archivoCuarentena;
+
+    private final AtomicLong aplicadas = new AtomicLong();
+    private final AtomicLong enCuarentena = new AtomicLong();
+    private volatile String ultimoError;
+    // Estado del hilo escritor: fallos seguidos del primer lote pendiente y ventas que
+    // quedan por aplicar de una en una tras aislar un lote fallido
+    private int intentos;
+    private int aisladasRestantes;
+    private volatile boolean activo;
+    private Thread hilo;
+
+    public EscritorDiarioVentas(DiarioVentas diarioVentas,
+                                VentaService ventaService,
+                                ObjectMapper objectMapper,
+                                @Value("${serf.ventas.diario.tamano-lote-aplicacion:500}") int tamanoLote,
+                                @Value("${serf.ventas.diario.max-intentos:5}") int maxIntentos,
+                                @Value("${serf.ventas.diario.cuarentena:data/ventas.diario.cuarentena}") String archivoCuarentena) {
+        this.diarioVentas = diarioVentas;
+        this.ventaService = ventaService;
+        this.objectMapper = objectMapper;
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.archivoCuarentena = Path.of(archivoCuarentena);
+    }
+
+    /**
+     * Se inicia cuando la aplicación está lista, lo que también reprocesa
+     * las ventas que quedaron sin aplicar antes de un reinicio
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!diarioVentas.isHabilitado()) {
+            return;
+        }
+        activo = true;
+        hilo = Thread.ofPlatform().daemon().name("diario-ventas-escritor").start(this::drenar);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (hilo != null) {
+            activo = false;
+            hilo.interrupt();
+            hilo.join();
+        }
+    }
+
+    public Map<String, Object> obtenerEstado() {
+        Map<String, Object> estado = diarioVentas.obtenerEstado();
+        estado.put("aplicadas", aplicadas.get());
+        estado.put("enCuarentena", enCuarentena.get());
+        estado.put("archivoCuarentena", archivoCuarentena.toString());
+        estado.put("ultimoError", ultimoError);
+        return estado;
+    }
+
+    private void drenar() {
+        while (activo) {
+            try {
+                if (!aplicarPendientes(ESPERA_MS)) {
+                    Thread.sleep(ESPERA_MS * 10);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Aplica el siguiente lote de ventas pendientes del diario
+     *
+     * @return false si el lote falló y debe reintentarse después de una pausa
+     */
+    boolean aplicarPendientes(long esperaMs) throws InterruptedException {
+        Pendientes pendientes = diarioVentas.leerPendientes(aisladasRestantes > 0 ? 1 : tamanoLote, esperaMs);
+        if (pendientes.registros().isEmpty()) {
+            return true;
+        }
+
+        // El lote llega hasta el primer registro ilegible, que no se puede reintentar
+        List<Registro> lote = new ArrayList<>();
+        for (Registro registro : pendientes.registros()) {
+            if (registro.venta() == null) {
+                break;
+            }
+            lote.add(registro);
+        }
+        if (lote.isEmpty()) {
+            return ponerEnCuarentena(pendientes.registros().get(0), "Registro ilegible");
+        }
+
+        List<Venta> ventas = lote.stream().map(Registro::venta).toList();
+        try {
+            aplicadas.addAndGet(ventaService.aplicarDiario(ventas));
+        } catch (RuntimeException e) {
+            ultimoError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (esTransitorio(e)) {
+                log.warn("Error transitorio al aplicar el diario de ventas, se reintentará: {}", ultimoError);
+                return false;
+            }
+            if (++intentos < maxIntentos) {
+                return false;
+            }
+            intentos = 0;
+            if (lote.size() > 1) {
+                log.warn("Lote de {} ventas del diario fallido {} veces, se aplicará venta a venta: {}",
+                    lote.size(), maxIntentos, ultimoError);
+                aisladasRestantes = lote.size();
+                return true;
+            }
+            aisladasRestantes = Math.max(0, aisladasRestantes - 1);
+            return ponerEnCuarentena(lote.get(0), ultimoError);
+        }
+
+        // Las reservas se liberan cuando el stock ya está descontado en base de datos
+        ventas.forEach(diarioVentas.getReservas()::liberar);
+        diarioVentas.confirmarAplicadas(lote.get(lote.size() - 1).posicionFin());
+        intentos = 0;
+        aisladasRestantes = Math.max(0, aisladasRestantes - lote.size());
+        return true;
+    }
+
+    /**
+     * Añade el registro al archivo de cuarentena (una línea JSON por registro, sincronizada a
+     * disco) y lo da por aplicado. Si no se puede escribir, el registro sigue en el diario.
+     */
+    private boolean ponerEnCuarentena(Registro registro, String motivo) {
+        Map<String, Object> entrada = new LinkedHashMap<>();
+        entrada.put("fecha", Instant.now().toString());
+        entrada.put("error", motivo);
+        entrada.put("registro", new String(registro.datos(), StandardCharsets.UTF_8));
+        try {
+            if (archivoCuarentena.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(archivoCuarentena.toAbsolutePath().getParent());
+            }
+            byte[] linea = (objectMapper.writeValueAsString(entrada) + "\n").getBytes(StandardCharsets.UTF_8);
+            try (FileChannel canal = FileChannel.open(archivoCuarentena,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                canal.write(ByteBuffer.wrap(linea));
+                canal.force(true);
+            }
+        } catch (IOException e) {
+            ultimoError = "No se pudo escribir la cuarentena del diario: " + e.getMessage();
+            log.error(ultimoError, e);
+            return false;
+        }
+
+        log.error("Venta del diario apartada en {} sin aplicar ({}): {}",
+            archivoCuarentena, motivo, entrada.get("registro"));
+        if (registro.venta() != null) {
+            diarioVentas.getReservas().liberar(registro.venta());
+        }
+        diarioVentas.confirmarAplicadas(registro.posicionFin());
+        enCuarentena.incrementAndGet();
+        return true;
+    }
+
+    private static boolean esTransitorio(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof TransientDataAccessException
+                    || causa instanceof RecoverableDataAccessException
+                    || causa instanceof DataAccessResourceFailureException
+                    || causa instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VentaRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Escribe ventas en JSON directamente sobre la respuesta a medida que se leen de la
+ * base de datos. Cada venta se separa del contexto de persistencia tras escribirla,
+ * así que la memoria usada depende del tamaño de fetch y no del tamaño de la tabla.
+ */
+@Component
+public class EscritorJsonVentas {
+    
+    private static final int FILAS_POR_FLUSH = Integer.parseInt(VentaRepository.TAMANO_FETCH);
+    
+    private final VentaRepository ventaRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter escritor;
+    private final TransactionTemplate transaccionLectura;
+    private final EscritorReporteFirmado escritorReporteFirmado;
+    
+    public EscritorJsonVentas(VentaRepository ventaRepository,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              EscritorReporteFirmado escritorReporteFirmado) {
+        this.ventaRepository = ventaRepository;
+        this.escritorReporteFirmado = escritorReporteFirmado;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        // Se vuelca al cliente por bloques, no después de cada venta
+        this.escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * Escribe todas las ventas como un array JSON
+     */
+    public void escribirTodas(OutputStream salida) {
+        transaccionLectura.executeWithoutResult(status -> {
+            try (JsonGenerator generador = crearGenerador(salida);
+                 Stream<Venta> ventas = ventaRepository.streamTodas()) {
+                escribirArray(generador, ventas, escritor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    /**
+     * Escribe un reporte ya calculado con el campo "ventas" leído en streaming;
+     * el hash del documento se calcula sobre la misma escritura
+     */
+    public void escribirReporte(Map<String, Object> reporte, LocalDateTime inicio, LocalDateTime fin, OutputStream salida) {
+        transaccionLectura.executeWithoutResult(status -> {
+            try (Stream<Venta> ventas = ventaRepository.streamConProductoByRangoFecha(inicio, fin)) {
+                escritorReporteFirmado.escribir(reporte,
+                    Map.of("ventas", (generador, escritorCanonico) -> escribirArray(generador, ventas, escritorCanonico)),
+                    salida);
+            }
+        });
+    }
+    
+    private JsonGenerator crearGenerador(OutputStream salida) throws IOException {
+        JsonGenerator generador = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8);
+        // La respuesta la cierra el contenedor
+        generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generador;
+    }
+    
+    private void escribirArray(JsonGenerator generador, Stream<Venta> ventas, ObjectWriter escritorVentas) throws IOException {
+        generador.writeStartArray();
+        int escritas = 0;
+        for (Iterator<Venta> it = ventas.iterator(); it.hasNext(); ) {
+            Venta venta = it.next();
+            escritorVentas.writeValue(generador, venta);
+            entityManager.detach(venta);
+            if (++escritas % FILAS_POR_FLUSH == 0) {
+                generador.flush();
+            }
+        }
+        generador.writeEndArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Escribe un reporte en JSON calculando su hash SHA-256 en la misma pasada.
+ *
+ * La serialización es canónica: claves de mapas y propiedades en orden alfabético, sin
+ * espacios. Los bytes pasan por el digest a medida que se escriben en la salida y el
+ * campo "hashDocumento" se añade al final, fuera del digest. El hash es el SHA-256 del
+ * documento recibido sin ese último campo, es decir, del objeto cerrado justo antes de él.
+ */
+@Component
+public class EscritorReporteFirmado {
+    
+    public static final String CAMPO_HASH = "hashDocumento";
+    private static final String PREFIJO_HASH = "SHA256-";
+    
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter escritorCanonico;
+    
+    public EscritorReporteFirmado(ObjectMapper objectMapper) {
+        ObjectMapper canonico = objectMapper.copy();
+        canonico.setConfig(canonico.getSerializationConfig().with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+        this.objectMapper = canonico;
+        this.escritorCanonico = canonico.writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Campo cuyo valor se genera mientras se escribe (p. ej. un listado leído en streaming)
+     */
+    @FunctionalInterface
+    public interface CampoEnStreaming {
+        void escribir(JsonGenerator generador, ObjectWriter escritorCanonico) throws IOException;
+    }
+    
+    public void escribir(Map<String, Object> reporte, OutputStream salida) {
+        escribir(reporte, Map.of(), salida);
+    }
+    
+    /**
+     * Escribe los campos del reporte y los campos en streaming, intercalados por clave,
+     * seguidos de "hashDocumento"
+     */
+    public void escribir(Map<String, Object> reporte, Map<String, CampoEnStreaming> camposEnStreaming, OutputStream salida) {
+        MessageDigest digest = nuevoDigest();
+        DigestOutputStream salidaConDigest = new DigestOutputStream(salida, digest);
+        TreeSet<String> claves = new TreeSet<>(reporte.keySet());
+        claves.addAll(camposEnStreaming.keySet());
+        claves.remove(CAMPO_HASH);
+        
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salidaConDigest, JsonEncoding.UTF8)) {
+            // La respuesta la cierra el contenedor
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.writeStartObject();
+            for (String clave : claves) {
+                generador.writeFieldName(clave);
+                CampoEnStreaming campo = camposEnStreaming.get(clave);
+                if (campo != null) {
+                    campo.escribir(generador, escritorCanonico);
+                } else {
+                    escritorCanonico.writeValue(generador, reporte.get(clave));
+                }
+            }
+            generador.flush();
+            
+            // El digest cubre el objeto cerrado en este punto; el campo del hash queda fuera
+            digest.update((byte) '}');
+            String hash = PREFIJO_HASH + HexFormat.of().withUpperCase().formatHex(digest.digest());
+            salidaConDigest.on(false);
+            generador.writeStringField(CAMPO_HASH, hash);
+            generador.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static MessageDigest nuevoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VentaRepository;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Exporta ventas (con código y categoría del producto) en formato Apache Arrow IPC de
+ * streaming: un esquema seguido de lotes columnares de tamaño fijo. Importes como
+ * decimal(38,2) y fechas como timestamp en microsegundos, sin conversión a texto.
+ *
+ * País, moneda, método de pago y categoría se codifican con diccionario. Los diccionarios
+ * crecen a medida que aparecen valores nuevos y el escritor los reenvía antes del lote que
+ * los usa; como solo se añaden valores, los índices de lotes anteriores siguen siendo válidos.
+ * La memoria usada depende del tamaño del lote, no del número de ventas.
+ */
+@Component
+public class ExportadorArrowVentas {
+
+    private static final int PRECISION_DECIMAL = 38;
+    private static final int ESCALA_DECIMAL = 2;
+
+    private final VentaRepository ventaRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaccionLectura;
+    private final int filasPorLotePorDefecto;
+    private final int filasPorLoteMaximo;
+    private final BufferAllocator asignador = new RootAllocator();
+
+    public ExportadorArrowVentas(VentaRepository ventaRepository,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${serf.exportacion.arrow.filas-por-lote:65536}") int filasPorLotePorDefecto,
+                                 @Value("${serf.exportacion.arrow.filas-por-lote-maximo:1048576}") int filasPorLoteMaximo) {
+        this.ventaRepository = ventaRepository;
+        this.entityManager = entityManager;
+        this.filasPorLotePorDefecto = filasPorLotePorDefecto;
+        this.filasPorLoteMaximo = filasPorLoteMaximo;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        asignador.close();
+    }
+
+    /**
+     * Escribe las ventas del rango en orden de fecha (con inicio y fin null, todas por ID)
+     *
+     * @param filasPorLote Filas de cada record batch (se limita al máximo configurado), o null por defecto
+     */
+    public void escribir(LocalDateTime inicio, LocalDateTime fin, Integer filasPorLote, OutputStream salida) {
+        int filas = filasPorLote == null ? filasPorLotePorDefecto : Math.max(1, Math.min(filasPorLote, filasPorLoteMaximo));
+        transaccionLectura.executeWithoutResult(status -> {
+            try (Stream<Venta> ventas = inicio == null && fin == null
+                    ? ventaRepository.streamTodas()
+                    : ventaRepository.streamConProductoByRangoFecha(inicio, fin);
+                 BufferAllocator asignadorExportacion = asignador.newChildAllocator("exportacion-arrow", 0, Long.MAX_VALUE);
+                 Columnas columnas = new Columnas(asignadorExportacion)) {
+                escribirLotes(ventas.iterator(), columnas, filas, salida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void escribirLotes(Iterator<Venta> ventas, Columnas columnas, int filasPorLote, OutputStream salida) throws IOException {
+        // Al cerrar el escritor se liberan sus copias de los diccionarios; la respuesta la cierra el contenedor
+        try (ArrowStreamWriter escritor = new ArrowStreamWriter(columnas.raiz, columnas, StreamUtils.nonClosing(salida))) {
+            escritor.start();
+            while (ventas.hasNext()) {
+                columnas.raiz.allocateNew();
+                int fila = 0;
+                while (fila < filasPorLote && ventas.hasNext()) {
+                    Venta venta = ventas.next();
+                    columnas.escribirFila(fila++, venta);
+                    entityManager.detach(venta);
+                }
+                columnas.raiz.setRowCount(fila);
+                escritor.writeBatch();
+            }
+            escritor.end();
+        }
+        salida.flush();
+    }
+
+    private static byte[] utf8(String valor) {
+        return valor.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Vectores de un lote y diccionarios de las columnas de baja cardinalidad
+     */
+    private static final class Columnas implements DictionaryProvider, AutoCloseable {
+
+        private final Map<Long, Diccionario> diccionarios = new HashMap<>();
+
+        private final BigIntVector id;
+        private final VarCharVector numeroFactura;
+        private final TimeStampMicroVector fechaVenta;
+        private final VarCharVector productoCodigo;
+        private final IntVector productoCategoria;
+        private final IntVector cantidad;
+        private final DecimalVector precioUnitario;
+        private final IntVector monedaLocal;
+        private final DecimalVector precioUnitarioEUR;
+        private final DecimalVector totalVentaEUR;
+        private final VarCharVector cliente;
+        private final VarCharVector vendedorResponsable;
+        private final IntVector metodoPago;
+        private final IntVector paisFilial;
+        private final VectorSchemaRoot raiz;
+
+        Columnas(BufferAllocator asignador) {
+            id = new BigIntVector(campo("id", new ArrowType.Int(64, true)), asignador);
+            numeroFactura = new VarCharVector(campo("numeroFactura", ArrowType.Utf8.INSTANCE), asignador);
+            fechaVenta = new TimeStampMicroVector(campo("fechaVenta", new ArrowType.Timestamp(TimeUnit.MICROSECOND, null)), asignador);
+            productoCodigo = new VarCharVector(campo("productoCodigo", ArrowType.Utf8.INSTANCE), asignador);
+            productoCategoria = codificada("productoCategoria", asignador);
+            cantidad = new IntVector(campo("cantidad", new ArrowType.Int(32, true)), asignador);
+            precioUnitario = decimal("precioUnitario", asignador);
+            monedaLocal = codificada("monedaLocal", asignador);
+            precioUnitarioEUR = decimal("precioUnitarioEUR", asignador);
+            totalVentaEUR = decimal("totalVentaEUR", asignador);
+            cliente = new VarCharVector(campo("cliente", ArrowType.Utf8.INSTANCE), asignador);
+            vendedorResponsable = new VarCharVector(campo("vendedorResponsable", ArrowType.Utf8.INSTANCE), asignador);
+            metodoPago = codificada("metodoPago", asignador);
+            paisFilial = codificada("paisFilial", asignador);
+            raiz = new VectorSchemaRoot(List.<FieldVector>of(id, numeroFactura, fechaVenta, productoCodigo, productoCategoria,
+                cantidad, precioUnitario, monedaLocal, precioUnitarioEUR, totalVentaEUR, cliente, vendedorResponsable,
+                metodoPago, paisFilial));
+        }
+
+        void escribirFila(int fila, Venta venta) {
+            id.setSafe(fila, venta.getId());
+            numeroFactura.setSafe(fila, utf8(venta.getNumeroFactura()));
+            LocalDateTime fecha = venta.getFechaVenta();
+            fechaVenta.setSafe(fila, fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fecha.getNano() / 1_000);
+            texto(productoCodigo, fila, venta.getProducto().getCodigo());
+            codigo(productoCategoria, fila, venta.getProducto().getCategoria() != null ? venta.getProducto().getCategoria().name() : null);
+            cantidad.setSafe(fila, venta.getCantidad());
+            importe(precioUnitario, fila, venta.getPrecioUnitario());
+            codigo(monedaLocal, fila, venta.getMonedaLocal());
+            importe(precioUnitarioEUR, fila, venta.getPrecioUnitarioEUR());
+            importe(totalVentaEUR, fila, venta.getTotalVentaEUR());
+            texto(cliente, fila, venta.getCliente());
+            texto(vendedorResponsable, fila, venta.getVendedorResponsable());
+            codigo(metodoPago, fila, venta.getMetodoPago() != null ? venta.getMetodoPago().name() : null);
+            codigo(paisFilial, fila, venta.getPaisFilial());
+        }
+
+        @Override
+        public Dictionary lookup(long id) {
+            return diccionarios.get(id).diccionario;
+        }
+
+        @Override
+        public Set<Long> getDictionaryIds() {
+            return diccionarios.keySet();
+        }
+
+        @Override
+        public void close() {
+            raiz.close();
+            diccionarios.values().forEach(diccionario -> diccionario.valores.close());
+        }
+
+        private static Field campo(String nombre, ArrowType tipo) {
+            return new Field(nombre, FieldType.nullable(tipo), null);
+        }
+
+        private static DecimalVector decimal(String nombre, BufferAllocator asignador) {
+            return new DecimalVector(campo(nombre, new ArrowType.Decimal(PRECISION_DECIMAL, ESCALA_DECIMAL, 128)), asignador);
+        }
+
+        // Columna de índices int32 sobre un diccionario de textos propio
+        private IntVector codificada(String nombre, BufferAllocator asignador) {
+            long idDiccionario = diccionarios.size();
+            DictionaryEncoding codificacion = new DictionaryEncoding(idDiccionario, false, new ArrowType.Int(32, true));
+            VarCharVector valores = new VarCharVector(campo(nombre, ArrowType.Utf8.INSTANCE), asignador);
+            valores.allocateNew();
+            diccionarios.put(idDiccionario, new Diccionario(new Dictionary(valores, codificacion)));
+            return new IntVector(new Field(nombre, new FieldType(true, codificacion.getIndexType(), codificacion), null), asignador);
+        }
+
+        private void codigo(IntVector indices, int fila, String valor) {
+            if (valor == null) {
+                indices.setNull(fila);
+                return;
+            }
+            Diccionario diccionario = diccionarios.get(indices.getField().getDictionary().getId());
+            indices.setSafe(fila, diccionario.indice(valor));
+        }
+
+        private static void texto(VarCharVector vector, int fila, String valor) {
+            if (valor == null) {
+                vector.setNull(fila);
+            } else {
+                vector.setSafe(fila, utf8(valor));
+            }
+        }
+
+        private static void importe(DecimalVector vector, int fila, BigDecimal valor) {
+            if (valor == null) {
+                vector.setNull(fila);
+            } else {
+                vector.setSafe(fila, valor.setScale(ESCALA_DECIMAL, RoundingMode.HALF_UP));
+            }
+        }
+    }
+
+    /**
+     * Valores distintos de una columna codificada, en orden de aparición
+     */
+    private static final class Diccionario {
+
+        private final Dictionary diccionario;
+        private final VarCharVector valores;
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        Diccionario(Dictionary diccionario) {
+            this.diccionario = diccionario;
+            this.valores = (VarCharVector) diccionario.getVector();
+        }
+
+        int indice(String valor) {
+            Integer indice = indices.get(valor);
+            if (indice == null) {
+                indice = indices.size();
+                valores.setSafe(indice, utf8(valor));
+                valores.setValueCount(indice + 1);
+                indices.put(valor, indice);
+            }
+            return indice;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.financorp.serf.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.ProductoRepository;
+import com.financorp.serf.repository.VentaRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Exporta ventas, stock y ranking de productos en CSV (RFC 4180, UTF-8) escribiendo cada
+ * fila sobre la respuesta a medida que se lee de la base de datos. Como en
+ * {@link EscritorJsonVentas}, las entidades se separan del contexto de persistencia tras
+ * escribirlas y la salida se vuelca por bloques, así que la memoria no depende del número de filas.
+ */
+@Component
+public class ExportadorCsv {
+
+    private static final int FILAS_POR_FLUSH = Integer.parseInt(VentaRepository.TAMANO_FETCH);
+
+    private static final Map<String, Function<Venta, Object>> COLUMNAS_VENTAS = new Columnas<Venta>()
+        .con("numeroFactura", Venta::getNumeroFactura)
+        .con("fechaVenta", Venta::getFechaVenta)
+        .con("productoCodigo", venta -> venta.getProducto().getCodigo())
+        .con("productoNombre", venta -> venta.getProducto().getNombre())
+        .con("cantidad", Venta::getCantidad)
+        .con("precioUnitario", Venta::getPrecioUnitario)
+        .con("monedaLocal", Venta::getMonedaLocal)
+        .con("precioUnitarioEUR", Venta::getPrecioUnitarioEUR)
+        .con("totalVentaEUR", Venta::getTotalVentaEUR)
+        .con("cliente", Venta::getCliente)
+        .con("vendedorResponsable", Venta::getVendedorResponsable)
+        .con("metodoPago", Venta::getMetodoPago)
+        .con("paisFilial", Venta::getPaisFilial)
+        .mapa;
+
+    private static final Map<String, Function<Producto, Object>> COLUMNAS_STOCK = new Columnas<Producto>()
+        .con("codigo", Producto::getCodigo)
+        .con("nombre", Producto::getNombre)
+        .con("categoria", Producto::getCategoria)
+        .con("proveedor", Producto::getProveedor)
+        .con("monedaOrigen", Producto::getMonedaOrigen)
+        .con("costoImportacion", Producto::getCostoImportacion)
+        .con("precioVentaSugerido", Producto::getPrecioVentaSugerido)
+        .con("fechaImportacion", Producto::getFechaImportacion)
+        .con("stockInicial", Producto::getStockInicial)
+        .con("stockActual", Producto::getStockActual)
+        .mapa;
+
+    // Claves de cada elemento de "topProductos" en ReporteService.generarReporteTopProductos
+    private static final Map<String, Function<Map<String, Object>, Object>> COLUMNAS_TOP = new Columnas<Map<String, Object>>()
+        .con("posicion", fila -> fila.get("posicion"))
+        .con("productoId", fila -> fila.get("productoId"))
+        .con("codigo", fila -> fila.get("codigo"))
+        .con("nombre", fila -> fila.get("nombre"))
+        .con("unidadesVendidas", fila -> fila.get("unidadesVendidas"))
+        .con("ingresosEUR", fila -> fila.get("ingresosEUR"))
+        .con("numeroVentas", fila -> fila.get("numeroVentas"))
+        .mapa;
+
+    private final VentaRepository ventaRepository;
+    private final ProductoRepository productoRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaccionLectura;
+
+    public ExportadorCsv(VentaRepository ventaRepository,
+                         ProductoRepository productoRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager) {
+        this.ventaRepository = ventaRepository;
+        this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+        this.transaccionLectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Valida las columnas pedidas para el tipo de exportación
+     *
+     * @param solicitadas Columnas en el orden deseado; vacío o null para exportarlas todas
+     * @return Columnas a exportar
+     * @throws IllegalArgumentException si el tipo o alguna columna no existen
+     */
+    public List<String> resolverColumnas(String tipo, List<String> solicitadas) {
+        Map<String, ?> disponibles = switch (tipo) {
+            case "ventas" -> COLUMNAS_VENTAS;
+            case "stock" -> COLUMNAS_STOCK;
+            case "top" -> COLUMNAS_TOP;
+            default -> throw new IllegalArgumentException("Tipo de exportación no soportado: " + tipo);
+        };
+        if (solicitadas == null || solicitadas.isEmpty()) {
+            return List.copyOf(disponibles.keySet());
+        }
+        for (String columna : solicitadas) {
+            if (!disponibles.containsKey(columna)) {
+                throw new IllegalArgumentException("Columna no disponible para " + tipo + ": " + columna);
+            }
+        }
+        return List.copyOf(solicitadas);
+    }
+
+    /**
+     * Exporta las ventas del rango en orden de fecha; con inicio y fin null, todas por ID
+     */
+    public void escribirVentas(List<String> columnas, LocalDateTime inicio, LocalDateTime fin, OutputStream salida) {
+        transaccionLectura.executeWithoutResult(status -> {
+            try (Stream<Venta> ventas = inicio == null && fin == null
+                    ? ventaRepository.streamTodas()
+                    : ventaRepository.streamConProductoByRangoFecha(inicio, fin)) {
+                escribir(columnas, COLUMNAS_VENTAS, ventas.iterator(), entityManager::detach, salida);
+            }
+        });
+    }
+
+    public void escribirStock(List<String> columnas, OutputStream salida) {
+        transaccionLectura.executeWithoutResult(status -> {
+            try (Stream<Producto> productos = productoRepository.streamTodos()) {
+                escribir(columnas, COLUMNAS_STOCK, productos.iterator(), entityManager::detach, salida);
+            }
+        });
+    }
+
+    /**
+     * Exporta el ranking ya calculado (como mucho k filas)
+     */
+    public void escribirTop(List<String> columnas, List<Map<String, Object>> topProductos, OutputStream salida) {
+        escribir(columnas, COLUMNAS_TOP, topProductos.iterator(), fila -> { }, salida);
+    }
+
+    private <T> void escribir(List<String> columnas, Map<String, Function<T, Object>> disponibles,
+                              Iterator<T> filas, Consumer<T> alEscribir, OutputStream salida) {
+        List<Function<T, Object>> extractores = new ArrayList<>(columnas.size());
+        columnas.forEach(columna -> extractores.add(disponibles.get(columna)));
+        try {
+            // La respuesta la cierra el contenedor: solo se vacía el buffer
+            Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            escribirLinea(escritor, columnas, columna -> columna);
+            int escritas = 0;
+            while (filas.hasNext()) {
+                T fila = filas.next();
+                escribirLinea(escritor, extractores, extractor -> extractor.apply(fila));
+                alEscribir.accept(fila);
+                if (++escritas % FILAS_POR_FLUSH == 0) {
+                    escritor.flush();
+                }
+            }
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <C> void escribirLinea(Writer escritor, List<C> celdas, Function<C, Object> valor) throws IOException {
+        for (int i = 0; i < celdas.size(); i++) {
+            if (i > 0) {
+                escritor.write(',');
+            }
+            escribirCampo(escritor, valor.apply(celdas.get(i)));
+        }
+        escritor.write("\r\n");
+    }
+
+    // Entre comillas solo si contiene separador, comillas o saltos de línea; las comillas se duplican
+    private static void escribirCampo(Writer escritor, Object valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        String texto = valor instanceof BigDecimal numero ? numero.toPlainString() : valor.toString();
+        if (!(valor instanceof Number) && empiezaComoFormula(texto)) {
+            // Inyección de fórmulas (OWASP "CSV Injection"): una hoja de cálculo ejecutaría
+            // "=HYPERLINK(...)" de un cliente o nombre de producto; el apóstrofo la deja como texto.
+            // Los números se escriben tal cual para no convertir "-5" en texto
+            texto = "'" + texto;
+        }
+        boolean citar = false;
+        for (int i = 0; i < texto.length() && !citar; i++) {
+            char c = texto.charAt(i);
+            citar = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!citar) {
+            escritor.write(texto);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(texto.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    private static boolean empiezaComoFormula(String texto) {
+        if (texto.isEmpty()) {
+            return false;
+        }
+        char c = texto.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * Columnas exportables de un tipo, en su orden por defecto
+     */
+    private static final class Columnas<T> {
+        private final Map<String, Function<T, Object>> mapa = new LinkedHashMap<>();
+
+        Columnas<T> con(String nombre, Function<T, Object> extractor) {
+            mapa.put(nombre, extractor);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.financorp.serf.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.financorp.serf.repository.VentaRepository;
+
+/**
+ * Filtro de Bloom en memoria con los números de factura registrados.
+ * Permite descartar sin consultar la base de datos las facturas que con certeza
+ * no existen; un posible acierto debe confirmarse con una consulta indexada.
+ * Un falso positivo (por ejemplo, de una transacción revertida) solo cuesta esa consulta.
+ */
+@Component
+public class FiltroFacturas {
+
+    private final VentaRepository ventaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int numeroHashes;
+    private final long numeroBits;
+    private final AtomicLongArray bits;
+    private final AtomicLong elementos = new AtomicLong();
+
+    // Hasta completar la carga inicial, todo número se considera posible duplicado
+    private volatile boolean listo;
+
+    public FiltroFacturas(VentaRepository ventaRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${serf.facturas.filtro.capacidad:1000000}") long capacidad,
+                          @Value("${serf.facturas.filtro.probabilidad-falso-positivo:0.01}") double probabilidadFalsoPositivo) {
+        this.ventaRepository = ventaRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        // Dimensionado estándar: m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+        long m = (long) Math.ceil(-capacidad * Math.log(probabilidadFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.numeroBits = Math.max(64, (m + 63) / 64 * 64);
+        this.numeroHashes = Math.max(1, (int) Math.round((double) numeroBits / capacidad * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numeroBits / 64));
+    }
+
+    /**
+     * Carga todos los números de factura existentes al arrancar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        listo = false;
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0L);
+        }
+        elementos.set(0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> numeros = ventaRepository.streamNumerosFactura()) {
+                numeros.forEach(this::agregar);
+            }
+        });
+        listo = true;
+    }
+
+    public void agregar(String numeroFactura) {
+        long hash = hash64(numeroFactura);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numeroBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+            } while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+        elementos.incrementAndGet();
+    }
+
+    /**
+     * @return false si el número de factura con certeza no está registrado,
+     *         true si podría estarlo (requiere confirmación en base de datos)
+     */
+    public boolean podriaExistir(String numeroFactura) {
+        if (!listo) {
+            return true;
+        }
+        long hash = hash64(numeroFactura);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < numeroHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numeroBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getElementos() {
+        return elementos.get();
+    }
+
+    // FNV-1a de 64 bits con mezcla final para repartir bien los bits altos
+    private static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
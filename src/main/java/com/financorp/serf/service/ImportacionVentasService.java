@@ -0,0 +1,259 @@
+package com.financorp.serf.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Importación de ventas en streaming (NDJSON o CSV).
+ * Lee el archivo línea a línea y confirma bloques de tamaño fijo mediante
+ * {@link VentaService#registrarLote}, de modo que la memoria usada depende del
+ * tamaño del bloque y no del tamaño del archivo.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacionVentasService {
+
+    private static final int MAX_ERRORES_REPORTADOS = 100;
+    private static final int MAX_IMPORTACIONES_RECORDADAS = 100;
+
+    private final VentaService ventaService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${serf.importacion.tamano-bloque:1000}")
+    private int tamanoBloque;
+
+    // Progreso de las importaciones recientes, consultable mientras se ejecutan
+    private final Map<String, ProgresoImportacion> importaciones = Collections.synchronizedMap(
+        new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProgresoImportacion> eldest) {
+                return size() > MAX_IMPORTACIONES_RECORDADAS;
+            }
+        });
+
+    /**
+     * Importa ventas desde un flujo de entrada.
+     * La lectura es síncrona con la escritura: no se lee el siguiente bloque hasta
+     * que el anterior ha sido confirmado, por lo que si la base de datos se retrasa
+     * la lectura del cuerpo de la petición se frena en la misma medida.
+     *
+     * @param id Identificador de la importación (para consultar el progreso)
+     * @param entrada Cuerpo de la petición
+     * @param csv true si el formato es CSV con cabecera, false para NDJSON
+     * @param desdeLinea Última línea confirmada de un intento anterior (0 para empezar desde el inicio)
+     * @return Resumen de la importación con el checkpoint final
+     * @throws IOException si falla la lectura; el progreso (con la última línea confirmada)
+     *         sigue disponible en {@link #obtenerProgreso}
+     */
+    public Map<String, Object> importar(String id, InputStream entrada, boolean csv, long desdeLinea) throws IOException {
+        ProgresoImportacion progreso = new ProgresoImportacion(id, desdeLinea);
+        importaciones.put(id, progreso);
+
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            String[] cabecera = null;
+            List<Venta> bloque = new ArrayList<>(tamanoBloque);
+            long[] lineasBloque = new long[tamanoBloque];
+            long numeroLinea = 0;
+            String linea;
+
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                if (csv && cabecera == null) {
+                    cabecera = separarCamposCsv(linea);
+                    continue;
+                }
+                if (numeroLinea <= desdeLinea || linea.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    Venta venta = csv ? ventaDesdeCsv(cabecera, linea) : objectMapper.readValue(linea, Venta.class);
+                    if (venta.getFechaVenta() == null) {
+                        venta.setFechaVenta(LocalDateTime.now());
+                    }
+                    lineasBloque[bloque.size()] = numeroLinea;
+                    bloque.add(venta);
+                } catch (Exception e) {
+                    progreso.registrarRechazo(numeroLinea, e.getMessage());
+                }
+
+                if (bloque.size() == tamanoBloque) {
+                    confirmarBloque(bloque, lineasBloque, numeroLinea, progreso);
+                }
+            }
+            confirmarBloque(bloque, lineasBloque, numeroLinea, progreso);
+            progreso.finalizar("COMPLETADA");
+        } catch (IOException | RuntimeException e) {
+            progreso.fallar(e.getMessage());
+            throw e;
+        }
+
+        return progreso.resumen();
+    }
+
+    public Map<String, Object> obtenerProgreso(String id) {
+        ProgresoImportacion progreso = importaciones.get(id);
+        if (progreso == null) {
+            throw new RuntimeException("Importación no encontrada: " + id);
+        }
+        return progreso.resumen();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void confirmarBloque(List<Venta> bloque, long[] lineasBloque, long numeroLinea, ProgresoImportacion progreso) {
+        if (!bloque.isEmpty()) {
+            Map<String, Object> resumen = ventaService.registrarLote(bloque);
+            for (Map<String, Object> resultado : (List<Map<String, Object>>) resumen.get("resultados")) {
+                if ("RECHAZADA".equals(resultado.get("estado"))) {
+                    int indice = (Integer) resultado.get("indice");
+                    progreso.registrarRechazo(lineasBloque[indice], (String) resultado.get("error"));
+                }
+            }
+            progreso.registrarConfirmadas((Integer) resumen.get("registradas"));
+            bloque.clear();
+        }
+        progreso.registrarCheckpoint(numeroLinea);
+    }
+
+    private Venta ventaDesdeCsv(String[] cabecera, String linea) {
+        String[] campos = separarCamposCsv(linea);
+        Venta venta = new Venta();
+
+        for (int i = 0; i < cabecera.length && i < campos.length; i++) {
+            String valor = campos[i].trim();
+            if (valor.isEmpty()) {
+                continue;
+            }
+            switch (cabecera[i].trim()) {
+                case "numeroFactura" -> venta.setNumeroFactura(valor);
+                case "fechaVenta" -> venta.setFechaVenta(LocalDateTime.parse(valor));
+                case "productoId" -> {
+                    Producto producto = new Producto();
+                    producto.setId(Long.valueOf(valor));
+                    venta.setProducto(producto);
+                }
+                case "cantidad" -> venta.setCantidad(Integer.valueOf(valor));
+                case "precioUnitario" -> venta.setPrecioUnitario(new BigDecimal(valor));
+                case "monedaLocal" -> venta.setMonedaLocal(valor);
+                case "cliente" -> venta.setCliente(valor);
+                case "vendedorResponsable" -> venta.setVendedorResponsable(valor);
+                case "metodoPago" -> venta.setMetodoPago(Venta.MetodoPago.valueOf(valor.toUpperCase()));
+                case "paisFilial" -> venta.setPaisFilial(valor);
+                default -> {
+                    // Columna desconocida: se ignora
+                }
+            }
+        }
+        return venta;
+    }
+
+    /**
+     * Separa una línea CSV respetando campos entre comillas dobles ("" escapa una comilla)
+     */
+    private String[] separarCamposCsv(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos.toArray(String[]::new);
+    }
+
+    /**
+     * Estado de una importación en curso o terminada
+     */
+    private static final class ProgresoImportacion {
+
+        private final String id;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final List<String> errores = new ArrayList<>();
+        private String estado = "EN_CURSO";
+        private String error;
+        private long ultimaLineaConfirmada;
+        private long confirmadas;
+        private long rechazadas;
+
+        ProgresoImportacion(String id, long desdeLinea) {
+            this.id = id;
+            this.ultimaLineaConfirmada = desdeLinea;
+        }
+
+        synchronized void registrarRechazo(long linea, String error) {
+            rechazadas++;
+            if (errores.size() < MAX_ERRORES_REPORTADOS) {
+                errores.add("Línea " + linea + ": " + error);
+            }
+        }
+
+        synchronized void registrarConfirmadas(long cantidad) {
+            confirmadas += cantidad;
+        }
+
+        synchronized void registrarCheckpoint(long linea) {
+            ultimaLineaConfirmada = Math.max(ultimaLineaConfirmada, linea);
+        }
+
+        synchronized void finalizar(String estadoFinal) {
+            estado = estadoFinal;
+        }
+
+        synchronized void fallar(String mensaje) {
+            estado = "FALLIDA";
+            error = mensaje;
+        }
+
+        synchronized Map<String, Object> resumen() {
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("id", id);
+            resumen.put("estado", estado);
+            resumen.put("inicio", inicio);
+            resumen.put("registradas", confirmadas);
+            resumen.put("rechazadas", rechazadas);
+            resumen.put("ultimaLineaConfirmada", ultimaLineaConfirmada);
+            resumen.put("errores", new ArrayList<>(errores));
+            if (error != null) {
+                resumen.put("error", error);
+            }
+            return resumen;
+        }
+    }
+}
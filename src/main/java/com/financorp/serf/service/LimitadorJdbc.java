@@ -0,0 +1,52 @@
+package com.financorp.serf.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limita cuántas generaciones de reportes acceden a la base de datos a la vez.
+ * Con hilos virtuales puede haber miles de peticiones concurrentes; sin este límite
+ * todas esperarían dentro del pool de Hikari y los reportes lentos acapararían
+ * las conexiones que necesitan las consultas rápidas (productos, ventas).
+ * Esperar en el semáforo es barato en un hilo virtual.
+ */
+@Component
+public class LimitadorJdbc {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+
+    public LimitadorJdbc(@Value("${serf.reportes.max-concurrencia-jdbc:6}") int maxConcurrencia,
+                         @Value("${serf.reportes.espera-maxima-ms:30000}") long esperaMaximaMs) {
+        this.permisos = new Semaphore(maxConcurrencia, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Ejecuta el trabajo cuando hay un permiso disponible
+     * @throws RuntimeException si no se obtiene permiso dentro de la espera máxima
+     */
+    public <T> T ejecutar(Supplier<T> trabajo) {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Demasiados reportes en curso, intente más tarde");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrumpido esperando acceso a la base de datos", e);
+        }
+        try {
+            return trabajo.get();
+        } finally {
+            permisos.release();
+        }
+    }
+
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+}
@@ -0,0 +1,35 @@
+package com.financorp.serf.service;
+
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Período (fechas inclusivas) que cubre un reporte mensual, trimestral o anual
+ */
+public record PeriodoReporte(LocalDate inicio, LocalDate fin) {
+    
+    public static PeriodoReporte mensual(LocalDate fecha) {
+        return new PeriodoReporte(fecha.withDayOfMonth(1), fecha.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+    
+    public static PeriodoReporte trimestral(LocalDate fecha) {
+        int trimestre = (fecha.getMonthValue() - 1) / 3 + 1;
+        LocalDate inicioTrimestre = LocalDate.of(fecha.getYear(), (trimestre - 1) * 3 + 1, 1);
+        return new PeriodoReporte(inicioTrimestre, inicioTrimestre.plusMonths(2).with(TemporalAdjusters.lastDayOfMonth()));
+    }
+    
+    public static PeriodoReporte anual(LocalDate fecha) {
+        return new PeriodoReporte(LocalDate.of(fecha.getYear(), 1, 1), LocalDate.of(fecha.getYear(), 12, 31));
+    }
+    
+    public boolean contiene(LocalDate dia) {
+        return !dia.isBefore(inicio) && !dia.isAfter(fin);
+    }
+    
+    /**
+     * Un período cerrado ya no recibe ventas del día en curso
+     */
+    public boolean estaCerrado() {
+        return fin.isBefore(LocalDate.now());
+    }
+}
@@ -1,10 +1,18 @@
 package com.financorp.serf.service;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.financorp.serf.config.ConfiguracionGlobal;
 import com.financorp.serf.model.Producto;
@@ -16,9 +24,19 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ProductoService {
     
+    // Reintentos máximos de una edición ante conflictos de versión
+    private static final int MAX_INTENTOS_ACTUALIZACION = 3;
+    
     private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
     private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
     
+    @Value("${serf.paginacion.tamano-por-defecto:50}")
+    private int tamanoPaginaPorDefecto;
+    
+    @Value("${serf.paginacion.tamano-maximo:500}")
+    private int tamanoPaginaMaximo;
+    
     @Transactional
     public Producto registrarProducto(Producto producto) {
         // Convertir y almacenar el costo en EUR (moneda corporativa)
@@ -46,21 +64,44 @@ public class ProductoService {
         return productoRepository.findAll();
     }
     
+    /**
+     * Página de productos ordenados por código con paginación por clave (codigo, id)
+     * 
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera
+     * @param tamano Número de productos por página (se limita al máximo configurado)
+     */
+    public Map<String, Object> listarPagina(String cursor, Integer tamano) {
+        int limite = tamano == null ? tamanoPaginaPorDefecto : Math.max(1, Math.min(tamano, tamanoPaginaMaximo));
+        List<Producto> filas;
+        if (cursor == null) {
+            filas = productoRepository.findPrimeraPagina(Limit.of(limite + 1));
+        } else {
+            CursorKeyset posicion = CursorKeyset.decodificar(cursor);
+            filas = productoRepository.findPaginaDespuesDe(posicion.clave(), posicion.id(), Limit.of(limite + 1));
+        }
+        return CursorKeyset.armarPagina(filas, limite, producto -> new CursorKeyset(producto.getCodigo(), producto.getId()));
+    }
+    
     @Transactional
     public void actualizarStock(Long productoId, Integer cantidad) {
+        if (!descontarStock(productoId, cantidad)) {
+            if (!productoRepository.existsById(productoId)) {
+                throw new RuntimeException("Producto no encontrado");
+            }
+            throw new RuntimeException("Stock insuficiente");
+        }
+    }
+    
+    /**
+     * Descuenta stock con un UPDATE condicional, sin leer el producto ni bloquearlo
+     * @return true si se descontó, false si no hay stock suficiente o el producto no existe
+     */
+    @Transactional
+    public boolean descontarStock(Long productoId, Integer cantidad) {
         if (productoId == null) {
             throw new IllegalArgumentException("El ID del producto no puede ser null");
         }
-        Producto producto = productoRepository.findById(productoId)
-            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-        
-        int nuevoStock = producto.getStockActual() - cantidad;
-        if (nuevoStock < 0) {
-            throw new RuntimeException("Stock insuficiente");
-        }
-        
-        producto.setStockActual(nuevoStock);
-        productoRepository.save(producto);
+        return productoRepository.descontarStock(productoId, cantidad) > 0;
     }
     
     public List<Producto> obtenerProductosBajoStock(Integer limiteStock) {
@@ -75,12 +116,47 @@ public class ProductoService {
             .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
     }
     
-    @Transactional
+    /**
+     * Stock confirmado en base de datos
+     */
+    public int obtenerStockActual(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("El ID no puede ser null");
+        }
+        return productoRepository.findStockActualById(id)
+            .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+    }
+    
+    /**
+     * Carga varios productos en una sola consulta, indexados por ID
+     */
+    public Map<Long, Producto> obtenerPorIds(Collection<Long> ids) {
+        return productoRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Producto::getId, Function.identity()));
+    }
+    
+    /**
+     * Actualiza un producto completo con control optimista de versión.
+     * Si otra transacción (por ejemplo una venta) modificó el producto entretanto,
+     * la edición se reaplica sobre el estado más reciente hasta MAX_INTENTOS_ACTUALIZACION veces.
+     */
     public Producto actualizarProducto(Long id, Producto producto) {
         if (id == null) {
             throw new IllegalArgumentException("El ID no puede ser null");
         }
         
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> aplicarActualizacion(id, producto));
+            } catch (OptimisticLockingFailureException e) {
+                if (intento >= MAX_INTENTOS_ACTUALIZACION) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private Producto aplicarActualizacion(Long id, Producto producto) {
         Producto productoExistente = productoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
         
@@ -114,7 +190,7 @@ public class ProductoService {
             }
         }
         
-        return productoRepository.save(productoExistente);
+        return productoRepository.saveAndFlush(productoExistente);
     }
     
     @Transactional
@@ -3,16 +3,26 @@ package com.financorp.serf.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.financorp.serf.model.Producto;
-import com.financorp.serf.model.Venta;
+import com.financorp.serf.monto.AcumuladorMonto;
+import com.financorp.serf.monto.MontoFijo;
+import com.financorp.serf.repository.VentaDiariaRepository.TotalesVentas;
 import com.financorp.serf.repository.VentaRepository;
+import com.financorp.serf.repository.VentaRepository.GrupoVentas;
+import com.financorp.serf.repository.VentaRepository.VentasProducto;
 
 import lombok.RequiredArgsConstructor;
 
@@ -22,47 +32,89 @@ public class ReporteService {
     
     private final VentaRepository ventaRepository;
     private final ProductoService productoService;
+    private final VentaDiariaService ventaDiariaService;
     
-    public Map<String, Object> generarReporteVentasPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin) {
+    /**
+     * Reporte de ventas de un período. Los totales y desgloses se agregan en la base de datos;
+     * el listado completo de ventas solo se carga si se pide expresamente.
+     */
+    public Map<String, Object> generarReporteVentasPorPeriodo(LocalDate fechaInicio, LocalDate fechaFin, boolean incluirVentas) {
         LocalDateTime inicio = fechaInicio.atStartOfDay();
         LocalDateTime fin = fechaFin.atTime(23, 59, 59);
         
-        List<Venta> ventas = ventaRepository.findByFechaVentaBetween(inicio, fin);
-        
-        BigDecimal totalVentas = ventas.stream()
-            .map(Venta::getTotalVentaEUR)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Totales total = new Totales();
+        Map<String, Totales> porPais = new TreeMap<>();
+        Map<String, Totales> porMetodoPago = new TreeMap<>();
+        Map<String, Totales> porDia = new TreeMap<>();
+        for (GrupoVentas grupo : ventaRepository.resumirPorPeriodo(inicio, fin)) {
+            String metodoPago = grupo.getMetodoPago() != null ? grupo.getMetodoPago().name() : "SIN_ESPECIFICAR";
+            total.sumar(grupo);
+            porPais.computeIfAbsent(grupo.getPaisFilial(), clave -> new Totales()).sumar(grupo);
+            porMetodoPago.computeIfAbsent(metodoPago, clave -> new Totales()).sumar(grupo);
+            porDia.computeIfAbsent(grupo.getDia().toString(), clave -> new Totales()).sumar(grupo);
+        }
         
         Map<String, Object> reporte = new HashMap<>();
         reporte.put("fechaInicio", fechaInicio);
         reporte.put("fechaFin", fechaFin);
-        reporte.put("totalVentas", ventas.size());
-        reporte.put("montoTotal", totalVentas);
-        reporte.put("ventas", ventas);
+        reporte.put("totalVentas", total.ventas);
+        reporte.put("montoTotal", total.monto.totalPresentacion());
+        reporte.put("unidadesVendidas", total.unidades);
+        reporte.put("ventasPorPais", Totales.aMapa(porPais));
+        reporte.put("ventasPorMetodoPago", Totales.aMapa(porMetodoPago));
+        reporte.put("ventasPorDia", Totales.aMapa(porDia));
+        if (incluirVentas) {
+            reporte.put("ventas", ventaRepository.findConProductoByRangoFecha(inicio, fin));
+        }
         
         return reporte;
     }
     
     public Map<String, Object> generarReporteMensual(LocalDate fecha) {
-        LocalDate inicioMes = fecha.withDayOfMonth(1);
-        LocalDate finMes = fecha.with(TemporalAdjusters.lastDayOfMonth());
+        PeriodoReporte mes = PeriodoReporte.mensual(fecha);
         
-        return generarReporteVentasPorPeriodo(inicioMes, finMes);
+        return generarReporteResumenDiario(mes.inicio(), mes.fin());
     }
     
     public Map<String, Object> generarReporteTrimestral(LocalDate fecha) {
-        int trimestre = (fecha.getMonthValue() - 1) / 3 + 1;
-        LocalDate inicioTrimestre = LocalDate.of(fecha.getYear(), (trimestre - 1) * 3 + 1, 1);
-        LocalDate finTrimestre = inicioTrimestre.plusMonths(2).with(TemporalAdjusters.lastDayOfMonth());
+        PeriodoReporte trimestre = PeriodoReporte.trimestral(fecha);
         
-        return generarReporteVentasPorPeriodo(inicioTrimestre, finTrimestre);
+        return generarReporteResumenDiario(trimestre.inicio(), trimestre.fin());
     }
     
     public Map<String, Object> generarReporteAnual(LocalDate fecha) {
-        LocalDate inicioAno = LocalDate.of(fecha.getYear(), 1, 1);
-        LocalDate finAno = LocalDate.of(fecha.getYear(), 12, 31);
+        PeriodoReporte ano = PeriodoReporte.anual(fecha);
         
-        return generarReporteVentasPorPeriodo(inicioAno, finAno);
+        return generarReporteResumenDiario(ano.inicio(), ano.fin());
+    }
+    
+    /**
+     * Reporte de un período calculado sobre el resumen diario (ventas_diarias):
+     * el coste depende del número de días y grupos, no del número de ventas
+     */
+    private Map<String, Object> generarReporteResumenDiario(LocalDate fechaInicio, LocalDate fechaFin) {
+        TotalesVentas totales = ventaDiariaService.totalizar(fechaInicio, fechaFin);
+        
+        Map<String, Object> reporte = new HashMap<>();
+        reporte.put("fechaInicio", fechaInicio);
+        reporte.put("fechaFin", fechaFin);
+        reporte.put("totalVentas", totales.getNumeroVentas());
+        reporte.put("montoTotal", MontoFijo.aPresentacion(totales.getTotalEUR()));
+        reporte.put("unidadesVendidas", totales.getCantidad());
+        reporte.put("ventasPorDia", agruparTotales(ventaDiariaService.totalizarPorDia(fechaInicio, fechaFin)));
+        reporte.put("ventasPorPais", agruparTotales(ventaDiariaService.totalizarPorPais(fechaInicio, fechaFin)));
+        
+        return reporte;
+    }
+    
+    private Map<String, Object> agruparTotales(List<TotalesVentas> filas) {
+        Map<String, Totales> agrupado = new LinkedHashMap<>();
+        for (TotalesVentas fila : filas) {
+            Totales totales = new Totales();
+            totales.sumar(fila.getNumeroVentas(), fila.getCantidad(), fila.getTotalEUR());
+            agrupado.put(String.valueOf(fila.getClave()), totales);
+        }
+        return Totales.aMapa(agrupado);
     }
     
     public Map<String, Object> generarReporteStock() {
@@ -78,36 +130,95 @@ public class ReporteService {
         return reporte;
     }
     
-    public Map<String, Object> generarReporteTopProductos() {
-        // Obtener ventas del último mes para calcular productos más vendidos
-        LocalDate fechaFin = LocalDate.now();
-        LocalDate fechaInicio = fechaFin.minusMonths(1);
-        
+    /**
+     * Los k productos con más unidades vendidas en el período (desempate por ingresos).
+     * Las ventas se agregan por producto en la base de datos y se recorren con un
+     * montículo mínimo de tamaño k; los datos de los k productos se leen con una sola consulta.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> generarReporteTopProductos(int k, LocalDate fechaInicio, LocalDate fechaFin) {
         LocalDateTime inicio = fechaInicio.atStartOfDay();
         LocalDateTime fin = fechaFin.atTime(23, 59, 59);
         
-        List<Venta> ventas = ventaRepository.findByFechaVentaBetween(inicio, fin);
+        // La raíz del montículo es el peor de los k mejores: se sustituye cuando llega uno mejor
+        Comparator<VentasProducto> orden = Comparator
+            .comparing(VentasProducto::getCantidad)
+            .thenComparing(fila -> fila.getTotalEUR() != null ? fila.getTotalEUR() : BigDecimal.ZERO)
+            .thenComparing(VentasProducto::getProductoId, Comparator.reverseOrder());
+        PriorityQueue<VentasProducto> mejores = new PriorityQueue<>(k + 1, orden);
+        long totalVentas = 0;
         
-        // Agrupar ventas por producto y calcular totales
-        Map<Producto, Integer> ventasPorProducto = new HashMap<>();
-        Map<Producto, BigDecimal> ingresosPorProducto = new HashMap<>();
-        
-        for (Venta venta : ventas) {
-            Producto producto = venta.getProducto();
-            if (producto != null) {
-                ventasPorProducto.merge(producto, venta.getCantidad(), (a, b) -> a + b);
-                ingresosPorProducto.merge(producto, venta.getTotalVentaEUR(), BigDecimal::add);
+        try (Stream<VentasProducto> filas = ventaRepository.totalizarPorProducto(inicio, fin)) {
+            for (VentasProducto fila : (Iterable<VentasProducto>) filas::iterator) {
+                totalVentas += fila.getNumeroVentas();
+                if (mejores.size() < k) {
+                    mejores.add(fila);
+                } else if (orden.compare(fila, mejores.peek()) > 0) {
+                    mejores.poll();
+                    mejores.add(fila);
+                }
             }
         }
         
+        List<VentasProducto> ranking = new ArrayList<>(mejores);
+        ranking.sort(orden.reversed());
+        Map<Long, Producto> productos = productoService.obtenerPorIds(
+            ranking.stream().map(VentasProducto::getProductoId).toList());
+        
+        List<Map<String, Object>> topProductos = new ArrayList<>(ranking.size());
+        for (VentasProducto fila : ranking) {
+            Producto producto = productos.get(fila.getProductoId());
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("posicion", topProductos.size() + 1);
+            item.put("productoId", fila.getProductoId());
+            item.put("codigo", producto != null ? producto.getCodigo() : null);
+            item.put("nombre", producto != null ? producto.getNombre() : null);
+            item.put("unidadesVendidas", fila.getCantidad());
+            item.put("ingresosEUR", fila.getTotalEUR() != null ? MontoFijo.aPresentacion(fila.getTotalEUR()) : null);
+            item.put("numeroVentas", fila.getNumeroVentas());
+            topProductos.add(item);
+        }
+        
         Map<String, Object> reporte = new HashMap<>();
-        reporte.put("periodo", "Último mes");
         reporte.put("fechaInicio", fechaInicio);
         reporte.put("fechaFin", fechaFin);
-        reporte.put("totalVentas", ventas.size());
-        reporte.put("ventasPorProducto", ventasPorProducto);
-        reporte.put("ingresosPorProducto", ingresosPorProducto);
+        reporte.put("k", k);
+        reporte.put("totalVentas", totalVentas);
+        reporte.put("topProductos", topProductos);
         
         return reporte;
     }
+    
+    /**
+     * Acumulador de número de ventas, unidades y monto en EUR (en punto fijo)
+     */
+    private static class Totales {
+        long ventas;
+        long unidades;
+        final AcumuladorMonto monto = new AcumuladorMonto();
+        
+        void sumar(GrupoVentas grupo) {
+            sumar(grupo.getNumeroVentas(), grupo.getCantidad(), grupo.getTotalEUR());
+        }
+        
+        void sumar(Long numeroVentas, Long cantidad, BigDecimal totalEUR) {
+            ventas += numeroVentas;
+            unidades += cantidad != null ? cantidad : 0;
+            monto.sumar(totalEUR);
+        }
+        
+        Map<String, Object> aMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            mapa.put("totalVentas", ventas);
+            mapa.put("unidadesVendidas", unidades);
+            mapa.put("montoTotal", monto.totalPresentacion());
+            return mapa;
+        }
+        
+        static Map<String, Object> aMapa(Map<String, Totales> grupos) {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            grupos.forEach((clave, totales) -> mapa.put(clave, totales.aMapa()));
+            return mapa;
+        }
+    }
 }
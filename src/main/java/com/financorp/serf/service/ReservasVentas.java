@@ -0,0 +1,166 @@
+package com.financorp.serf.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import com.financorp.serf.model.Venta;
+
+/**
+ * Stock y números de factura comprometidos por ventas ya aceptadas que aún no están en base
+ * de datos: las anotadas en el {@link DiarioVentas} y las de un lote en curso.
+ *
+ * Una venta solo se reserva si su factura no está registrada ni reservada y si el stock
+ * confirmado en base de datos menos lo ya reservado alcanza, así que al aplicarla no puede
+ * rechazarse. El stock de cada producto se lee con el producto bloqueado y las reservas se
+ * liberan después de confirmar la transacción que aplica la venta: una lectura concurrente
+ * puede contar una venta dos veces (en base de datos y reservada), nunca ninguna.
+ */
+final class ReservasVentas {
+
+    private final Set<String> facturas = ConcurrentHashMap.newKeySet();
+    private final Map<Long, StockReservado> stock = new ConcurrentHashMap<>();
+
+    /**
+     * Reserva una venta
+     *
+     * @param facturaRegistrada Indica si el número de factura ya está en base de datos
+     * @param stockConfirmado Stock actual del producto en base de datos
+     * @throws RuntimeException con el motivo si la venta no puede reservarse
+     */
+    void reservar(Venta venta, Predicate<String> facturaRegistrada, ToIntFunction<Long> stockConfirmado) {
+        if (!esReservable(venta)) {
+            throw new IllegalArgumentException("Número de factura, producto y cantidad son obligatorios");
+        }
+        String[] errores = new String[1];
+        reservarLote(List.of(venta), errores, facturaRegistrada, stockConfirmado);
+        if (errores[0] != null) {
+            throw new RuntimeException(errores[0]);
+        }
+    }
+
+    /**
+     * Reserva las ventas de un lote en orden, leyendo el stock de cada producto una sola vez.
+     * Las filas sin número de factura, producto o cantidad no se reservan ni se marcan
+     * (la validación del lote las rechaza); el motivo de las demás que no caben queda en
+     * {@code errores}.
+     *
+     * @return reservadas[i] = true si la venta i quedó reservada y debe liberarse después
+     */
+    boolean[] reservarLote(List<Venta> ventas, String[] errores,
+                           Predicate<String> facturaRegistrada, ToIntFunction<Long> stockConfirmado) {
+        boolean[] reservadas = new boolean[ventas.size()];
+        Map<Long, List<Integer>> filasPorProducto = new LinkedHashMap<>();
+        for (int i = 0; i < ventas.size(); i++) {
+            Venta venta = ventas.get(i);
+            if (errores[i] != null || !esReservable(venta)) {
+                continue;
+            }
+            // La factura se reserva antes de consultar la base de datos: si la aplicación de
+            // otra venta con el mismo número termina entretanto, la consulta ya la ve
+            if (!facturas.add(venta.getNumeroFactura())) {
+                errores[i] = "Factura duplicada: " + venta.getNumeroFactura();
+            } else if (facturaRegistrada.test(venta.getNumeroFactura())) {
+                facturas.remove(venta.getNumeroFactura());
+                errores[i] = "Factura duplicada: " + venta.getNumeroFactura();
+            } else {
+                filasPorProducto.computeIfAbsent(venta.getProducto().getId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        filasPorProducto.forEach((productoId, filas) -> {
+            StockReservado reservado = stock.computeIfAbsent(productoId, id -> new StockReservado());
+            reservado.lock.lock();
+            try {
+                int disponible;
+                try {
+                    disponible = stockConfirmado.applyAsInt(productoId) - reservado.unidades;
+                } catch (RuntimeException e) {
+                    for (int fila : filas) {
+                        facturas.remove(ventas.get(fila).getNumeroFactura());
+                        errores[fila] = e.getMessage();
+                    }
+                    return;
+                }
+                for (int fila : filas) {
+                    Venta venta = ventas.get(fila);
+                    if (disponible < venta.getCantidad()) {
+                        facturas.remove(venta.getNumeroFactura());
+                        errores[fila] = "Stock insuficiente";
+                    } else {
+                        disponible -= venta.getCantidad();
+                        reservado.unidades += venta.getCantidad();
+                        reservadas[fila] = true;
+                    }
+                }
+            } finally {
+                reservado.lock.unlock();
+            }
+        });
+        return reservadas;
+    }
+
+    /**
+     * Vuelve a reservar sin comprobaciones una venta que ya estaba aceptada (al recuperar el diario)
+     */
+    void restaurar(Venta venta) {
+        if (!esReservable(venta)) {
+            return;
+        }
+        facturas.add(venta.getNumeroFactura());
+        StockReservado reservado = stock.computeIfAbsent(venta.getProducto().getId(), id -> new StockReservado());
+        reservado.lock.lock();
+        try {
+            reservado.unidades += venta.getCantidad();
+        } finally {
+            reservado.lock.unlock();
+        }
+    }
+
+    /**
+     * Libera la reserva de una venta ya aplicada (o descartada) en base de datos
+     */
+    void liberar(Venta venta) {
+        if (!esReservable(venta)) {
+            return;
+        }
+        StockReservado reservado = stock.get(venta.getProducto().getId());
+        if (reservado != null) {
+            reservado.lock.lock();
+            try {
+                reservado.unidades = Math.max(0, reservado.unidades - venta.getCantidad());
+            } finally {
+                reservado.lock.unlock();
+            }
+        }
+        facturas.remove(venta.getNumeroFactura());
+    }
+
+    int stockReservado(Long productoId) {
+        StockReservado reservado = stock.get(productoId);
+        return reservado == null ? 0 : reservado.unidades;
+    }
+
+    int ventasReservadas() {
+        return facturas.size();
+    }
+
+    private static boolean esReservable(Venta venta) {
+        return venta.getNumeroFactura() != null && !venta.getNumeroFactura().isBlank()
+            && venta.getProducto() != null && venta.getProducto().getId() != null
+            && venta.getCantidad() != null && venta.getCantidad() > 0;
+    }
+
+    // ReentrantLock y no synchronized: la lectura del stock es una consulta y con hilos
+    // virtuales un monitor retenido durante E/S bloquea el hilo portador
+    private static final class StockReservado {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int unidades;
+    }
+}
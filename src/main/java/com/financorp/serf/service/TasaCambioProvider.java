@@ -0,0 +1,34 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Fuente externa de tasas de cambio a la moneda corporativa. Solo la consulta
+ * {@link ActualizadorTasasCambio} desde su propio hilo, nunca una conversión: una
+ * implementación puede bloquear (red, disco) pero debe acotar su tiempo de espera.
+ * Se activa declarándola como bean; las incluidas se eligen con {@code serf.tasas.proveedor}.
+ */
+public interface TasaCambioProvider {
+    
+    /**
+     * Nombre de la fuente, para el estado de las tasas
+     */
+    String nombre();
+    
+    /**
+     * Tasas vigentes según la fuente
+     * 
+     * @throws IOException si la fuente no responde o la respuesta no es válida
+     */
+    TasasObtenidas obtenerTasas() throws IOException, InterruptedException;
+    
+    /**
+     * Tasas por moneda y fecha desde la que rigen (null = hoy), p. ej.
+     * {"vigenteDesde":"2025-01-01","tasas":{"PEN":0.25,"USD":0.91}}
+     */
+    record TasasObtenidas(LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tasas leídas de un archivo JSON local en cada consulta ({@code serf.tasas.proveedor=archivo}).
+ * Sirve para entornos sin acceso a la API y para pruebas.
+ */
+@Component
+@ConditionalOnProperty(name = "serf.tasas.proveedor", havingValue = "archivo")
+public class TasaCambioProviderArchivo implements TasaCambioProvider {
+    
+    private final Path archivo;
+    private final ObjectMapper objectMapper;
+    
+    public TasaCambioProviderArchivo(@Value("${serf.tasas.proveedor.archivo:data/tasas-proveedor.json}") String archivo,
+                                     ObjectMapper objectMapper) {
+        this.archivo = Path.of(archivo);
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public String nombre() {
+        return "archivo:" + archivo;
+    }
+    
+    @Override
+    public TasasObtenidas obtenerTasas() throws IOException {
+        return objectMapper.readValue(archivo.toFile(), TasasObtenidas.class);
+    }
+}
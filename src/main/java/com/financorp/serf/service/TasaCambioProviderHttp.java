@@ -0,0 +1,83 @@
+package com.financorp.serf.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Tasas obtenidas de una API HTTP que responde con el JSON de
+ * {@link TasaCambioProvider.TasasObtenidas} ({@code serf.tasas.proveedor=http}).
+ * La conexión y la respuesta completa, cuerpo incluido, están acotadas por
+ * {@code serf.tasas.proveedor.tiempo-maximo-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "serf.tasas.proveedor", havingValue = "http")
+public class TasaCambioProviderHttp implements TasaCambioProvider {
+    
+    private final URI url;
+    private final Duration tiempoMaximo;
+    private final ObjectMapper objectMapper;
+    private final HttpClient cliente;
+    
+    public TasaCambioProviderHttp(@Value("${serf.tasas.proveedor.url}") String url,
+                                  @Value("${serf.tasas.proveedor.tiempo-maximo-ms:5000}") long tiempoMaximoMs,
+                                  ObjectMapper objectMapper) {
+        this.url = URI.create(url);
+        this.tiempoMaximo = Duration.ofMillis(tiempoMaximoMs);
+        this.objectMapper = objectMapper;
+        this.cliente = HttpClient.newBuilder()
+            .connectTimeout(tiempoMaximo)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    }
+    
+    @Override
+    public String nombre() {
+        return "http:" + url;
+    }
+    
+    @Override
+    public TasasObtenidas obtenerTasas() throws IOException, InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(url)
+            .timeout(tiempoMaximo)
+            .header("Accept", "application/json")
+            .GET()
+            .build();
+        // HttpRequest.timeout solo cubre hasta recibir las cabeceras: el plazo de la petición
+        // completa se aplica al esperar la respuesta, y al vencer se cancela el intercambio
+        CompletableFuture<HttpResponse<byte[]>> envio = cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> respuesta;
+        try {
+            respuesta = envio.get(tiempoMaximo.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            envio.cancel(true);
+            throw new HttpTimeoutException("Respuesta incompleta de " + url + " tras " + tiempoMaximo.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            envio.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException causa) {
+                throw causa;
+            }
+            throw new IOException("Error al consultar " + url, e.getCause());
+        }
+        if (respuesta.statusCode() != 200) {
+            throw new IOException("Respuesta " + respuesta.statusCode() + " de " + url);
+        }
+        return objectMapper.readValue(respuesta.body(), TasasObtenidas.class);
+    }
+}
@@ -0,0 +1,194 @@
+package com.financorp.serf.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.config.TablaTasasCambio;
+import com.financorp.serf.model.TasaCambioHistorica;
+import com.financorp.serf.model.VersionTasasCambio;
+import com.financorp.serf.repository.TasaCambioHistoricaRepository;
+import com.financorp.serf.repository.VersionTasasCambioRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Historial persistido de tasas de cambio (tabla tasas_cambio). Al arrancar se carga en
+ * {@link ConfiguracionGlobal}, que lo indexa en memoria para las conversiones; las tasas
+ * nuevas se guardan en base de datos y se publican en memoria al confirmar la transacción.
+ *
+ * La versión de cada tabla publicada es el ID de una fila de versiones_tasas_cambio: al
+ * reiniciar se vuelve a publicar la última, y cada registro de tasas crea una nueva.
+ * Así la versión guardada en cada venta identifica unas tasas concretas entre reinicios.
+ * Los registros se serializan hasta terminar su transacción, de modo que las versiones se
+ * publican en el orden en que se crean.
+ */
+@Service
+@RequiredArgsConstructor
+public class TasaCambioService {
+    
+    private final TasaCambioHistoricaRepository tasaCambioRepository;
+    private final VersionTasasCambioRepository versionRepository;
+    private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
+    // Tomado desde que se crea la versión hasta que la transacción termina
+    private final ReentrantLock registro = new ReentrantLock();
+    
+    /**
+     * Carga el historial persistido; en el primer arranque guarda las tasas iniciales como historial base.
+     * Va antes que {@link ActualizadorTasasCambio}, que añade encima las tasas de la caché y del proveedor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void cargar() {
+        List<TasaCambioHistorica> filas = tasaCambioRepository.findAll();
+        if (filas.isEmpty()) {
+            TablaTasasCambio actual = configuracion.getTablaTasasCambio();
+            List<TasaCambioHistorica> iniciales = new ArrayList<>();
+            for (String moneda : actual.monedas()) {
+                actual.historial(moneda).forEach((vigenteDesde, tasa) ->
+                    iniciales.add(new TasaCambioHistorica(null, moneda, vigenteDesde, tasa)));
+            }
+            filas = tasaCambioRepository.saveAll(iniciales);
+        }
+        // Bases de datos anteriores a las versiones persistidas: la primera carga crea una
+        long version = versionRepository.findTopByOrderByIdDesc()
+            .orElseGet(this::nuevaVersion)
+            .getId();
+        
+        Map<String, SortedMap<LocalDate, BigDecimal>> historial = new HashMap<>();
+        for (TasaCambioHistorica fila : filas) {
+            historial.computeIfAbsent(fila.getMoneda(), moneda -> new TreeMap<>())
+                .put(fila.getVigenteDesde(), sinCerosFinales(fila.getTasa()));
+        }
+        configuracion.reemplazarHistorialTasas(version, historial);
+    }
+    
+    /**
+     * Registra tasas en vigor desde una fecha (reemplaza las de esa misma fecha).
+     * Las conversiones las usan en cuanto se confirma la transacción.
+     * 
+     * @throws IllegalArgumentException si alguna tasa no es positiva
+     */
+    @Transactional
+    public Map<String, Object> registrarTasas(LocalDate vigenteDesde, Map<String, BigDecimal> tasas) {
+        if (tasas == null || tasas.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos una tasa");
+        }
+        Map<String, BigDecimal> porMoneda = normalizarMonedas(tasas);
+        // Valida sin publicar
+        configuracion.getTablaTasasCambio().con(vigenteDesde, porMoneda);
+        
+        // Sin serializar, un registro con una versión anterior podría confirmarse después de
+        // otro posterior y publicar una tabla cuya versión no identifica sus tasas
+        registro.lock();
+        boolean liberarAlTerminar = false;
+        long version;
+        try {
+            version = nuevaVersion().getId();
+            porMoneda.forEach((moneda, tasa) -> {
+                TasaCambioHistorica fila = tasaCambioRepository.findByMonedaAndVigenteDesde(moneda, vigenteDesde)
+                    .orElseGet(() -> new TasaCambioHistorica(null, moneda, vigenteDesde, null));
+                fila.setTasa(tasa);
+                tasaCambioRepository.save(fila);
+            });
+            
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        configuracion.actualizarTasasCambio(version, vigenteDesde, porMoneda);
+                    }
+                    
+                    @Override
+                    public void afterCompletion(int estado) {
+                        registro.unlock();
+                    }
+                });
+                liberarAlTerminar = true;
+            } else {
+                configuracion.actualizarTasasCambio(version, vigenteDesde, porMoneda);
+            }
+        } finally {
+            if (!liberarAlTerminar) {
+                registro.unlock();
+            }
+        }
+        
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("version", version);
+        resultado.put("vigenteDesde", vigenteDesde);
+        resultado.put("tasas", porMoneda);
+        return resultado;
+    }
+    
+    /**
+     * Códigos de moneda en mayúsculas, como los de las ventas y del historial ("pen" es PEN)
+     *
+     * @throws IllegalArgumentException si dos códigos solo se distinguen por mayúsculas
+     */
+    static Map<String, BigDecimal> normalizarMonedas(Map<String, BigDecimal> tasas) {
+        Map<String, BigDecimal> normalizadas = new LinkedHashMap<>();
+        tasas.forEach((moneda, tasa) -> {
+            String codigo = moneda != null ? moneda.trim().toUpperCase(Locale.ROOT) : null;
+            if (normalizadas.containsKey(codigo)) {
+                throw new IllegalArgumentException("Moneda repetida: " + codigo);
+            }
+            normalizadas.put(codigo, tasa);
+        });
+        return normalizadas;
+    }
+    
+    /**
+     * La columna guarda 12 decimales: se quitan los ceros para no arrastrarlos a los importes,
+     * sin pasar a escala negativa (10.000000000000 queda 10, no 1E+1)
+     */
+    private static BigDecimal sinCerosFinales(BigDecimal tasa) {
+        BigDecimal sinCeros = tasa.stripTrailingZeros();
+        return sinCeros.scale() < 0 ? sinCeros.setScale(0) : sinCeros;
+    }
+    
+    private VersionTasasCambio nuevaVersion() {
+        return versionRepository.save(new VersionTasasCambio(null, LocalDateTime.now()));
+    }
+    
+    /**
+     * Tasas vigentes en una fecha y versión de la tabla en memoria
+     */
+    public Map<String, Object> obtenerTasasVigentes(LocalDate fecha) {
+        TablaTasasCambio tabla = configuracion.getTablaTasasCambio();
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("fecha", fecha);
+        resultado.put("monedaCorporativa", configuracion.getMonedaCorporativa());
+        resultado.put("version", tabla.version());
+        resultado.put("tasas", new TreeMap<>(tabla.tasas(fecha)));
+        return resultado;
+    }
+    
+    public Map<LocalDate, BigDecimal> obtenerHistorial(String moneda) {
+        SortedMap<LocalDate, BigDecimal> historial = configuracion.getTablaTasasCambio().historial(moneda);
+        if (historial.isEmpty()) {
+            throw new IllegalArgumentException("Moneda no soportada: " + moneda);
+        }
+        return historial;
+    }
+}
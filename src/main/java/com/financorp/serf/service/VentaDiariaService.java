@@ -0,0 +1,179 @@
+package com.financorp.serf.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.monto.AcumuladorMonto;
+import com.financorp.serf.repository.VentaDiariaRepository;
+import com.financorp.serf.repository.VentaDiariaRepository.TotalesVentas;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Mantiene el resumen diario de ventas (tabla ventas_diarias) agrupado por día, país,
+ * producto, moneda y método de pago. Se actualiza en la misma transacción que inserta
+ * las ventas, de modo que los reportes por período no necesitan recorrer la tabla de ventas.
+ *
+ * El MERGE de H2 no es atómico: dos transacciones que crean a la vez la misma fila pueden
+ * tomar ambas la rama INSERT (y con metodo_pago nulo la restricción única no lo impide).
+ * Por eso las filas se bloquean también en memoria, por franjas, hasta que termina la transacción.
+ */
+@Service
+@RequiredArgsConstructor
+public class VentaDiariaService {
+    
+    private static final int FRANJAS = 64;
+    private static final long ESPERA_BLOQUEO_MS = 10_000;
+    
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final ReentrantLock[] franjas = crearFranjas();
+    
+    @Value("${serf.ventas-diarias.reconstruir-al-iniciar:false}")
+    private boolean reconstruirAlIniciar;
+    
+    /**
+     * Suma una venta recién registrada al resumen de su día
+     */
+    @Transactional
+    public void acumular(Venta venta) {
+        acumularLote(List.of(venta));
+    }
+    
+    /**
+     * Suma un lote de ventas agrupándolas antes por clave, con una sola
+     * actualización por fila del resumen
+     */
+    @Transactional
+    public void acumularLote(List<Venta> ventas) {
+        Map<Clave, Acumulado> grupos = new LinkedHashMap<>();
+        for (Venta venta : ventas) {
+            Acumulado acumulado = grupos.computeIfAbsent(Clave.de(venta), clave -> new Acumulado());
+            acumulado.numeroVentas++;
+            acumulado.cantidad += venta.getCantidad();
+            acumulado.totalEUR.sumar(venta.getTotalVentaEUR());
+        }
+        
+        List<ReentrantLock> tomados = bloquear(grupos.keySet());
+        boolean liberarAlTerminar = TransactionSynchronizationManager.isSynchronizationActive();
+        try {
+            if (liberarAlTerminar) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        tomados.forEach(ReentrantLock::unlock);
+                    }
+                });
+            }
+            grupos.forEach((clave, acumulado) -> ventaDiariaRepository.acumular(
+                clave.dia(), clave.paisFilial(), clave.productoId(), clave.monedaLocal(),
+                clave.metodoPago() != null ? clave.metodoPago().name() : null,
+                acumulado.numeroVentas, acumulado.cantidad, acumulado.totalEUR.total()));
+        } finally {
+            if (!liberarAlTerminar) {
+                tomados.forEach(ReentrantLock::unlock);
+            }
+        }
+    }
+    
+    /**
+     * Recalcula el resumen completo desde la tabla de ventas. Pensado para el backfill
+     * inicial o para corregir desviaciones; conviene ejecutarlo con poca actividad,
+     * ya que las ventas que se registren mientras tanto pueden quedar fuera.
+     * 
+     * @return Número de filas del resumen generadas
+     */
+    @Transactional
+    public int reconstruir() {
+        ventaDiariaRepository.eliminarTodo();
+        return ventaDiariaRepository.reconstruirDesdeVentas();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirSiSeSolicita() {
+        if (reconstruirAlIniciar) {
+            reconstruir();
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public TotalesVentas totalizar(LocalDate inicio, LocalDate fin) {
+        return ventaDiariaRepository.totalizar(inicio, fin);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TotalesVentas> totalizarPorDia(LocalDate inicio, LocalDate fin) {
+        return ventaDiariaRepository.totalizarPorDia(inicio, fin);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<TotalesVentas> totalizarPorPais(LocalDate inicio, LocalDate fin) {
+        return ventaDiariaRepository.totalizarPorPais(inicio, fin);
+    }
+    
+    /**
+     * Toma las franjas de las claves en orden creciente, para que dos lotes con claves
+     * cruzadas no se esperen mutuamente
+     */
+    private List<ReentrantLock> bloquear(Set<Clave> claves) {
+        int[] indices = claves.stream()
+            .mapToInt(clave -> Math.floorMod(clave.hashCode(), FRANJAS))
+            .distinct()
+            .sorted()
+            .toArray();
+        List<ReentrantLock> tomados = new ArrayList<>(indices.length);
+        try {
+            for (int indice : indices) {
+                ReentrantLock franja = franjas[indice];
+                if (!franja.tryLock(ESPERA_BLOQUEO_MS, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Resumen diario: tiempo de espera agotado al bloquear sus filas");
+                }
+                tomados.add(franja);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tomados.forEach(ReentrantLock::unlock);
+            throw new IllegalStateException("Resumen diario: interrumpido al bloquear sus filas", e);
+        } catch (RuntimeException e) {
+            tomados.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        return tomados;
+    }
+    
+    private static ReentrantLock[] crearFranjas() {
+        ReentrantLock[] franjas = new ReentrantLock[FRANJAS];
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        return franjas;
+    }
+    
+    private record Clave(LocalDate dia, String paisFilial, Long productoId, String monedaLocal,
+                         Venta.MetodoPago metodoPago) {
+        static Clave de(Venta venta) {
+            return new Clave(venta.getFechaVenta().toLocalDate(), venta.getPaisFilial(),
+                venta.getProducto().getId(), venta.getMonedaLocal(), venta.getMetodoPago());
+        }
+    }
+    
+    private static class Acumulado {
+        long numeroVentas;
+        long cantidad;
+        final AcumuladorMonto totalEUR = new AcumuladorMonto();
+    }
+}
@@ -1,16 +1,31 @@
 package com.financorp.serf.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.config.TablaTasasCambio;
+import com.financorp.serf.model.Producto;
 import com.financorp.serf.model.Venta;
+import com.financorp.serf.monto.AcumuladorMonto;
+import com.financorp.serf.monto.MontoFijo;
 import com.financorp.serf.repository.VentaRepository;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -19,23 +34,367 @@ public class VentaService {
     
     private final VentaRepository ventaRepository;
     private final ProductoService productoService;
+    private final FiltroFacturas filtroFacturas;
+    private final DiarioVentas diarioVentas;
+    private final VentaDiariaService ventaDiariaService;
+    private final CacheReportes cacheReportes;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
     private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
     
-    @Transactional
+    // Tamaño de cada bloque de inserción; coincide con el batch JDBC de Hibernate
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLote;
+    
+    @Value("${serf.paginacion.tamano-por-defecto:50}")
+    private int tamanoPaginaPorDefecto;
+    
+    @Value("${serf.paginacion.tamano-maximo:500}")
+    private int tamanoPaginaMaximo;
+    
+    /**
+     * Registra una venta. Con el diario habilitado la venta se acepta en cuanto es durable
+     * en el diario local, fuera de toda transacción; si no, se inserta en una transacción propia.
+     */
     public Venta registrarVenta(Venta venta) {
-        // Convertir precio a EUR
+        // Rechazar duplicados antes de convertir moneda o tocar el stock
+        if (esFacturaRegistrada(venta.getNumeroFactura())) {
+            throw new RuntimeException("Factura duplicada: " + venta.getNumeroFactura());
+        }
+        
+        // Sin fecha, la venta es de hoy (como en los lotes y la importación)
+        if (venta.getFechaVenta() == null) {
+            venta.setFechaVenta(LocalDateTime.now());
+        }
+        
+        // Convertir precio a EUR con la tasa vigente en la fecha de la venta
+        TablaTasasCambio tasas = configuracion.getTablaTasasCambio();
         BigDecimal precioEnEUR = configuracion.convertirAMonedaCorporativa(
             venta.getPrecioUnitario(),
-            venta.getMonedaLocal()
+            venta.getMonedaLocal(),
+            venta.getFechaVenta().toLocalDate(),
+            tasas
         );
         
         venta.setPrecioUnitarioEUR(precioEnEUR);
+        venta.setVersionTasasCambio(tasas.version());
         venta.setTotalVentaEUR(precioEnEUR.multiply(new BigDecimal(venta.getCantidad())));
         
+        // Modo diario: la factura y el stock quedan reservados frente a la base de datos y al
+        // resto del diario; el stock y la inserción los aplica EscritorDiarioVentas en segundo plano
+        if (diarioVentas.isHabilitado()) {
+            diarioVentas.anotar(venta, this::esFacturaRegistrada, productoService::obtenerStockActual);
+            return venta;
+        }
+        return transactionTemplate.execute(status -> guardarVenta(venta));
+    }
+    
+    private Venta guardarVenta(Venta venta) {
         // Actualizar stock
         productoService.actualizarStock(venta.getProducto().getId(), venta.getCantidad());
         
-        return ventaRepository.save(venta);
+        // El producto llega desde JSON solo con su ID; se enlaza por referencia para que
+        // Hibernate no lo trate como entidad separada sin versión
+        venta.setProducto(entityManager.getReference(Producto.class, venta.getProducto().getId()));
+        
+        Venta ventaGuardada = ventaRepository.save(venta);
+        ventaDiariaService.acumular(ventaGuardada);
+        // Solo se invalidan los reportes cuyo período contiene la fecha de la venta
+        cacheReportes.invalidarAlConfirmar(List.of(ventaGuardada.getFechaVenta().toLocalDate()));
+        filtroFacturas.agregar(ventaGuardada.getNumeroFactura());
+        return ventaGuardada;
+    }
+    
+    /**
+     * Comprueba la unicidad del número de factura. Solo consulta la base de datos
+     * cuando el filtro de Bloom indica un posible duplicado.
+     */
+    private boolean esFacturaRegistrada(String numeroFactura) {
+        return numeroFactura != null
+            && filtroFacturas.podriaExistir(numeroFactura)
+            && ventaRepository.existsByNumeroFactura(numeroFactura);
+    }
+    
+    /**
+     * Registra un lote de ventas en una sola transacción.
+     * Las filas inválidas se rechazan de forma individual sin abortar el resto del lote,
+     * el stock se descuenta una sola vez por producto y las inserciones se envían
+     * en bloques del tamaño del batch JDBC.
+     * Con el diario habilitado, las filas reservan antes factura y stock igual que una venta
+     * anotada, para no consumir lo que ya se confirmó a ventas pendientes de aplicar.
+     * 
+     * @param ventas Ventas a registrar
+     * @return Resumen del lote con el resultado de cada fila
+     */
+    public Map<String, Object> registrarLote(List<Venta> ventas) {
+        // Las filas sin fecha son de hoy, con la misma hora para todo el lote
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Venta venta : ventas) {
+            if (venta.getFechaVenta() == null) {
+                venta.setFechaVenta(ahora);
+            }
+        }
+        String[] errores = new String[ventas.size()];
+        if (!diarioVentas.isHabilitado()) {
+            return transactionTemplate.execute(status -> registrarLote(ventas, errores));
+        }
+        
+        ReservasVentas reservas = diarioVentas.getReservas();
+        boolean[] reservadas = reservas.reservarLote(
+            ventas, errores, this::esFacturaRegistrada, productoService::obtenerStockActual);
+        try {
+            return transactionTemplate.execute(status -> registrarLote(ventas, errores));
+        } finally {
+            // Tras la confirmación las filas aceptadas ya cuentan en el stock de la base de datos
+            for (int i = 0; i < ventas.size(); i++) {
+                if (reservadas[i]) {
+                    reservas.liberar(ventas.get(i));
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param errores Filas ya rechazadas (errores[i] != null), que no se procesan
+     */
+    private Map<String, Object> registrarLote(List<Venta> ventas, String[] errores) {
+        // Precargar productos y facturas ya registradas con una consulta cada uno
+        Set<Long> productoIds = new HashSet<>();
+        Set<String> numerosFactura = new HashSet<>();
+        for (Venta venta : ventas) {
+            if (venta.getProducto() != null && venta.getProducto().getId() != null) {
+                productoIds.add(venta.getProducto().getId());
+            }
+            // Solo se consultan en base de datos los posibles duplicados según el filtro de Bloom
+            if (venta.getNumeroFactura() != null && filtroFacturas.podriaExistir(venta.getNumeroFactura())) {
+                numerosFactura.add(venta.getNumeroFactura());
+            }
+        }
+        Map<Long, Producto> productos = productoService.obtenerPorIds(productoIds);
+        Set<String> facturasUsadas = numerosFactura.isEmpty()
+            ? new HashSet<>()
+            : new HashSet<>(ventaRepository.findNumerosFacturaExistentes(numerosFactura));
+        
+        // Todo el lote se convierte con la misma versión de las tasas de cambio
+        TablaTasasCambio tasas = configuracion.getTablaTasasCambio();
+        BigDecimal[] preciosEnEUR = convertirPreciosLote(ventas, tasas);
+        Map<Long, Integer> stockDisponible = new HashMap<>();
+        Map<Long, Integer> descuentosStock = new LinkedHashMap<>();
+        List<Venta> aceptadas = new ArrayList<>(ventas.size());
+        
+        for (int i = 0; i < ventas.size(); i++) {
+            Venta venta = ventas.get(i);
+            if (errores[i] != null) {
+                continue;
+            }
+            try {
+                Producto producto = validarFilaLote(venta, productos, facturasUsadas);
+                
+                int disponible = stockDisponible.getOrDefault(producto.getId(), producto.getStockActual());
+                if (disponible < venta.getCantidad()) {
+                    throw new RuntimeException("Stock insuficiente");
+                }
+                
+                // Precio a EUR con la tasa vigente en la fecha de la venta; si no se pudo
+                // convertir en lote, la conversión individual indica el motivo
+                BigDecimal precioEnEUR = preciosEnEUR[i] != null ? preciosEnEUR[i] : configuracion.convertirAMonedaCorporativa(
+                    venta.getPrecioUnitario(),
+                    venta.getMonedaLocal(),
+                    venta.getFechaVenta().toLocalDate(),
+                    tasas
+                );
+                venta.setProducto(producto);
+                venta.setPrecioUnitarioEUR(precioEnEUR);
+                venta.setVersionTasasCambio(tasas.version());
+                venta.setTotalVentaEUR(precioEnEUR.multiply(new BigDecimal(venta.getCantidad())));
+                
+                stockDisponible.put(producto.getId(), disponible - venta.getCantidad());
+                descuentosStock.merge(producto.getId(), venta.getCantidad(), Integer::sum);
+                facturasUsadas.add(venta.getNumeroFactura());
+                aceptadas.add(venta);
+            } catch (RuntimeException e) {
+                errores[i] = e.getMessage();
+            }
+        }
+        
+        // Descontar stock una sola vez por producto; si una venta concurrente consumió
+        // el stock entretanto, se rechazan las filas de ese producto en este lote
+        Set<Long> sinStock = new HashSet<>();
+        descuentosStock.forEach((productoId, cantidad) -> {
+            if (!productoService.descontarStock(productoId, cantidad)) {
+                sinStock.add(productoId);
+            }
+        });
+        if (!sinStock.isEmpty()) {
+            aceptadas.removeIf(venta -> sinStock.contains(venta.getProducto().getId()));
+            for (int i = 0; i < ventas.size(); i++) {
+                if (errores[i] == null && sinStock.contains(ventas.get(i).getProducto().getId())) {
+                    errores[i] = "Stock insuficiente";
+                }
+            }
+        }
+        
+        // El resumen diario se actualiza en la misma transacción que las inserciones
+        ventaDiariaService.acumularLote(aceptadas);
+        Set<LocalDate> diasAfectados = new HashSet<>();
+        aceptadas.forEach(venta -> diasAfectados.add(venta.getFechaVenta().toLocalDate()));
+        cacheReportes.invalidarAlConfirmar(diasAfectados);
+        
+        // Insertar por bloques y liberar el contexto de persistencia entre bloques
+        for (int desde = 0; desde < aceptadas.size(); desde += tamanoLote) {
+            ventaRepository.saveAll(aceptadas.subList(desde, Math.min(desde + tamanoLote, aceptadas.size())));
+            ventaRepository.flush();
+            entityManager.clear();
+        }
+        aceptadas.forEach(venta -> filtroFacturas.agregar(venta.getNumeroFactura()));
+        
+        List<Map<String, Object>> resultados = new ArrayList<>(ventas.size());
+        for (int i = 0; i < ventas.size(); i++) {
+            Map<String, Object> resultado = new LinkedHashMap<>();
+            resultado.put("indice", i);
+            resultado.put("numeroFactura", ventas.get(i).getNumeroFactura());
+            if (errores[i] == null) {
+                resultado.put("estado", "REGISTRADA");
+                resultado.put("id", ventas.get(i).getId());
+            } else {
+                resultado.put("estado", "RECHAZADA");
+                resultado.put("error", errores[i]);
+            }
+            resultados.add(resultado);
+        }
+        
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("total", ventas.size());
+        resumen.put("registradas", aceptadas.size());
+        resumen.put("rechazadas", ventas.size() - aceptadas.size());
+        resumen.put("resultados", resultados);
+        return resumen;
+    }
+    
+    /**
+     * Aplica en base de datos ventas ya aceptadas desde el {@link DiarioVentas}, con los
+     * importes en EUR con que se confirmaron. Las facturas que ya están registradas son
+     * ventas aplicadas antes de un reinicio y se omiten. Cualquier otro problema lanza una
+     * excepción y revierte el lote completo: una venta aceptada nunca se descarta en silencio.
+     * 
+     * @return Número de ventas insertadas
+     */
+    @Transactional
+    public int aplicarDiario(List<Venta> ventas) {
+        Set<Long> productoIds = new HashSet<>();
+        Set<String> numerosFactura = new HashSet<>();
+        for (Venta venta : ventas) {
+            productoIds.add(venta.getProducto().getId());
+            numerosFactura.add(venta.getNumeroFactura());
+        }
+        Set<String> registradas = new HashSet<>(ventaRepository.findNumerosFacturaExistentes(numerosFactura));
+        Map<Long, Producto> productos = productoService.obtenerPorIds(productoIds);
+        
+        TablaTasasCambio tasas = configuracion.getTablaTasasCambio();
+        Map<Long, Integer> descuentosStock = new LinkedHashMap<>();
+        List<Venta> nuevas = new ArrayList<>(ventas.size());
+        for (Venta venta : ventas) {
+            if (!registradas.add(venta.getNumeroFactura())) {
+                continue;
+            }
+            Producto producto = productos.get(venta.getProducto().getId());
+            if (producto == null) {
+                throw new IllegalStateException("Producto no encontrado con ID: " + venta.getProducto().getId());
+            }
+            // Registros anteriores a que el diario guardara los importes en EUR
+            if (venta.getPrecioUnitarioEUR() == null) {
+                venta.setPrecioUnitarioEUR(configuracion.convertirAMonedaCorporativa(
+                    venta.getPrecioUnitario(), venta.getMonedaLocal(), venta.getFechaVenta().toLocalDate(), tasas));
+                venta.setVersionTasasCambio(tasas.version());
+            }
+            venta.setProducto(producto);
+            descuentosStock.merge(producto.getId(), venta.getCantidad(), Integer::sum);
+            nuevas.add(venta);
+        }
+        
+        // El stock de estas ventas estaba reservado: un descuento fallido es un error, no un rechazo
+        descuentosStock.forEach((productoId, cantidad) -> {
+            if (!productoService.descontarStock(productoId, cantidad)) {
+                throw new IllegalStateException("Stock insuficiente al aplicar el diario para el producto " + productoId);
+            }
+        });
+        
+        ventaDiariaService.acumularLote(nuevas);
+        Set<LocalDate> diasAfectados = new HashSet<>();
+        nuevas.forEach(venta -> diasAfectados.add(venta.getFechaVenta().toLocalDate()));
+        cacheReportes.invalidarAlConfirmar(diasAfectados);
+        
+        for (int desde = 0; desde < nuevas.size(); desde += tamanoLote) {
+            ventaRepository.saveAll(nuevas.subList(desde, Math.min(desde + tamanoLote, nuevas.size())));
+            ventaRepository.flush();
+            entityManager.clear();
+        }
+        nuevas.forEach(venta -> filtroFacturas.agregar(venta.getNumeroFactura()));
+        return nuevas.size();
+    }
+    
+    /**
+     * Convierte a EUR los precios del lote en punto fijo con la conversión en lote de
+     * {@link ConfiguracionGlobal}, un bloque por fecha de venta. Quedan a null las filas
+     * sin precio, moneda o fecha, con moneda sin tasa vigente o con un precio fuera del
+     * rango de {@link MontoFijo} o con más de {@link MontoFijo#ESCALA} decimales: pasarlo a
+     * micros sería un primer redondeo, y la conversión individual redondea una sola vez.
+     */
+    private BigDecimal[] convertirPreciosLote(List<Venta> ventas, TablaTasasCambio tasas) {
+        BigDecimal[] preciosEnEUR = new BigDecimal[ventas.size()];
+        Map<LocalDate, List<Integer>> filasPorFecha = new HashMap<>();
+        for (int i = 0; i < ventas.size(); i++) {
+            Venta venta = ventas.get(i);
+            if (venta.getPrecioUnitario() != null && venta.getMonedaLocal() != null && venta.getFechaVenta() != null
+                    && MontoFijo.esRepresentable(venta.getPrecioUnitario())
+                    && venta.getPrecioUnitario().scale() <= MontoFijo.ESCALA) {
+                filasPorFecha.computeIfAbsent(venta.getFechaVenta().toLocalDate(), fecha -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        filasPorFecha.forEach((fecha, filas) -> {
+            TablaTasasCambio.TasasPorId vigentes = tasas.tasasPorId(fecha);
+            filas.removeIf(fila -> !vigentes.tieneTasa(tasas.idMoneda(ventas.get(fila).getMonedaLocal())));
+            long[] montos = new long[filas.size()];
+            int[] monedas = new int[filas.size()];
+            for (int j = 0; j < filas.size(); j++) {
+                Venta venta = ventas.get(filas.get(j));
+                montos[j] = MontoFijo.aMicros(venta.getPrecioUnitario());
+                monedas[j] = tasas.idMoneda(venta.getMonedaLocal());
+            }
+            long[] enEUR = new long[filas.size()];
+            configuracion.convertirLoteAMonedaCorporativa(montos, monedas, fecha, tasas, enEUR);
+            for (int j = 0; j < filas.size(); j++) {
+                preciosEnEUR[filas.get(j)] = MontoFijo.aBigDecimal(enEUR[j]);
+            }
+        });
+        return preciosEnEUR;
+    }
+    
+    private Producto validarFilaLote(Venta venta, Map<Long, Producto> productos, Set<String> facturasUsadas) {
+        if (venta.getNumeroFactura() == null || venta.getNumeroFactura().isBlank()) {
+            throw new IllegalArgumentException("El número de factura es obligatorio");
+        }
+        if (facturasUsadas.contains(venta.getNumeroFactura())) {
+            throw new IllegalArgumentException("Factura duplicada: " + venta.getNumeroFactura());
+        }
+        if (venta.getProducto() == null || venta.getProducto().getId() == null) {
+            throw new IllegalArgumentException("El ID del producto no puede ser null");
+        }
+        Producto producto = productos.get(venta.getProducto().getId());
+        if (producto == null) {
+            throw new RuntimeException("Producto no encontrado con ID: " + venta.getProducto().getId());
+        }
+        if (venta.getCantidad() == null || venta.getCantidad() <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor que cero");
+        }
+        if (venta.getPrecioUnitario() == null || venta.getMonedaLocal() == null) {
+            throw new IllegalArgumentException("El precio unitario y la moneda local son obligatorios");
+        }
+        if (venta.getPaisFilial() == null) {
+            throw new IllegalArgumentException("El país de la filial es obligatorio");
+        }
+        return producto;
     }
     
     public List<Venta> obtenerVentasPorPais(String pais) {
@@ -46,6 +405,27 @@ public class VentaService {
         return ventaRepository.findByFechaVentaBetween(inicio, fin);
     }
     
+    /**
+     * Página de ventas (más recientes primero) con paginación por clave (fechaVenta, id)
+     * 
+     * @param cursor Cursor devuelto por la página anterior, o null para la primera
+     * @param tamano Número de ventas por página (se limita al máximo configurado)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> listarPagina(String cursor, Integer tamano) {
+        int limite = tamano == null ? tamanoPaginaPorDefecto : Math.max(1, Math.min(tamano, tamanoPaginaMaximo));
+        List<Venta> filas;
+        if (cursor == null) {
+            filas = ventaRepository.findPrimeraPagina(Limit.of(limite + 1));
+        } else {
+            CursorKeyset posicion = CursorKeyset.decodificar(cursor);
+            filas = ventaRepository.findPaginaDespuesDe(
+                LocalDateTime.parse(posicion.clave()), posicion.id(), Limit.of(limite + 1));
+        }
+        return CursorKeyset.armarPagina(filas, limite,
+            venta -> new CursorKeyset(venta.getFechaVenta().toString(), venta.getId()));
+    }
+    
     public List<Venta> listarTodas() {
         return ventaRepository.findAll();
     }
@@ -58,10 +438,10 @@ public class VentaService {
         long totalVentas = todasLasVentas.size();
         long totalProductos = todosLosProductos.size();
         
-        BigDecimal ingresosTotales = todasLasVentas.stream()
-            .map(Venta::getTotalVentaEUR)
-            .filter(java.util.Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        AcumuladorMonto ingresosTotales = new AcumuladorMonto();
+        for (Venta venta : todasLasVentas) {
+            ingresosTotales.sumar(venta.getTotalVentaEUR());
+        }
         
         long productosActivos = todosLosProductos.stream()
             .mapToInt(com.financorp.serf.model.Producto::getStockActual)
@@ -71,7 +451,7 @@ public class VentaService {
         java.util.Map<String, Object> estadisticas = new java.util.HashMap<>();
         estadisticas.put("totalVentas", totalVentas);
         estadisticas.put("totalProductos", totalProductos);
-        estadisticas.put("ingresosTotales", ingresosTotales);
+        estadisticas.put("ingresosTotales", ingresosTotales.totalPresentacion());
         estadisticas.put("productosActivos", productosActivos);
         estadisticas.put("ventasDelMes", obtenerVentasDelMes());
         estadisticas.put("productosLowStock", productoService.obtenerProductosBajoStock(10).size());
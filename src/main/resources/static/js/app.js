@@ -4,6 +4,11 @@ let currentSection = 'dashboard';
 let chartsInitialized = false;
 let ventasChart = null;
 
+// Paginación por cursor de los listados de productos y ventas
+const TAMANO_PAGINA = 50;
+let cursorProductos = null;
+let cursorVentas = null;
+
 // ===== INICIALIZACIÓN =====
 document.addEventListener('DOMContentLoaded', function() {
     initializeApp();
@@ -248,11 +253,13 @@ function prepareChartData(ventas) {
 }
 
 // ===== PRODUCTOS =====
-async function loadProductos() {
+async function loadProductos(siguiente = false) {
     try {
         showLoading(true);
-        const productos = await fetchAPI('/productos');
-        displayProductos(productos);
+        const pagina = await fetchAPI(urlPagina('/productos', siguiente ? cursorProductos : null));
+        cursorProductos = pagina.siguienteCursor;
+        displayProductos(pagina.elementos, siguiente);
+        document.getElementById('productos-cargar-mas').hidden = !cursorProductos;
     } catch (error) {
         console.error('Error cargando productos:', error);
         showToast('Error cargando los productos', 'error');
@@ -261,10 +268,10 @@ async function loadProductos() {
     }
 }
 
-function displayProductos(productos) {
+function displayProductos(productos, agregar = false) {
     const tbody = document.getElementById('productos-tbody');
     
-    tbody.innerHTML = productos.map(producto => `
+    const filas = productos.map(producto => `
         <tr>
             <td><span class="font-semibold">${producto.codigo}</span></td>
             <td>${producto.nombre}</td>
@@ -285,6 +292,8 @@ function displayProductos(productos) {
             </td>
         </tr>
     `).join('');
+    
+    tbody.innerHTML = agregar ? tbody.innerHTML + filas : filas;
 }
 
 async function searchProducts() {
@@ -308,6 +317,7 @@ async function searchProducts() {
         }
         
         displayProductos(productos);
+        document.getElementById('productos-cargar-mas').hidden = true;
     } catch (error) {
         console.error('Error buscando productos:', error);
         showToast('Error en la búsqueda', 'error');
@@ -315,11 +325,13 @@ async function searchProducts() {
 }
 
 // ===== VENTAS =====
-async function loadVentas() {
+async function loadVentas(siguiente = false) {
     try {
         showLoading(true);
-        const ventas = await fetchAPI('/ventas');
-        displayVentas(ventas);
+        const pagina = await fetchAPI(urlPagina('/ventas', siguiente ? cursorVentas : null));
+        cursorVentas = pagina.siguienteCursor;
+        displayVentas(pagina.elementos, siguiente);
+        document.getElementById('ventas-cargar-mas').hidden = !cursorVentas;
     } catch (error) {
         console.error('Error cargando ventas:', error);
         showToast('Error cargando las ventas', 'error');
@@ -328,10 +340,10 @@ async function loadVentas() {
     }
 }
 
-function displayVentas(ventas) {
+function displayVentas(ventas, agregar = false) {
     const tbody = document.getElementById('ventas-tbody');
     
-    tbody.innerHTML = ventas.map(venta => `
+    const filas = ventas.map(venta => `
         <tr>
             <td><span class="font-semibold">${venta.numeroFactura}</span></td>
             <td>${formatDate(venta.fechaVenta)}</td>
@@ -342,6 +354,8 @@ function displayVentas(ventas) {
             <td><span class="badge info">${venta.paisFilial}</span></td>
         </tr>
     `).join('');
+    
+    tbody.innerHTML = agregar ? tbody.innerHTML + filas : filas;
 }
 
 async function searchSales() {
@@ -358,6 +372,7 @@ async function searchSales() {
         }
         
         displayVentas(ventas);
+        document.getElementById('ventas-cargar-mas').hidden = true;
     } catch (error) {
         console.error('Error buscando ventas:', error);
         showToast('Error en la búsqueda', 'error');
@@ -378,6 +393,7 @@ async function filtrarVentas() {
         const url = `/ventas/fecha?inicio=${fechaInicio}&fin=${fechaFin}`;
         const ventas = await fetchAPI(url);
         displayVentas(ventas);
+        document.getElementById('ventas-cargar-mas').hidden = true;
         showToast(`Se encontraron ${ventas.length} ventas en el período seleccionado`, 'success');
     } catch (error) {
         console.error('Error filtrando ventas:', error);
@@ -498,17 +514,8 @@ function displayReporte(reporte, title, tipo) {
             ? `${formatDate(reporte.fechaInicio)} - ${formatDate(reporte.fechaFin)}`
             : 'Último mes';
             
-        let productosVendidos = [];
-        if (reporte.ventasPorProducto) {
-            // Convertir el mapa a un array ordenado por cantidad vendida
-            productosVendidos = Object.entries(reporte.ventasPorProducto)
-                .map(([producto, cantidad]) => ({
-                    producto: JSON.parse(producto), // Si viene como string JSON
-                    cantidad: cantidad
-                }))
-                .sort((a, b) => b.cantidad - a.cantidad)
-                .slice(0, 10);
-        }
+        // Ranking ya ordenado y limitado por el servidor
+        const productosVendidos = reporte.topProductos || [];
         
         contenidoEspecifico = `
             <div class="report-section">
@@ -527,7 +534,7 @@ function displayReporte(reporte, title, tipo) {
             
             ${productosVendidos.length > 0 ? `
                 <div class="report-section">
-                    <h4>Top 10 Productos Más Vendidos</h4>
+                    <h4>Top ${productosVendidos.length} Productos Más Vendidos</h4>
                     <div class="table-container">
                         <table class="report-table">
                             <thead>
@@ -548,10 +555,10 @@ function displayReporte(reporte, title, tipo) {
                                                 ${index === 0 ? '🥇' : index === 1 ? '🥈' : index === 2 ? '🥉' : ''}
                                             </strong>
                                         </td>
-                                        <td>${item.producto?.codigo || 'N/A'}</td>
-                                        <td>${item.producto?.nombre || 'Producto no disponible'}</td>
-                                        <td class="text-success"><strong>${item.cantidad}</strong></td>
-                                        <td>€${((reporte.ingresosPorProducto && reporte.ingresosPorProducto[JSON.stringify(item.producto)]) || 0).toFixed(2)}</td>
+                                        <td>${item.codigo || 'N/A'}</td>
+                                        <td>${item.nombre || 'Producto no disponible'}</td>
+                                        <td class="text-success"><strong>${item.unidadesVendidas}</strong></td>
+                                        <td>€${(item.ingresosEUR || 0).toFixed(2)}</td>
                                     </tr>
                                 `).join('')}
                             </tbody>
@@ -842,6 +849,12 @@ function onProductSelectionChange() {
 }
 
 // ===== API HELPERS =====
+// Construye la URL de una página; sin cursor devuelve la primera
+function urlPagina(endpoint, cursor) {
+    const url = `${endpoint}?tamano=${TAMANO_PAGINA}`;
+    return cursor ? `${url}&cursor=${encodeURIComponent(cursor)}` : url;
+}
+
 async function fetchAPI(endpoint, method = 'GET', data = null) {
     const url = API_BASE_URL + endpoint;
     
@@ -924,45 +937,29 @@ function debounce(func, wait) {
     };
 }
 
-async function exportarReporteCSV(title, tipo) {
-    try {
-        showLoading(true);
-        let data = [];
-        let filename = 'reporte_serf';
-        
-        // Obtener datos según el tipo de reporte
-        switch(tipo) {
-            case 'stock':
-                data = await fetchAPI('/productos');
-                filename = 'inventario_serf';
-                break;
-            case 'top-productos':
-                data = await fetchAPI('/productos');
-                filename = 'top_productos_serf';
-                break;
-            default:
-                // Para reportes de ventas
-                data = await fetchAPI('/ventas');
-                filename = 'ventas_serf';
-                break;
-        }
-        
-        if (data.length === 0) {
-            showToast('No hay datos para exportar', 'warning');
-            return;
-        }
-        
-        // Convertir a CSV
-        const csv = convertToCSV(data);
-        downloadCSV(csv, `${filename}_${new Date().toISOString().split('T')[0]}.csv`);
-        showToast('Reporte exportado exitosamente', 'success');
-        
-    } catch (error) {
-        console.error('Error exportando reporte:', error);
-        showToast('Error al exportar reporte', 'error');
-    } finally {
-        showLoading(false);
+function exportarReporteCSV(title, tipo) {
+    // El servidor genera el CSV en streaming; el navegador lo descarga directamente al disco
+    let exportacion;
+    switch(tipo) {
+        case 'stock':
+            exportacion = 'stock';
+            break;
+        case 'top-productos':
+            exportacion = 'top';
+            break;
+        default:
+            // Para reportes de ventas
+            exportacion = 'ventas';
+            break;
     }
+    
+    const link = document.createElement('a');
+    link.href = `${API_BASE_URL}/reportes/export.csv?tipo=${exportacion}`;
+    link.style.visibility = 'hidden';
+    document.body.appendChild(link);
+    link.click();
+    document.body.removeChild(link);
+    showToast('Exportación iniciada', 'success');
 }
 
 async function generarReportePDF(title, tipo) {
@@ -1337,45 +1334,6 @@ async function deleteProduct(id) {
 }
 
 // ===== FUNCIONES AUXILIARES PARA EXPORTACIÓN =====
-function convertToCSV(data) {
-    if (!data || data.length === 0) return '';
-    
-    const headers = Object.keys(data[0]);
-    const csvContent = [
-        headers.join(','),
-        ...data.map(row => 
-            headers.map(header => {
-                const value = row[header];
-                // Escapar comillas y envolver en comillas si contiene comas
-                const stringValue = String(value || '');
-                return stringValue.includes(',') ? `"${stringValue.replace(/"/g, '""')}"` : stringValue;
-            }).join(',')
-        )
-    ].join('\n');
-    
-    return csvContent;
-}
-
-function downloadCSV(csvContent, filename) {
-    const blob = new Blob([csvContent], { type: 'text/csv;charset=utf-8;' });
-    const link = document.createElement('a');
-    
-    if (navigator.msSaveBlob) {
-        // IE 10+
-        navigator.msSaveBlob(blob, filename);
-    } else {
-        // Otros navegadores
-        const url = URL.createObjectURL(blob);
-        link.href = url;
-        link.download = filename;
-        link.style.visibility = 'hidden';
-        document.body.appendChild(link);
-        link.click();
-        document.body.removeChild(link);
-        URL.revokeObjectURL(url);
-    }
-}
-
 // ===== FUNCIONES ADICIONALES PARA ESTADÍSTICAS =====
 async function updateStats() {
     try {
@@ -0,0 +1,65 @@
+package com.financorp.serf.composite;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SeccionReporteTest {
+
+    @Test
+    public void testSalidaIdenticaAlRenderizadoRecursivoAnterior() throws Exception {
+        // Datos de prueba: tres niveles, una sección vacía, un item tras una subsección y texto no ASCII
+        SeccionReporte raiz = new SeccionReporte("Raiz");
+        raiz.agregar(new ItemReporte("a", "1"));
+        SeccionReporte sub = new SeccionReporte("Sub");
+        sub.agregar(new ItemReporte("b", "2"));
+        SeccionReporte sub2 = new SeccionReporte("Sub2");
+        sub2.agregar(new ItemReporte("c", "3"));
+        sub.agregar(sub2);
+        sub.agregar(new SeccionReporte("vacia"));
+        raiz.agregar(sub);
+        raiz.agregar(new ItemReporte("País", "Perú €"));
+
+        // Ejecutar prueba
+        String texto = raiz.renderizar();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        raiz.renderizar(bytes);
+
+        // Verificar resultado
+        String anterior = renderizarAnterior(raiz);
+        assertEquals("=== RAIZ ===\na: 1\n"
+            + "=== SUB ===\nb: 2\n"
+            + "=== SUB2 ===\nc: 3\n" + "\n"
+            + "=== VACIA ===\n" + "\n"
+            + "\nPaís: Perú €\n", anterior);
+        assertEquals(anterior, texto);
+        assertArrayEquals(anterior.getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    }
+
+    @Test
+    public void testItemSueltoSinSaltoDeLinea() {
+        ItemReporte item = new ItemReporte("x", "y");
+
+        assertEquals(renderizarAnterior(item), item.renderizar());
+    }
+
+    /**
+     * Renderizado recursivo previo al visitante: cada sección concatena los Strings de sus hijos
+     */
+    private static String renderizarAnterior(ComponenteReporte componente) {
+        if (componente instanceof ItemReporte item) {
+            return item.getNombre() + ": " + item.getContenido();
+        }
+        SeccionReporte seccion = (SeccionReporte) componente;
+        StringBuilder resultado = new StringBuilder();
+        resultado.append("=== ").append(seccion.getNombre().toUpperCase()).append(" ===\n");
+        for (ComponenteReporte hijo : seccion.getComponentes()) {
+            resultado.append(renderizarAnterior(hijo)).append("\n");
+        }
+        return resultado.toString();
+    }
+}
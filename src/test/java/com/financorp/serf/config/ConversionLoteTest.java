@@ -0,0 +1,112 @@
+package com.financorp.serf.config;
+
+import com.financorp.serf.config.TablaTasasCambio.TasasPorId;
+import com.financorp.serf.monto.MontoFijo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ConversionLoteTest {
+
+    private final TablaTasasCambio tabla = TablaTasasCambio.de(1, Map.of(
+        "PEN", historial("0.24"),
+        "USD", historial("0.92"),
+        "MXN", historial("0.050"),
+        "COP", historial("0.00021"),
+        "EUR", historial("1")));
+
+    private static SortedMap<LocalDate, BigDecimal> historial(String tasa) {
+        return new TreeMap<>(Map.of(LocalDate.EPOCH, new BigDecimal(tasa)));
+    }
+
+    @Test
+    public void testCoincideConBigDecimalYHalfEven() {
+        TasasPorId tasas = tabla.tasasPorId(LocalDate.of(2025, 6, 1));
+        int monedasDistintas = tabla.monedas().size();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        int n = 10_003;
+        long[] montos = new long[n];
+        int[] monedas = new int[n];
+        for (int i = 0; i < n; i++) {
+            // Importes habituales, empates de medio micro (p. ej. 10 × 0.050) y fuera del rango del double
+            montos[i] = switch (i % 3) {
+                case 0 -> aleatorio.nextLong(-1_000_000_000L, 100_000_000_000L);
+                case 1 -> aleatorio.nextLong(-20, 20) * 10;
+                default -> aleatorio.nextLong(1L << 43, 1L << 55);
+            };
+            monedas[i] = aleatorio.nextInt(monedasDistintas);
+        }
+
+        long[] esperado = new long[n];
+        for (int i = 0; i < n; i++) {
+            esperado[i] = MontoFijo.aMicros(MontoFijo.aBigDecimal(montos[i]).multiply(tasas.exactas()[monedas[i]]));
+        }
+        long[] escalar = new long[n];
+        ConversionLote.convertirEscalar(montos, monedas, tasas, escalar);
+        long[] lote = new long[n];
+        ConversionLote.convertir(montos, monedas, tasas, lote);
+
+        assertArrayEquals(esperado, escalar);
+        assertArrayEquals(esperado, lote);
+    }
+
+    @Test
+    public void testConversionIndividualYEnLoteRedondeanIgual() {
+        // Datos de prueba: precios con hasta 6 decimales, incluidos empates de medio micro
+        ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
+        LocalDate fecha = LocalDate.of(2025, 6, 1);
+        String[] codigos = {"PEN", "USD", "MXN", "COP", "EUR"};
+        SplittableRandom aleatorio = new SplittableRandom(24);
+        int n = 5_000;
+        long[] montos = new long[n];
+        String[] monedasVenta = new String[n];
+        int[] monedas = new int[n];
+        for (int i = 0; i < n; i++) {
+            montos[i] = i % 2 == 0 ? aleatorio.nextLong(-20, 20) * 10 : aleatorio.nextLong(-1_000_000_000L, 100_000_000_000L);
+            monedasVenta[i] = codigos[aleatorio.nextInt(codigos.length)];
+            monedas[i] = tabla.idMoneda(monedasVenta[i]);
+        }
+
+        // Ejecutar prueba
+        long[] lote = new long[n];
+        configuracion.convertirLoteAMonedaCorporativa(montos, monedas, fecha, tabla, lote);
+
+        // Verificar resultado: la venta individual obtiene el mismo importe que en el lote
+        for (int i = 0; i < n; i++) {
+            BigDecimal individual = configuracion.convertirAMonedaCorporativa(
+                MontoFijo.aBigDecimal(montos[i]), monedasVenta[i], fecha, tabla);
+            assertEquals(MontoFijo.aBigDecimal(lote[i]), individual, montos[i] + " " + monedasVenta[i]);
+        }
+    }
+
+    @Test
+    public void testEmpateRedondeaAlPar() {
+        TasasPorId tasas = tabla.tasasPorId(LocalDate.of(2025, 6, 1));
+        int mxn = tabla.idMoneda("MXN");
+        long[] destino = new long[2];
+
+        // 10 y 30 micros × 0.050 = 0.5 y 1.5 micros
+        ConversionLote.convertirEscalar(new long[] {10, 30}, new int[] {mxn, mxn}, tasas, destino);
+
+        assertEquals(0, destino[0]);
+        assertEquals(2, destino[1]);
+    }
+
+    @Test
+    public void testConElModuloSeUsaElNucleoVectorial() {
+        // Solo en la ejecución pruebas-vectoriales de surefire, que arranca con el módulo incubado
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+
+        assertTrue(ConversionLote.esVectorial());
+    }
+}
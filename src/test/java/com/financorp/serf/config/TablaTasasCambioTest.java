@@ -0,0 +1,76 @@
+package com.financorp.serf.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TablaTasasCambioTest {
+
+    private static final LocalDate ENERO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate MARZO = LocalDate.of(2024, 3, 15);
+    private static final LocalDate JUNIO = LocalDate.of(2024, 6, 30);
+
+    // PEN cambia de tasa en enero, marzo y junio; USD solo tiene vigencia desde marzo
+    private final TablaTasasCambio tabla = TablaTasasCambio.de(7, Map.of(
+        "PEN", new TreeMap<>(Map.of(
+            ENERO, new BigDecimal("0.24"),
+            MARZO, new BigDecimal("0.25"),
+            JUNIO, new BigDecimal("0.26"))),
+        "USD", new TreeMap<>(Map.of(MARZO, new BigDecimal("0.92")))));
+
+    @Test
+    public void testTasaEnLaFechaExactaDeCadaVigencia() {
+        assertEquals(new BigDecimal("0.24"), tabla.tasa("PEN", ENERO));
+        assertEquals(new BigDecimal("0.25"), tabla.tasa("PEN", MARZO));
+        assertEquals(new BigDecimal("0.26"), tabla.tasa("PEN", JUNIO));
+    }
+
+    @Test
+    public void testEntreVigenciasUsaLaAnterior() {
+        assertEquals(new BigDecimal("0.24"), tabla.tasa("PEN", MARZO.minusDays(1)));
+        assertEquals(new BigDecimal("0.25"), tabla.tasa("PEN", MARZO.plusDays(1)));
+        assertEquals(new BigDecimal("0.25"), tabla.tasa("PEN", JUNIO.minusDays(1)));
+        // Después de la última vigencia sigue en vigor la última
+        assertEquals(new BigDecimal("0.26"), tabla.tasa("PEN", LocalDate.of(2099, 12, 31)));
+    }
+
+    @Test
+    public void testAntesDeLaPrimeraVigenciaNoHayTasa() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> tabla.tasa("PEN", ENERO.minusDays(1)));
+        assertEquals("Sin tasa de cambio vigente para PEN el 2023-12-31", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> tabla.tasa("XYZ", JUNIO));
+
+        // En febrero PEN tiene tasa y USD todavía no
+        Map<String, BigDecimal> febrero = tabla.tasas(LocalDate.of(2024, 2, 10));
+        assertEquals(Map.of("PEN", new BigDecimal("0.24")), febrero);
+        TablaTasasCambio.TasasPorId porId = tabla.tasasPorId(LocalDate.of(2024, 2, 10));
+        assertTrue(porId.tieneTasa(tabla.idMoneda("PEN")));
+        assertFalse(porId.tieneTasa(tabla.idMoneda("USD")));
+        assertNull(porId.exactas()[tabla.idMoneda("USD")]);
+        assertTrue(Double.isNaN(porId.aproximadas()[tabla.idMoneda("USD")]));
+    }
+
+    @Test
+    public void testConAnadeOReemplazaLaVigenciaDelDia() {
+        TablaTasasCambio siguiente = tabla.con(MARZO, Map.of("PEN", new BigDecimal("0.30"), "MXN", new BigDecimal("0.05")));
+
+        assertEquals(8, siguiente.version());
+        assertEquals(3, siguiente.historial("PEN").size());
+        assertEquals(new BigDecimal("0.30"), siguiente.tasa("PEN", MARZO.plusDays(1)));
+        assertEquals(new BigDecimal("0.05"), siguiente.tasa("MXN", JUNIO));
+        // La tabla anterior no cambia
+        assertEquals(new BigDecimal("0.25"), tabla.tasa("PEN", MARZO.plusDays(1)));
+        assertEquals(100, tabla.con(100, JUNIO, Map.of("PEN", BigDecimal.ONE)).version());
+        assertThrows(IllegalArgumentException.class, () -> tabla.con(JUNIO, Map.of("PEN", BigDecimal.ZERO)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.financorp.serf.controller;
+
+import com.financorp.serf.facade.ColaTrabajosReporte;
+import com.financorp.serf.facade.ReporteFacade;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReporteControllerTest {
+
+    @Mock
+    private ReporteFacade reporteFacade;
+
+    @Mock
+    private ColaTrabajosReporte colaTrabajosReporte;
+
+    @InjectMocks
+    private ReporteController reporteController;
+
+    @Test
+    public void testAceptaGzipSegunLosValoresQ() {
+        assertTrue(ReporteController.aceptaGzip("gzip"));
+        assertTrue(ReporteController.aceptaGzip("deflate, GZip;q=0.5"));
+        assertTrue(ReporteController.aceptaGzip("br;q=1.0, x-gzip"));
+        assertTrue(ReporteController.aceptaGzip("*"));
+        assertTrue(ReporteController.aceptaGzip("gzip ; Q = 0.001"));
+
+        // q=0 significa "no aceptable", también cuando el comodín lo permitiría
+        assertFalse(ReporteController.aceptaGzip(null));
+        assertFalse(ReporteController.aceptaGzip("identity"));
+        assertFalse(ReporteController.aceptaGzip("gzip;q=0"));
+        assertFalse(ReporteController.aceptaGzip("gzip;q=0.000, *;q=1"));
+        assertFalse(ReporteController.aceptaGzip("*;q=0"));
+        assertFalse(ReporteController.aceptaGzip("gzip;q=abc"));
+        assertFalse(ReporteController.aceptaGzip("gzip;q=2"));
+        assertFalse(ReporteController.aceptaGzip("gzipx, notgzip"));
+    }
+
+    @Test
+    public void testExportarCsvComprimeSoloSiSeAcepta() throws Exception {
+        // Datos de prueba
+        when(reporteFacade.resolverColumnasCsv(eq("stock"), any())).thenReturn(List.of("codigo"));
+        doAnswer(invocacion -> {
+            invocacion.<OutputStream>getArgument(5).write("codigo\r\nP-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reporteFacade).exportarCsv(eq("stock"), any(), any(), any(), anyInt(), any());
+
+        // Ejecutar prueba
+        ResponseEntity<StreamingResponseBody> rechazado = reporteController.exportarCsv("stock", null, null, null, 10, "gzip;q=0, identity");
+        ResponseEntity<StreamingResponseBody> comprimido = reporteController.exportarCsv("stock", null, null, null, 10, "br, gzip;q=0.8");
+
+        // Verificar resultado
+        assertNull(rechazado.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("codigo\r\nP-1\r\n", new String(escribir(rechazado), StandardCharsets.UTF_8));
+        assertEquals("gzip", comprimido.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(escribir(comprimido)))) {
+            assertEquals("codigo\r\nP-1\r\n", new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] escribir(ResponseEntity<StreamingResponseBody> respuesta) throws Exception {
+        assertNotNull(respuesta.getBody());
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        respuesta.getBody().writeTo(salida);
+        return salida.toByteArray();
+    }
+}
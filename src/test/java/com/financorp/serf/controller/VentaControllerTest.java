@@ -0,0 +1,92 @@
+package com.financorp.serf.controller;
+
+import com.financorp.serf.service.EscritorJsonVentas;
+import com.financorp.serf.service.ImportacionVentasService;
+import com.financorp.serf.service.VentaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class VentaControllerTest {
+
+    @Mock
+    private VentaService ventaService;
+
+    @Mock
+    private ImportacionVentasService importacionVentasService;
+
+    @Mock
+    private EscritorJsonVentas escritorJsonVentas;
+
+    @InjectMocks
+    private VentaController ventaController;
+
+    @Test
+    public void testImportacionFallidaDevuelveIdYCheckpoint() throws Exception {
+        // Datos de prueba: la importación falla tras confirmar 1000 líneas
+        ArgumentCaptor<String> id = ArgumentCaptor.forClass(String.class);
+        when(importacionVentasService.importar(id.capture(), any(InputStream.class), eq(false), anyLong()))
+            .thenThrow(new IOException("Conexión interrumpida"));
+        when(importacionVentasService.obtenerProgreso(any()))
+            .thenAnswer(invocacion -> Map.<String, Object>of(
+                "id", invocacion.<String>getArgument(0), "ultimaLineaConfirmada", 1000L));
+
+        // Ejecutar prueba: sin id, lo genera el servidor
+        ResponseEntity<Map<String, Object>> respuesta = ventaController.importar(
+            new ByteArrayInputStream(new byte[0]), "application/x-ndjson", 0, null);
+
+        // Verificar resultado
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        assertNotNull(respuesta.getBody());
+        assertEquals(id.getValue(), respuesta.getBody().get("id"));
+        assertEquals(1000L, respuesta.getBody().get("ultimaLineaConfirmada"));
+    }
+
+    @Test
+    public void testCursorSinTamanoPideLaPaginaSiguienteConElTamanoPorDefecto() throws Exception {
+        // Datos de prueba
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(ventaController).build();
+        when(ventaService.listarPagina("c1", null))
+            .thenReturn(Map.of("elementos", List.of(), "siguienteCursor", "c2"));
+        when(ventaService.listarPagina(null, null))
+            .thenReturn(Map.of("elementos", List.of()));
+
+        // Ejecutar prueba y verificar resultado: no se devuelve el listado completo
+        mockMvc.perform(get("/api/ventas").param("cursor", "c1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.siguienteCursor").value("c2"));
+        // Un tamaño vacío también usa el tamaño por defecto
+        mockMvc.perform(get("/api/ventas").param("tamano", ""))
+            .andExpect(status().isOk());
+
+        verify(ventaService).listarPagina("c1", null);
+        verify(ventaService).listarPagina(null, null);
+        verify(escritorJsonVentas, never()).escribirTodas(any());
+    }
+}
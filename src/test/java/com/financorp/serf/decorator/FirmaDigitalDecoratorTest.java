@@ -0,0 +1,101 @@
+package com.financorp.serf.decorator;
+
+import com.financorp.serf.model.reporte.ReporteMensual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FirmaDigitalDecoratorTest {
+
+    private ReporteMensual reporte;
+    private final AtomicInteger escrituras = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        reporte = new ReporteMensual(LocalDate.of(2024, 5, 1));
+        reporte.setEmpresa("FinanCorp S.A.");
+        reporte.setFirmaAutorizada("Gerencia General");
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("Total ventas", 12);
+        datos.put("País", "Perú");
+        // Pares surrogate que cruzan el búfer de 1 KB del digest
+        datos.put("Notas", "€😀".repeat(700));
+        reporte.setDatos(datos);
+    }
+
+    @Test
+    public void testHashDeLosMetadatosCorrespondeAlDocumentoEscrito() throws Exception {
+        // Datos de prueba: marca de agua bajo la firma, metadatos pedidos antes de escribir
+        ReporteComponent interno = new MarcaAguaDecorator(contador(new ReporteBasico(reporte)));
+        FirmaDigitalDecorator firma = new FirmaDigitalDecorator(interno, "Auditoría");
+        String hashPrevio = (String) firma.obtenerMetadatos().get("hashDocumento");
+
+        // Ejecutar prueba
+        String documento = firma.generarContenido();
+
+        // Verificar resultado: la firma cubre exactamente el contenido interno escrito
+        String contenidoFirmado = interno.generarContenido();
+        assertTrue(documento.startsWith(contenidoFirmado));
+        assertEquals(sha256(contenidoFirmado), hashPrevio);
+        assertTrue(documento.contains("Hash del Documento: " + hashPrevio.substring(0, 16) + "..."));
+        assertEquals(hashPrevio, firma.obtenerMetadatos().get("hashDocumento"));
+        assertTrue(firma.verificarIntegridad(contenidoFirmado));
+        assertFalse(firma.verificarIntegridad(contenidoFirmado + " "));
+    }
+
+    @Test
+    public void testEscriturasRepetidasSonIdenticasYNoRegeneranParaLosMetadatos() {
+        FirmaDigitalDecorator firma = new FirmaDigitalDecorator(
+            new MarcaAguaDecorator(contador(new ReporteBasico(reporte)), null, "AMBOS"));
+
+        // Ejecutar prueba
+        String primera = firma.generarContenido();
+        String segunda = firma.generarContenido();
+        Object hash = firma.obtenerMetadatos().get("hashDocumento");
+
+        // Verificar resultado: una escritura del reporte base por documento y ninguna para los metadatos
+        assertEquals(primera, segunda);
+        assertEquals(2, escrituras.get());
+        assertEquals(hash, firma.obtenerMetadatos().get("hashDocumento"));
+    }
+
+    @Test
+    public void testNoFirmaUnReporteModificadoDespuesDeFirmarse() {
+        FirmaDigitalDecorator firma = new FirmaDigitalDecorator(new ReporteBasico(reporte));
+        firma.generarContenido();
+
+        // Ejecutar prueba
+        reporte.getDatos().put("Total ventas", 13);
+
+        // Verificar resultado
+        assertThrows(IllegalStateException.class, firma::generarContenido);
+    }
+
+    private ReporteComponent contador(ReporteComponent componente) {
+        return new ReporteDecorator(componente) {
+            @Override
+            public void renderTo(Appendable destino) throws IOException {
+                escrituras.incrementAndGet();
+                super.renderTo(destino);
+            }
+        };
+    }
+
+    private static String sha256(String contenido) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+            .digest(contenido.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,128 @@
+package com.financorp.serf.facade;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.service.CacheReportes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ColaTrabajosReporteTest {
+
+    private static final SolicitudTrabajoReporte ENERO =
+        new SolicitudTrabajoReporte("mensual", LocalDate.of(2024, 1, 10), null, null, null);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CacheReportes cacheReportes = new CacheReportes(10);
+    private final List<ColaTrabajosReporte> colas = new ArrayList<>();
+
+    @Mock
+    private ReporteFacade reporteFacade;
+
+    @TempDir
+    private Path directorio;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(reporteFacade.generarReporteMensual(any())).thenAnswer(invocacion -> new HashMap<>());
+        lenient().when(reporteFacade.generarReporteStock()).thenAnswer(invocacion -> new HashMap<>());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        colas.forEach(ColaTrabajosReporte::detener);
+    }
+
+    @Test
+    public void testReutilizaElTrabajoCompletadoMientrasNoHayVentasDelPeriodo() throws Exception {
+        ColaTrabajosReporte cola = nuevaCola();
+        TrabajoReporte primero = esperarCompletado(cola, cola.enviar(ENERO));
+
+        // Ejecutar prueba: una venta de otro mes no afecta al reporte de enero
+        cacheReportes.invalidar(List.of(LocalDate.of(2024, 2, 1)));
+        TrabajoReporte repetido = cola.enviar(ENERO);
+
+        // Verificar resultado
+        assertEquals(primero.id(), repetido.id());
+        verify(reporteFacade, times(1)).generarReporteMensual(LocalDate.of(2024, 1, 10));
+    }
+
+    @Test
+    public void testVentaDelPeriodoGeneraUnTrabajoNuevo() throws Exception {
+        ColaTrabajosReporte cola = nuevaCola();
+        TrabajoReporte primero = esperarCompletado(cola, cola.enviar(ENERO));
+
+        // Ejecutar prueba: se confirma una venta de enero
+        cacheReportes.invalidar(List.of(LocalDate.of(2024, 1, 31)));
+        TrabajoReporte segundo = esperarCompletado(cola, cola.enviar(ENERO));
+
+        // Verificar resultado: el resultado anterior sigue disponible por su ID
+        assertNotEquals(primero.id(), segundo.id());
+        assertTrue(cola.obtenerResultado(primero.id()).isPresent());
+        assertEquals(segundo.id(), cola.enviar(ENERO).id());
+        verify(reporteFacade, times(2)).generarReporteMensual(LocalDate.of(2024, 1, 10));
+    }
+
+    @Test
+    public void testStockCompletadoNoSeReutiliza() throws Exception {
+        ColaTrabajosReporte cola = nuevaCola();
+        SolicitudTrabajoReporte stock = new SolicitudTrabajoReporte("STOCK", null, null, null, null);
+        TrabajoReporte primero = esperarCompletado(cola, cola.enviar(stock));
+
+        TrabajoReporte segundo = esperarCompletado(cola, cola.enviar(stock));
+
+        assertNotEquals(primero.id(), segundo.id());
+    }
+
+    @Test
+    public void testTrasReiniciarNoReutilizaTrabajosDeLaEjecucionAnterior() throws Exception {
+        ColaTrabajosReporte cola = nuevaCola();
+        TrabajoReporte anterior = esperarCompletado(cola, cola.enviar(ENERO));
+        cola.detener();
+
+        // Ejecutar prueba
+        ColaTrabajosReporte reiniciada = nuevaCola();
+        TrabajoReporte nuevo = esperarCompletado(reiniciada, reiniciada.enviar(ENERO));
+
+        // Verificar resultado
+        assertEquals(TrabajoReporte.Estado.COMPLETADO, reiniciada.obtener(anterior.id()).orElseThrow().estado());
+        assertNotEquals(anterior.id(), nuevo.id());
+    }
+
+    private ColaTrabajosReporte nuevaCola() throws Exception {
+        ColaTrabajosReporte cola = new ColaTrabajosReporte(reporteFacade, cacheReportes, objectMapper,
+            directorio.toString(), 1, 10, 60);
+        cola.cargar();
+        colas.add(cola);
+        return cola;
+    }
+
+    private static TrabajoReporte esperarCompletado(ColaTrabajosReporte cola, TrabajoReporte trabajo) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            TrabajoReporte actual = cola.obtener(trabajo.id()).orElseThrow();
+            if (actual.estado() == TrabajoReporte.Estado.COMPLETADO) {
+                return actual;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("El trabajo " + trabajo.id() + " no terminó");
+    }
+}
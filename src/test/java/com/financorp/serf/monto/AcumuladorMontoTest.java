@@ -0,0 +1,144 @@
+package com.financorp.serf.monto;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AcumuladorMontoTest {
+
+    @Test
+    public void testSumaCuentaMinimoMaximo() {
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+        acumulador.sumar(new BigDecimal("0.02100"));
+        acumulador.sumar(new BigDecimal("240.00"));
+        acumulador.sumar(null);
+        acumulador.sumar(new BigDecimal("-5.5"));
+
+        assertEquals(3, acumulador.cuenta());
+        assertEquals(new BigDecimal("234.521000"), acumulador.total());
+        assertEquals(new BigDecimal("234.52"), acumulador.totalPresentacion());
+        assertEquals(new BigDecimal("-5.500000"), acumulador.minimo());
+        assertEquals(new BigDecimal("240.000000"), acumulador.maximo());
+        assertFalse(acumulador.desbordado());
+    }
+
+    @Test
+    public void testAcumuladorVacio() {
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+
+        assertEquals(0, acumulador.cuenta());
+        assertEquals(0, BigDecimal.ZERO.compareTo(acumulador.total()));
+        assertNull(acumulador.minimo());
+        assertNull(acumulador.maximo());
+    }
+
+    @Test
+    public void testRedondeoHalfEven() {
+        assertEquals(2L, MontoFijo.aMicros(new BigDecimal("0.0000025")));
+        assertEquals(4L, MontoFijo.aMicros(new BigDecimal("0.0000035")));
+    }
+
+    @Test
+    public void testConversionRapidaCoincideConSetScale() {
+        // Datos de prueba: importes aleatorios de hasta 15 dígitos con escala 0..18, y empates exactos
+        Random aleatorio = new Random(23);
+        for (int i = 0; i < 200_000; i++) {
+            int escala = aleatorio.nextInt(19);
+            int digitos = 1 + aleatorio.nextInt(15);
+            long sinEscala = aleatorio.nextLong() % potencia(digitos);
+            if (escala > MontoFijo.ESCALA && i % 4 == 0) {
+                // Resto exactamente a mitad del divisor: decide HALF_EVEN
+                long divisor = potencia(escala - MontoFijo.ESCALA);
+                sinEscala = (sinEscala / divisor) * divisor + Long.signum(sinEscala) * divisor / 2;
+            }
+            BigDecimal monto = BigDecimal.valueOf(sinEscala, escala);
+            if (!MontoFijo.esRepresentable(monto)) {
+                continue;
+            }
+
+            // Ejecutar prueba y verificar resultado
+            long esperado = monto.setScale(MontoFijo.ESCALA, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            assertEquals(esperado, MontoFijo.aMicros(monto), monto.toPlainString());
+        }
+        assertEquals(-2L, MontoFijo.aMicros(new BigDecimal("-0.0000025")));
+        assertEquals(999_999_999_999_999_000L, MontoFijo.aMicros(new BigDecimal("999999999999.999")));
+        assertEquals(123_000_000L, MontoFijo.aMicros(new BigDecimal("1.23E+2")));
+    }
+
+    @Test
+    public void testSumarImportesDeLaBaseNoReservaMemoria() {
+        // Datos de prueba: importes con 2 decimales, creados antes de medir
+        BigDecimal[] montos = new BigDecimal[1000];
+        for (int i = 0; i < montos.length; i++) {
+            montos[i] = BigDecimal.valueOf(i * 137L + 5, 2);
+        }
+        AcumuladorMonto calentamiento = new AcumuladorMonto();
+        for (BigDecimal monto : montos) {
+            calentamiento.sumar(monto);
+        }
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().getId();
+
+        // Ejecutar prueba: 100 000 sumas
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        for (int vuelta = 0; vuelta < 100; vuelta++) {
+            for (BigDecimal monto : montos) {
+                acumulador.sumar(monto);
+            }
+        }
+        long reservado = hilos.getThreadAllocatedBytes(hilo) - antes;
+
+        // Verificar resultado: con setScale serían ~6 MB; se tolera lo que reserve la propia medición
+        assertTrue(reservado < 10_000, "Bytes reservados: " + reservado);
+        assertEquals(100_000, acumulador.cuenta());
+    }
+
+    @Test
+    public void testDesbordamientoContinuaEnBigDecimal() {
+        AcumuladorMonto acumulador = new AcumuladorMonto();
+        acumulador.sumarMicros(Long.MAX_VALUE);
+        acumulador.sumarMicros(Long.MAX_VALUE);
+        acumulador.sumar(new BigDecimal("1E+20"));
+
+        BigDecimal esperado = MontoFijo.aBigDecimal(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2))
+            .add(new BigDecimal("1E+20"));
+        assertTrue(acumulador.desbordado());
+        assertEquals(3, acumulador.cuenta());
+        assertEquals(0, esperado.compareTo(acumulador.total()));
+        assertEquals(0, new BigDecimal("1E+20").compareTo(acumulador.maximo()));
+        assertThrows(ArithmeticException.class, acumulador::sumaMicros);
+    }
+
+    @Test
+    public void testCombinar() {
+        AcumuladorMonto a = new AcumuladorMonto();
+        a.sumar(new BigDecimal("10.00"));
+        AcumuladorMonto b = new AcumuladorMonto();
+        b.sumar(new BigDecimal("2.50"));
+        b.sumar(new BigDecimal("7.25"));
+
+        a.combinar(b);
+
+        assertEquals(3, a.cuenta());
+        assertEquals(new BigDecimal("19.750000"), a.total());
+        assertEquals(new BigDecimal("2.500000"), a.minimo());
+    }
+
+    private static long potencia(int exponente) {
+        long resultado = 1;
+        for (int i = 0; i < exponente; i++) {
+            resultado *= 10;
+        }
+        return resultado;
+    }
+}
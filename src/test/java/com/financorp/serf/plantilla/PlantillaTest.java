@@ -0,0 +1,77 @@
+package com.financorp.serf.plantilla;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlantillaTest {
+
+    @Test
+    public void testCamposYFormatosDeFecha() throws Exception {
+        // Datos de prueba
+        Plantilla plantilla = Plantilla.compilar(
+            "Empresa: {empresa} ({unidades} u.) del {desde:fecha:dd/MM/yyyy} a las {hora:fechaHora}; {empresa}",
+            "empresa", "unidades", "desde", "hora");
+        LocalDateTime hora = LocalDateTime.of(2024, 3, 9, 7, 5, 1);
+
+        // Ejecutar prueba: un StringBuilder y un Writer, que escriben los enteros por caminos distintos
+        String texto = plantilla.renderizar("FinanCorp", 12, LocalDate.of(2024, 3, 9), hora);
+        StringWriter escritor = new StringWriter();
+        plantilla.renderTo(escritor, "FinanCorp", 12, LocalDate.of(2024, 3, 9), hora);
+
+        // Verificar resultado
+        assertEquals("Empresa: FinanCorp (12 u.) del 09/03/2024 a las "
+            + Formateadores.fechaHora().format(hora) + "; FinanCorp", texto);
+        assertEquals(texto, escritor.toString());
+    }
+
+    @Test
+    public void testEscapesDeLlaves() {
+        Plantilla plantilla = Plantilla.compilar("{{literal} {{{valor}}} a}b {{", "valor");
+
+        // Solo "{{" es un escape; una llave de cierre suelta se copia tal cual
+        assertEquals("{literal} {42}} a}b {", plantilla.renderizar(42));
+        assertEquals("sin campos", Plantilla.compilar("sin campos").renderizar());
+        assertEquals("", Plantilla.compilar("").renderizar());
+    }
+
+    @Test
+    public void testValoresQueNoSonFechasYNulos() {
+        Plantilla plantilla = Plantilla.compilar("[{texto}] [{fecha:fecha}] [{hora:fechaHora}]", "texto", "fecha", "hora");
+
+        assertEquals("[null] [pendiente] [null]", plantilla.renderizar(null, "pendiente", null));
+    }
+
+    @Test
+    public void testCamposDeclaradosSinUsarYValoresQueFaltan() {
+        // Un campo declarado que la plantilla no usa no es un error, pero su valor se sigue esperando
+        Plantilla plantilla = Plantilla.compilar("Hola {nombre}", "saludo", "nombre");
+        assertEquals("Hola Ana", plantilla.renderizar("ignorado", "Ana"));
+
+        IllegalArgumentException faltan = assertThrows(IllegalArgumentException.class, () -> plantilla.renderizar("Ana"));
+        assertEquals("Se esperaban 2 valores y se recibieron 1", faltan.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> plantilla.renderizar("a", "b", "c"));
+    }
+
+    @Test
+    public void testErroresDeCompilacion() {
+        assertMensaje("Campo sin cerrar en la plantilla, posición 6", () -> Plantilla.compilar("Total {monto", "monto"));
+        assertMensaje("Campo no declarado en la plantilla: total", () -> Plantilla.compilar("{total}", "monto"));
+        assertMensaje("Campo no declarado en la plantilla: ", () -> Plantilla.compilar("{}", "monto"));
+        assertMensaje("Tipo de campo desconocido en la plantilla: moneda", () -> Plantilla.compilar("{monto:moneda}", "monto"));
+        // Patrón de fecha inválido: lo rechaza DateTimeFormatter al compilar, no al escribir
+        assertThrows(IllegalArgumentException.class, () -> Plantilla.compilar("{dia:fecha:yyyy-{}", "dia"));
+        assertThrows(IllegalArgumentException.class, () -> Plantilla.compilar("{dia:fecha:bbb}", "dia"));
+    }
+
+    private static void assertMensaje(String mensaje, Runnable compilacion) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, compilacion::run);
+        assertTrue(error.getMessage().startsWith(mensaje), error.getMessage());
+    }
+}
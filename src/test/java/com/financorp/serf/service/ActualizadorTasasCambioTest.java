@@ -0,0 +1,176 @@
+package com.financorp.serf.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.config.ConfiguracionGlobal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ActualizadorTasasCambioTest {
+
+    private static final String TASAS_JSON = "{\"vigenteDesde\":\"2025-01-01\",\"tasas\":{\"PEN\":0.25,\"USD\":0.91}}";
+    private static final Map<String, BigDecimal> TASAS = Map.of("PEN", new BigDecimal("0.25"), "USD", new BigDecimal("0.91"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directorio;
+
+    @SuppressWarnings("unchecked")
+    private ActualizadorTasasCambio actualizador(TasaCambioProvider proveedor, TasaCambioService tasaCambioService) {
+        ObjectProvider<TasaCambioProvider> proveedores = mock(ObjectProvider.class);
+        when(proveedores.getIfAvailable()).thenReturn(proveedor);
+        return new ActualizadorTasasCambio(proveedores, tasaCambioService, objectMapper,
+            directorio.resolve("tasas-cambio.json").toString(), 300, 60);
+    }
+
+    @Test
+    public void testActualizaDesdeHttpYGuardaCache() throws Exception {
+        TasaCambioService tasaCambioService = mock(TasaCambioService.class);
+        try (ServidorTasasStub servidor = new ServidorTasasStub(TASAS_JSON)) {
+            ActualizadorTasasCambio actualizador = actualizador(
+                new TasaCambioProviderHttp(servidor.url(), 2000, objectMapper), tasaCambioService);
+
+            assertTrue(actualizador.actualizar());
+        }
+
+        verify(tasaCambioService).registrarTasas(LocalDate.of(2025, 1, 1), TASAS);
+        assertTrue(Files.exists(directorio.resolve("tasas-cambio.json")));
+    }
+
+    @Test
+    public void testTasasSinCambiosEnMinusculasNoCreanVersion() throws Exception {
+        // Datos de prueba: la fuente repite las tasas vigentes con los códigos en minúsculas
+        LocalDate fecha = LocalDate.of(2025, 1, 1);
+        Map<String, BigDecimal> vigentes = ConfiguracionGlobal.getInstance().getTablaTasasCambio().tasas(fecha);
+        String cuerpo = "{\"vigenteDesde\":\"2025-01-01\",\"tasas\":{\"pen\":" + vigentes.get("PEN").toPlainString()
+            + ",\" usd\":" + vigentes.get("USD").toPlainString() + "}}";
+        TasaCambioService tasaCambioService = mock(TasaCambioService.class);
+
+        // Ejecutar prueba
+        try (ServidorTasasStub servidor = new ServidorTasasStub(cuerpo)) {
+            ActualizadorTasasCambio actualizador = actualizador(
+                new TasaCambioProviderHttp(servidor.url(), 2000, objectMapper), tasaCambioService);
+
+            assertTrue(actualizador.actualizar());
+        }
+
+        // Verificar resultado: no se registra una versión nueva con las mismas tasas
+        verify(tasaCambioService, never()).registrarTasas(any(), any());
+    }
+
+    @Test
+    public void testFuenteLentaNoBloqueaConversiones() throws Exception {
+        TasaCambioService tasaCambioService = mock(TasaCambioService.class);
+        ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
+        try (ServidorTasasStub servidor = new ServidorTasasStub(TASAS_JSON)) {
+            servidor.setRetardoMs(3000);
+            ActualizadorTasasCambio actualizador = actualizador(
+                new TasaCambioProviderHttp(servidor.url(), 1000, objectMapper), tasaCambioService);
+
+            CompletableFuture<Boolean> refresco = CompletableFuture.supplyAsync(actualizador::actualizar);
+            esperarRefrescoEnCurso(actualizador);
+
+            // Mientras el refresco espera a la red, las conversiones usan la tabla publicada
+            assertTimeoutPreemptively(Duration.ofMillis(100), () -> {
+                for (int i = 0; i < 1000; i++) {
+                    configuracion.convertirAMonedaCorporativa(new BigDecimal("100"), "USD");
+                }
+            });
+            assertTrue((Boolean) actualizador.obtenerEstado().get("actualizacionEnCurso"));
+            assertFalse(refresco.isDone());
+
+            assertFalse(refresco.get());
+            Map<String, Object> estado = actualizador.obtenerEstado();
+            assertEquals(1L, estado.get("fallosConsecutivos"));
+            assertNotNull(estado.get("ultimoError"));
+        }
+        verify(tasaCambioService, never()).registrarTasas(any(), any());
+    }
+
+    @Test
+    public void testCuerpoLentoRespetaElTiempoMaximo() throws Exception {
+        // Datos de prueba: las cabeceras llegan enseguida y el cuerpo se detiene a la mitad
+        try (ServidorTasasStub servidor = new ServidorTasasStub(TASAS_JSON)) {
+            servidor.setRetardoCuerpoMs(5000);
+            TasaCambioProviderHttp proveedor = new TasaCambioProviderHttp(servidor.url(), 300, objectMapper);
+
+            // Ejecutar prueba y verificar resultado
+            assertTimeoutPreemptively(Duration.ofMillis(2000),
+                () -> assertThrows(HttpTimeoutException.class, proveedor::obtenerTasas));
+        }
+    }
+
+    @Test
+    public void testCacheSinFechaDeVigenciaConservaLaFechaDelRegistro() throws Exception {
+        // Datos de prueba: la fuente no indica desde cuándo rigen las tasas
+        Path archivo = directorio.resolve("proveedor.json");
+        Files.writeString(archivo, "{\"tasas\":{\"PEN\":0.25,\"USD\":0.91}}");
+        actualizador(new TasaCambioProviderArchivo(archivo.toString(), objectMapper), mock(TasaCambioService.class))
+            .actualizar();
+
+        // Verificar resultado: la caché guarda la fecha con la que se registraron
+        ActualizadorTasasCambio.CacheTasas cache = objectMapper.readValue(
+            directorio.resolve("tasas-cambio.json").toFile(), ActualizadorTasasCambio.CacheTasas.class);
+        assertEquals(LocalDate.now(), cache.vigenteDesde());
+
+        // Una caché sin fecha (de una versión anterior) no se registra con la fecha del reinicio
+        Files.writeString(directorio.resolve("tasas-cambio.json"),
+            "{\"obtenidas\":\"2025-01-01T00:00:00Z\",\"fuente\":\"http\",\"tasas\":{\"PEN\":0.25}}");
+        TasaCambioService tasaCambioService = mock(TasaCambioService.class);
+        ActualizadorTasasCambio reiniciado = actualizador(null, tasaCambioService);
+        reiniciado.iniciar();
+
+        verify(tasaCambioService, never()).registrarTasas(any(), any());
+        assertEquals("tasas iniciales", reiniciado.obtenerEstado().get("fuenteActual"));
+        assertNotNull(reiniciado.obtenerEstado().get("ultimoError"));
+    }
+
+    @Test
+    public void testCacheSobreviveReinicio() throws Exception {
+        Path archivo = directorio.resolve("proveedor.json");
+        Files.writeString(archivo, TASAS_JSON);
+        actualizador(new TasaCambioProviderArchivo(archivo.toString(), objectMapper), mock(TasaCambioService.class))
+            .actualizar();
+
+        // Tras el reinicio, sin proveedor disponible, se publican las últimas tasas guardadas
+        TasaCambioService tasaCambioService = mock(TasaCambioService.class);
+        ActualizadorTasasCambio reiniciado = actualizador(null, tasaCambioService);
+        reiniciado.iniciar();
+
+        verify(tasaCambioService).registrarTasas(LocalDate.of(2025, 1, 1), TASAS);
+        assertTrue(((String) reiniciado.obtenerEstado().get("fuenteActual")).startsWith("caché"));
+        assertNotNull(reiniciado.obtenerEstado().get("ultimaObtencion"));
+    }
+
+    private static void esperarRefrescoEnCurso(ActualizadorTasasCambio actualizador) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if ((Boolean) actualizador.obtenerEstado().get("actualizacionEnCurso")) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("El refresco no llegó a empezar");
+    }
+}
@@ -0,0 +1,132 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.service.CacheReportes.ClaveReporte;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class CacheReportesTest {
+
+    private static final ClaveReporte ENERO = new ClaveReporte("mensual", PeriodoReporte.mensual(LocalDate.of(2024, 1, 10)));
+    private static final ClaveReporte FEBRERO = new ClaveReporte("mensual", PeriodoReporte.mensual(LocalDate.of(2024, 2, 10)));
+    private static final ClaveReporte MARZO = new ClaveReporte("mensual", PeriodoReporte.mensual(LocalDate.of(2024, 3, 10)));
+
+    private final AtomicInteger generados = new AtomicInteger();
+
+    @Test
+    public void testDesalojaLaEntradaUsadaHaceMasTiempo() {
+        // Datos de prueba: caché de 2 entradas con enero y febrero, y enero leído después
+        CacheReportes cache = new CacheReportes(2);
+        cache.obtener(ENERO, generador("enero"));
+        cache.obtener(FEBRERO, generador("febrero"));
+        cache.obtener(ENERO, generador("enero"));
+
+        // Ejecutar prueba: marzo no cabe
+        cache.obtener(MARZO, generador("marzo"));
+
+        // Verificar resultado: sale febrero, no enero
+        generados.set(0);
+        cache.obtener(ENERO, generador("enero"));
+        assertEquals(0, generados.get());
+        cache.obtener(FEBRERO, generador("febrero"));
+        assertEquals(1, generados.get());
+        Map<String, Object> estadisticas = cache.obtenerEstadisticas();
+        assertEquals(2, estadisticas.get("entradas"));
+        assertEquals(2L, estadisticas.get("desalojos"));
+    }
+
+    @Test
+    public void testInvalidaSoloLosPeriodosQueContienenLaFecha() {
+        CacheReportes cache = new CacheReportes(10);
+        ClaveReporte trimestre = new ClaveReporte("trimestral", PeriodoReporte.trimestral(LocalDate.of(2024, 2, 1)));
+        cache.obtener(ENERO, generador("enero"));
+        cache.obtener(FEBRERO, generador("febrero"));
+        cache.obtener(trimestre, generador("trimestre"));
+
+        // Ejecutar prueba: una venta del 31 de enero
+        cache.invalidar(List.of(LocalDate.of(2024, 1, 31)));
+
+        // Verificar resultado
+        generados.set(0);
+        cache.obtener(FEBRERO, generador("febrero"));
+        assertEquals(0, generados.get());
+        cache.obtener(ENERO, generador("enero"));
+        cache.obtener(trimestre, generador("trimestre"));
+        assertEquals(2, generados.get());
+        assertEquals(2L, cache.obtenerEstadisticas().get("invalidaciones"));
+    }
+
+    @Test
+    public void testNoGuardaUnReporteGeneradoDuranteUnaInvalidacion() {
+        CacheReportes cache = new CacheReportes(10);
+
+        // Ejecutar prueba: se registra una venta de enero mientras se genera el reporte
+        Map<String, Object> reporte = cache.obtener(ENERO, () -> {
+            cache.invalidar(List.of(LocalDate.of(2024, 1, 5)));
+            return generador("enero anterior a la venta").get();
+        });
+
+        // Verificar resultado: se devuelve, pero la siguiente lectura vuelve a generarlo
+        assertEquals("enero anterior a la venta", reporte.get("nombre"));
+        assertEquals("enero", cache.obtener(ENERO, generador("enero")).get("nombre"));
+    }
+
+    @Test
+    public void testGuardaElReporteSiDuranteLaGeneracionSoloHayVentasDeOtroPeriodo() {
+        CacheReportes cache = new CacheReportes(10);
+
+        // Ejecutar prueba: mientras se genera enero se confirma una venta de febrero
+        cache.obtener(ENERO, () -> {
+            cache.invalidar(List.of(LocalDate.of(2024, 2, 5)));
+            return generador("enero").get();
+        });
+
+        // Verificar resultado: enero queda en caché
+        generados.set(0);
+        cache.obtener(ENERO, generador("enero"));
+        assertEquals(0, generados.get());
+    }
+
+    @Test
+    public void testDevuelveCopiasDeLasEntradas() {
+        CacheReportes cache = new CacheReportes(10);
+        cache.obtener(ENERO, generador("enero"));
+
+        cache.obtener(ENERO, generador("enero")).put("nombre", "modificado");
+
+        assertEquals("enero", cache.obtener(ENERO, generador("enero")).get("nombre"));
+    }
+
+    @Test
+    public void testVersionDatosCambiaSoloConVentasDelPeriodo() {
+        CacheReportes cache = new CacheReportes(10);
+        long enero = cache.versionDatos(ENERO.periodo());
+        long febrero = cache.versionDatos(FEBRERO.periodo());
+
+        cache.invalidar(List.of(LocalDate.of(2024, 1, 31)));
+
+        assertNotEquals(enero, cache.versionDatos(ENERO.periodo()));
+        assertEquals(febrero, cache.versionDatos(FEBRERO.periodo()));
+
+        // Una invalidación total cambia todos los períodos
+        cache.invalidarTodo();
+        assertNotEquals(febrero, cache.versionDatos(FEBRERO.periodo()));
+    }
+
+    private Supplier<Map<String, Object>> generador(String nombre) {
+        return () -> {
+            generados.incrementAndGet();
+            Map<String, Object> reporte = new HashMap<>();
+            reporte.put("nombre", nombre);
+            return reporte;
+        };
+    }
+}
@@ -0,0 +1,248 @@
+package com.financorp.serf.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.service.DiarioVentas.Pendientes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiarioVentasTest {
+
+    private static final Predicate<String> SIN_FACTURAS = numero -> false;
+    private static final ToIntFunction<Long> STOCK_AMPLIO = productoId -> 1_000_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<DiarioVentas> abiertos = new ArrayList<>();
+
+    @TempDir
+    private Path directorio;
+
+    @AfterEach
+    public void cerrar() throws Exception {
+        for (DiarioVentas diario : abiertos) {
+            diario.cerrar();
+        }
+    }
+
+    @Test
+    public void testDaLaVueltaAlBufferYRecuperaTrasReiniciar() throws Exception {
+        // Datos de prueba: registros de ~200 KB en un diario de 1 MB
+        DiarioVentas diario = abrirDiario();
+        String cliente = "c".repeat(200_000);
+
+        // Ejecutar prueba: 12 ventas aplicadas de una en una dan la vuelta al buffer dos veces
+        for (int i = 0; i < 12; i++) {
+            diario.anotar(venta("DV-W" + i, 1L, 1, cliente), SIN_FACTURAS, STOCK_AMPLIO);
+            Pendientes pendientes = diario.leerPendientes(10, 0);
+            assertEquals(1, pendientes.registros().size());
+            Venta leida = pendientes.registros().get(0).venta();
+            assertEquals("DV-W" + i, leida.getNumeroFactura());
+            assertEquals(cliente, leida.getCliente());
+            diario.getReservas().liberar(leida);
+            diario.confirmarAplicadas(pendientes.posicionFin());
+        }
+        // Dos ventas más sin aplicar, la segunda cruzando el final físico del archivo
+        diario.anotar(venta("DV-W12", 1L, 2, cliente), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.anotar(venta("DV-W13", 1L, 3, cliente), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.cerrar();
+        abiertos.remove(diario);
+
+        // Verificar resultado: al reabrir vuelven las pendientes y sus reservas
+        DiarioVentas reabierto = abrirDiario();
+        Pendientes pendientes = reabierto.leerPendientes(10, 0);
+        assertEquals(List.of("DV-W12", "DV-W13"),
+            pendientes.registros().stream().map(registro -> registro.venta().getNumeroFactura()).toList());
+        assertEquals(5, reabierto.getReservas().stockReservado(1L));
+        assertEquals(2, reabierto.getReservas().ventasReservadas());
+    }
+
+    @Test
+    public void testRegistroCorruptoOIncompletoTerminaLaRecuperacion() throws Exception {
+        DiarioVentas diario = abrirDiario();
+        diario.anotar(venta("DV-C1", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.anotar(venta("DV-C2", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.anotar(venta("DV-C3", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.cerrar();
+        abiertos.remove(diario);
+
+        // Simular una escritura a medias del segundo registro: sus datos no coinciden con el CRC
+        try (RandomAccessFile archivo = new RandomAccessFile(directorio.resolve("ventas.diario").toFile(), "rw")) {
+            archivo.seek(8);
+            int longitudPrimero = archivo.readInt();
+            long datosSegundo = 8 + 8 + longitudPrimero + 8;
+            archivo.seek(datosSegundo + 5);
+            int original = archivo.read();
+            archivo.seek(datosSegundo + 5);
+            archivo.write(original ^ 0xff);
+        }
+
+        // Ejecutar prueba
+        DiarioVentas reabierto = abrirDiario();
+        List<String> recuperadas = facturasPendientes(reabierto);
+
+        // Verificar resultado: solo sobrevive lo anterior al registro dañado
+        assertEquals(List.of("DV-C1"), recuperadas);
+        assertEquals(1, reabierto.getReservas().stockReservado(1L));
+
+        // Las nuevas ventas se escriben a continuación del último registro válido
+        reabierto.anotar(venta("DV-C4", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO);
+        assertEquals(List.of("DV-C1", "DV-C4"), facturasPendientes(reabierto));
+    }
+
+    @Test
+    public void testDiarioLlenoEsperaAQueSeApliquenVentas() throws Exception {
+        // Datos de prueba: caben tres registros de ~300 KB en 1 MB
+        DiarioVentas diario = abrirDiario();
+        String cliente = "c".repeat(300_000);
+        for (int i = 0; i < 3; i++) {
+            diario.anotar(venta("DV-L" + i, 1L, 1, cliente), SIN_FACTURAS, STOCK_AMPLIO);
+        }
+
+        // Ejecutar prueba: la cuarta venta no cabe hasta que se aplica una
+        CompletableFuture<Void> cuarta = CompletableFuture.runAsync(
+            () -> diario.anotar(venta("DV-L3", 1L, 1, cliente), SIN_FACTURAS, STOCK_AMPLIO));
+        Thread.sleep(300);
+        assertFalse(cuarta.isDone());
+
+        Pendientes pendientes = diario.leerPendientes(1, 0);
+        diario.confirmarAplicadas(pendientes.posicionFin());
+
+        // Verificar resultado
+        cuarta.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("DV-L1", "DV-L2", "DV-L3"), facturasPendientes(diario));
+    }
+
+    @Test
+    public void testReservaRechazaDuplicadosYSobreventa() throws Exception {
+        // Datos de prueba: 5 unidades en base de datos y una factura ya registrada
+        DiarioVentas diario = abrirDiario();
+        Predicate<String> registradas = "DV-R0"::equals;
+        ToIntFunction<Long> stock = productoId -> 5;
+
+        // Ejecutar prueba
+        diario.anotar(venta("DV-R1", 1L, 3, "cliente"), registradas, stock);
+        RuntimeException enBaseDeDatos = assertThrows(RuntimeException.class,
+            () -> diario.anotar(venta("DV-R0", 1L, 1, "cliente"), registradas, stock));
+        RuntimeException enDiario = assertThrows(RuntimeException.class,
+            () -> diario.anotar(venta("DV-R1", 1L, 1, "cliente"), registradas, stock));
+        RuntimeException sinStock = assertThrows(RuntimeException.class,
+            () -> diario.anotar(venta("DV-R2", 1L, 3, "cliente"), registradas, stock));
+        diario.anotar(venta("DV-R3", 1L, 2, "cliente"), registradas, stock);
+
+        // Verificar resultado: solo se anotaron las ventas que caben en el stock confirmado
+        assertTrue(enBaseDeDatos.getMessage().startsWith("Factura duplicada"));
+        assertTrue(enDiario.getMessage().startsWith("Factura duplicada"));
+        assertEquals("Stock insuficiente", sinStock.getMessage());
+        assertEquals(5, diario.getReservas().stockReservado(1L));
+        assertEquals(List.of("DV-R1", "DV-R3"), facturasPendientes(diario));
+    }
+
+    @Test
+    public void testRegistroIlegibleSeLeeSinVenta() throws Exception {
+        DiarioVentas diario = abrirDiario();
+        diario.anotar(venta("DV-I1", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO);
+        diario.cerrar();
+        abiertos.remove(diario);
+
+        // Ejecutar prueba: el mismo archivo leído con un ObjectMapper que no admite fechas
+        DiarioVentas sinModulos = new DiarioVentas(new ObjectMapper(), true,
+            directorio.resolve("ventas.diario").toString(), 1, 1, 1);
+        sinModulos.abrir();
+        abiertos.add(sinModulos);
+
+        // Verificar resultado: el registro íntegro se entrega con sus bytes para apartarlo
+        Pendientes pendientes = sinModulos.leerPendientes(10, 0);
+        assertEquals(1, pendientes.registros().size());
+        assertNull(pendientes.registros().get(0).venta());
+        assertEquals(0, sinModulos.getReservas().ventasReservadas());
+    }
+
+    @Test
+    public void testFalloAlSincronizarDespiertaALaEsperaYDetieneElDiario() throws Exception {
+        // Datos de prueba: un disco que falla en el fsync
+        DiarioVentas diario = new DiarioVentas(objectMapper, true,
+            directorio.resolve("ventas.diario").toString(), 1, 1, 1) {
+            @Override
+            void forzar() {
+                throw new UncheckedIOException(new IOException("Error de E/S simulado"));
+            }
+        };
+        diario.abrir();
+        abiertos.add(diario);
+
+        // Ejecutar prueba
+        CompletableFuture<Void> anotada = CompletableFuture.runAsync(
+            () -> diario.anotar(venta("DV-F1", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO));
+
+        // Verificar resultado: quien esperaba recibe el error en lugar de quedarse bloqueado
+        Throwable error = assertThrows(Exception.class, () -> anotada.get(2, TimeUnit.SECONDS)).getCause();
+        assertTrue(error.getMessage().contains("fallo al sincronizar"), error.getMessage());
+        // Las ventas siguientes se rechazan sin escribirse y liberan su reserva
+        assertThrows(RuntimeException.class,
+            () -> diario.anotar(venta("DV-F2", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO));
+        assertEquals(1, diario.getReservas().ventasReservadas());
+        assertTrue(((String) diario.obtenerEstado().get("error")).contains("fallo al sincronizar"));
+    }
+
+    @Test
+    public void testCerrarHaceDurableLoAnotadoYDespiertaALaEspera() throws Exception {
+        // Datos de prueba: grupos que nunca se completan ni vencen durante la prueba
+        DiarioVentas diario = new DiarioVentas(objectMapper, true,
+            directorio.resolve("ventas.diario").toString(), 1, 1000, 60_000);
+        diario.abrir();
+        CompletableFuture<Void> anotada = CompletableFuture.runAsync(
+            () -> diario.anotar(venta("DV-X1", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO));
+        Thread.sleep(200);
+        assertFalse(anotada.isDone());
+
+        // Ejecutar prueba
+        diario.cerrar();
+
+        // Verificar resultado: la venta anotada queda confirmada y no se aceptan más
+        anotada.get(2, TimeUnit.SECONDS);
+        RuntimeException cerrado = assertThrows(RuntimeException.class,
+            () -> diario.anotar(venta("DV-X2", 1L, 1, "cliente"), SIN_FACTURAS, STOCK_AMPLIO));
+        assertEquals("Diario de ventas cerrado", cerrado.getMessage());
+
+        DiarioVentas reabierto = abrirDiario();
+        assertEquals(List.of("DV-X1"), facturasPendientes(reabierto));
+    }
+
+    private DiarioVentas abrirDiario() throws IOException {
+        DiarioVentas diario = new DiarioVentas(objectMapper, true,
+            directorio.resolve("ventas.diario").toString(), 1, 1, 1);
+        diario.abrir();
+        abiertos.add(diario);
+        return diario;
+    }
+
+    private static List<String> facturasPendientes(DiarioVentas diario) throws InterruptedException {
+        return diario.leerPendientes(100, 0).registros().stream()
+            .map(registro -> registro.venta().getNumeroFactura())
+            .toList();
+    }
+
+    private static Venta venta(String numeroFactura, Long productoId, int cantidad, String cliente) {
+        Venta venta = VentaServiceLoteTest.venta(numeroFactura, productoId, cantidad);
+        venta.setCliente(cliente);
+        return venta;
+    }
+}
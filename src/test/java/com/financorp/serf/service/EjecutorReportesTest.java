@@ -0,0 +1,58 @@
+package com.financorp.serf.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EjecutorReportesTest {
+
+    private final EjecutorReportes ejecutor = new EjecutorReportes(1, 1);
+
+    @AfterEach
+    public void tearDown() {
+        ejecutor.detener();
+    }
+
+    @Test
+    public void testLaTareaNoAbreTransaccionAntesDelLimitador() throws Exception {
+        // Ejecutar prueba
+        CompletableFuture<Boolean> enTransaccion = ejecutor.enviar(TransactionSynchronizationManager::isActualTransactionActive);
+
+        // Verificar resultado: la conexión solo se toma dentro del limitador, al generar el reporte
+        assertFalse(enTransaccion.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRechazaConHilosYColaOcupados() throws Exception {
+        // Datos de prueba: un hilo ocupado y una tarea en cola
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Integer> ocupada = ejecutor.enviar(() -> {
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+        CompletableFuture<Integer> enCola = ejecutor.enviar(() -> 2);
+
+        // Ejecutar prueba
+        assertThrows(RejectedExecutionException.class, () -> ejecutor.enviar(() -> 3));
+
+        // Verificar resultado
+        liberar.countDown();
+        assertEquals(1, ocupada.get(5, TimeUnit.SECONDS));
+        assertEquals(2, enCola.get(5, TimeUnit.SECONDS));
+        assertTrue(ejecutor.enviar(() -> true).get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,106 @@
+package com.financorp.serf.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Venta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EscritorDiarioVentasTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private VentaService ventaService;
+
+    @TempDir
+    private Path directorio;
+
+    private DiarioVentas diario;
+    private EscritorDiarioVentas escritor;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        diario = new DiarioVentas(objectMapper, true, directorio.resolve("ventas.diario").toString(), 1, 1, 1);
+        diario.abrir();
+        escritor = new EscritorDiarioVentas(diario, ventaService, objectMapper, 10, 2,
+            directorio.resolve("cuarentena").toString());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        diario.cerrar();
+    }
+
+    @Test
+    public void testVentaQueNoSePuedeAplicarSeApartaSinDetenerElDiario() throws Exception {
+        // Datos de prueba: la segunda venta falla siempre al aplicarse
+        for (String factura : List.of("ED-Q1", "ED-Q2", "ED-Q3")) {
+            diario.anotar(VentaServiceLoteTest.venta(factura, 1L, 1), numero -> false, productoId -> 100);
+        }
+        when(ventaService.aplicarDiario(anyList())).thenAnswer(invocacion -> {
+            List<Venta> ventas = invocacion.getArgument(0);
+            if (ventas.stream().anyMatch(venta -> venta.getNumeroFactura().equals("ED-Q2"))) {
+                throw new IllegalStateException("Stock insuficiente al aplicar el diario");
+            }
+            return ventas.size();
+        });
+
+        // Ejecutar prueba
+        for (int paso = 0; paso < 20 && diario.leerPendientes(1, 0).registros().size() > 0; paso++) {
+            escritor.aplicarPendientes(0);
+        }
+
+        // Verificar resultado: las otras dos se aplican y la fallida queda en la cuarentena
+        assertTrue(diario.leerPendientes(10, 0).registros().isEmpty());
+        assertEquals(2L, escritor.obtenerEstado().get("aplicadas"));
+        assertEquals(1L, escritor.obtenerEstado().get("enCuarentena"));
+        List<String> cuarentena = Files.readAllLines(directorio.resolve("cuarentena"));
+        assertEquals(1, cuarentena.size());
+        assertTrue(cuarentena.get(0).contains("ED-Q2"));
+        assertTrue(cuarentena.get(0).contains("Stock insuficiente al aplicar el diario"));
+        assertEquals(0, diario.getReservas().stockReservado(1L));
+        assertEquals(0, diario.getReservas().ventasReservadas());
+    }
+
+    @Test
+    public void testErrorTransitorioSeReintentaSinApartarLaVenta() throws Exception {
+        diario.anotar(VentaServiceLoteTest.venta("ED-T1", 1L, 1), numero -> false, productoId -> 100);
+        AtomicInteger llamadas = new AtomicInteger();
+        when(ventaService.aplicarDiario(anyList())).thenAnswer(invocacion -> {
+            if (llamadas.incrementAndGet() <= 5) {
+                throw new TransientDataAccessResourceException("Base de datos no disponible");
+            }
+            return 1;
+        });
+
+        // Ejecutar prueba: más fallos seguidos que max-intentos
+        for (int i = 0; i < 5; i++) {
+            assertFalse(escritor.aplicarPendientes(0));
+        }
+        assertTrue(escritor.aplicarPendientes(0));
+
+        // Verificar resultado
+        assertTrue(diario.leerPendientes(10, 0).registros().isEmpty());
+        assertEquals(1L, escritor.obtenerEstado().get("aplicadas"));
+        assertEquals(0L, escritor.obtenerEstado().get("enCuarentena"));
+        assertFalse(Files.exists(directorio.resolve("cuarentena")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.financorp.serf.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class EscritorJsonVentasTest {
+
+    @Autowired
+    private EscritorJsonVentas escritorJsonVentas;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testEscribeTodasLasVentasComoArray() throws Exception {
+        // Datos de prueba: más ventas que filas por flush
+        Long productoId = registrarProducto("EJV-001");
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            ventas.add(VentaServiceLoteTest.venta("EJV-A" + i, productoId, 1));
+        }
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        escritorJsonVentas.escribirTodas(salida);
+
+        // Verificar resultado: un único array JSON con todas las ventas de la tabla
+        JsonNode array = objectMapper.readTree(salida.toByteArray());
+        assertTrue(array.isArray());
+        assertEquals(ventaRepository.count(), array.size());
+        Set<String> facturas = new HashSet<>();
+        array.forEach(venta -> facturas.add(venta.get("numeroFactura").asText()));
+        assertTrue(facturas.contains("EJV-A0"));
+        assertTrue(facturas.contains("EJV-A599"));
+    }
+
+    @Test
+    public void testReporteIncluyeVentasDelPeriodoConSuProducto() throws Exception {
+        // Datos de prueba: dos ventas en mayo de 2005 y una fuera del período
+        Long productoId = registrarProducto("EJV-002");
+        List<Venta> ventas = new ArrayList<>();
+        for (int dia : new int[] {2, 20, 40}) {
+            Venta venta = VentaServiceLoteTest.venta("EJV-B" + dia, productoId, 1);
+            venta.setFechaVenta(LocalDateTime.of(2005, 5, 1, 12, 0).plusDays(dia));
+            ventas.add(venta);
+        }
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        escritorJsonVentas.escribirReporte(Map.of("totalVentas", 2),
+            LocalDate.of(2005, 5, 1).atStartOfDay(), LocalDate.of(2005, 5, 31).atTime(23, 59, 59), salida);
+
+        // Verificar resultado
+        JsonNode reporte = objectMapper.readTree(salida.toByteArray());
+        assertEquals(2, reporte.get("totalVentas").asInt());
+        JsonNode listado = reporte.get("ventas");
+        assertEquals(2, listado.size());
+        assertEquals("EJV-B2", listado.get(0).get("numeroFactura").asText());
+        assertEquals("EJV-B20", listado.get(1).get("numeroFactura").asText());
+        assertEquals("EJV-002", listado.get(0).get("producto").get("codigo").asText());
+        assertTrue(reporte.get(EscritorReporteFirmado.CAMPO_HASH).asText().startsWith("SHA256-"));
+    }
+
+    private Long registrarProducto(String codigo) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(10_000);
+        return productoService.registrarProducto(producto).getId();
+    }
+}
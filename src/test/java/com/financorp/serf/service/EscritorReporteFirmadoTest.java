@@ -0,0 +1,94 @@
+package com.financorp.serf.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EscritorReporteFirmadoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final EscritorReporteFirmado escritor = new EscritorReporteFirmado(objectMapper);
+
+    @Test
+    public void testHashCoincideConElDocumentoSinElCampoDelHash() throws Exception {
+        // Datos de prueba: claves desordenadas, mapas anidados, decimales con ceros y texto no ASCII
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("tipoReporte", "MENSUAL");
+        reporte.put("montoTotal", new BigDecimal("1250.50"));
+        reporte.put("fechaInicio", LocalDate.of(2024, 1, 1));
+        Map<String, Object> porPais = new LinkedHashMap<>();
+        porPais.put("Perú", Map.of("totalVentas", 3, "montoTotal", new BigDecimal("10.00")));
+        porPais.put("Chile", Map.of("totalVentas", 1, "montoTotal", new BigDecimal("0.10")));
+        reporte.put("ventasPorPais", porPais);
+        reporte.put("empresa", "FinanCorp — Añil");
+
+        // Ejecutar prueba: con un campo escrito en streaming, como el listado de ventas
+        byte[] documento = escribir(reporte, Map.of("ventas", (generador, escritorCanonico) -> {
+            generador.writeStartArray();
+            escritorCanonico.writeValue(generador, Map.of("numeroFactura", "F-1", "cantidad", 2));
+            escritorCanonico.writeValue(generador, Map.of("numeroFactura", "F-2", "cantidad", 1));
+            generador.writeEndArray();
+        }));
+
+        // Verificar resultado: el receptor quita el hash, vuelve a serializar en forma canónica
+        // (claves ordenadas, sin espacios) y obtiene el mismo SHA-256
+        ObjectMapper receptor = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> recibido = receptor.readValue(documento, TreeMap.class);
+        String hash = (String) recibido.remove(EscritorReporteFirmado.CAMPO_HASH);
+        byte[] canonico = receptor.writeValueAsBytes(recibido);
+
+        assertEquals("SHA256-" + sha256(canonico), hash);
+        String texto = new String(documento, StandardCharsets.UTF_8);
+        assertEquals(new String(canonico, StandardCharsets.UTF_8),
+            texto.substring(0, texto.lastIndexOf(",\"" + EscritorReporteFirmado.CAMPO_HASH + "\"")) + "}");
+        assertTrue(texto.startsWith("{\"empresa\":\"FinanCorp — Añil\",\"fechaInicio\":\"2024-01-01\""));
+    }
+
+    @Test
+    public void testCualquierCambioAlteraElHash() throws Exception {
+        Map<String, Object> reporte = new LinkedHashMap<>(Map.of("totalVentas", 3, "montoTotal", new BigDecimal("10.00")));
+        String original = hash(escribir(reporte, Map.of()));
+
+        reporte.put("montoTotal", new BigDecimal("10.01"));
+        String modificado = hash(escribir(reporte, Map.of()));
+
+        assertNotEquals(original, modificado);
+        // Un hash recibido dentro del reporte no se incluye ni se duplica
+        reporte.put(EscritorReporteFirmado.CAMPO_HASH, "SHA256-FALSO");
+        assertEquals(modificado, hash(escribir(reporte, Map.of())));
+    }
+
+    private byte[] escribir(Map<String, Object> reporte, Map<String, EscritorReporteFirmado.CampoEnStreaming> campos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        escritor.escribir(reporte, campos, salida);
+        return salida.toByteArray();
+    }
+
+    private String hash(byte[] documento) throws Exception {
+        return objectMapper.readTree(documento).get(EscritorReporteFirmado.CAMPO_HASH).asText();
+    }
+
+    private static String sha256(byte[] datos) throws Exception {
+        return HexFormat.of().withUpperCase().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+    }
+}
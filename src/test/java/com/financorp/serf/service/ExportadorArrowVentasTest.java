@@ -0,0 +1,156 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Las ventas de la prueba son de 2007 para no depender del resto de datos de la base compartida
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class ExportadorArrowVentasTest {
+
+    private static final List<String> COLUMNAS = List.of("id", "numeroFactura", "fechaVenta", "productoCodigo",
+        "productoCategoria", "cantidad", "precioUnitario", "monedaLocal", "precioUnitarioEUR", "totalVentaEUR",
+        "cliente", "vendedorResponsable", "metodoPago", "paisFilial");
+
+    @Autowired
+    private ExportadorArrowVentas exportadorArrowVentas;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    public void testIdaYVueltaConArrowStreamReader() throws Exception {
+        // Datos de prueba: 5 ventas; Chile aparece por primera vez en el último lote
+        Long productoId = registrarProducto("ARW-020");
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Venta venta = VentaServiceLoteTest.venta("ARW-F" + i, productoId, i + 1);
+            venta.setFechaVenta(LocalDateTime.of(2007, 5, 1 + i, 10, 30, 15, 123_456_000));
+            venta.setPrecioUnitario(new BigDecimal("19.995"));
+            venta.setPaisFilial(i == 4 ? "Chile" : "Perú");
+            venta.setCliente(i == 1 ? null : "Cliente " + i);
+            ventas.add(venta);
+        }
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba: lotes de 2 filas
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportadorArrowVentas.escribir(LocalDateTime.of(2007, 5, 1, 0, 0), LocalDateTime.of(2007, 6, 1, 0, 0), 2, salida);
+
+        // Verificar resultado
+        List<Integer> filasPorLote = new ArrayList<>();
+        List<String> facturas = new ArrayList<>();
+        try (BufferAllocator asignador = new RootAllocator();
+             ArrowStreamReader lector = new ArrowStreamReader(new ByteArrayInputStream(salida.toByteArray()), asignador)) {
+            VectorSchemaRoot raiz = lector.getVectorSchemaRoot();
+            List<Field> campos = raiz.getSchema().getFields();
+            assertEquals(COLUMNAS, campos.stream().map(Field::getName).toList());
+            assertEquals(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null), campo(campos, "fechaVenta").getType());
+            for (String importe : List.of("precioUnitario", "precioUnitarioEUR", "totalVentaEUR")) {
+                assertEquals(new ArrowType.Decimal(38, 2, 128), campo(campos, importe).getType());
+            }
+            assertNotNull(campo(campos, "paisFilial").getDictionary());
+
+            int fila = 0;
+            while (lector.loadNextBatch()) {
+                filasPorLote.add(raiz.getRowCount());
+                for (int i = 0; i < raiz.getRowCount(); i++, fila++) {
+                    Venta esperada = ventas.get(fila);
+                    facturas.add(((VarCharVector) raiz.getVector("numeroFactura")).getObject(i).toString());
+                    assertEquals(esperada.getId(), ((BigIntVector) raiz.getVector("id")).get(i));
+                    LocalDateTime fecha = esperada.getFechaVenta();
+                    assertEquals(fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + fecha.getNano() / 1_000,
+                        ((TimeStampMicroVector) raiz.getVector("fechaVenta")).get(i));
+                    assertEquals(fila + 1, ((IntVector) raiz.getVector("cantidad")).get(i));
+                    BigDecimal precio = ((DecimalVector) raiz.getVector("precioUnitario")).getObject(i);
+                    assertEquals(2, precio.scale());
+                    assertEquals(new BigDecimal("20.00"), precio);
+                    assertEquals(esperada.getTotalVentaEUR().setScale(2, RoundingMode.HALF_UP),
+                        ((DecimalVector) raiz.getVector("totalVentaEUR")).getObject(i));
+                    assertEquals(esperada.getPaisFilial(), decodificar(lector, raiz, "paisFilial", i));
+                    assertEquals("USD", decodificar(lector, raiz, "monedaLocal", i));
+                    if (esperada.getCliente() == null) {
+                        assertTrue(raiz.getVector("cliente").isNull(i));
+                    } else {
+                        assertEquals(esperada.getCliente(), ((VarCharVector) raiz.getVector("cliente")).getObject(i).toString());
+                    }
+                    assertTrue(raiz.getVector("metodoPago").isNull(i));
+                }
+            }
+            assertFalse(lector.loadNextBatch());
+        }
+        assertEquals(List.of(2, 2, 1), filasPorLote);
+        assertEquals(ventas.stream().map(Venta::getNumeroFactura).toList(), facturas);
+    }
+
+    @Test
+    public void testSinVentasSoloEscribeElEsquema() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportadorArrowVentas.escribir(LocalDateTime.of(1901, 1, 1, 0, 0), LocalDateTime.of(1901, 2, 1, 0, 0), null, salida);
+
+        try (BufferAllocator asignador = new RootAllocator();
+             ArrowStreamReader lector = new ArrowStreamReader(new ByteArrayInputStream(salida.toByteArray()), asignador)) {
+            assertEquals(COLUMNAS.size(), lector.getVectorSchemaRoot().getSchema().getFields().size());
+            assertFalse(lector.loadNextBatch());
+        }
+    }
+
+    private static Field campo(List<Field> campos, String nombre) {
+        return campos.stream().filter(campo -> campo.getName().equals(nombre)).findFirst().orElseThrow();
+    }
+
+    // Índice de la fila en el diccionario que el lector tiene cargado para ese lote
+    private static String decodificar(ArrowStreamReader lector, VectorSchemaRoot raiz, String columna, int fila) throws IOException {
+        IntVector indices = (IntVector) raiz.getVector(columna);
+        if (indices.isNull(fila)) {
+            return null;
+        }
+        long idDiccionario = indices.getField().getDictionary().getId();
+        VarCharVector valores = (VarCharVector) lector.getDictionaryVectors().get(idDiccionario).getVector();
+        return valores.getObject(indices.get(fila)).toString();
+    }
+
+    private Long registrarProducto(String codigo) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(100);
+        return productoService.registrarProducto(producto).getId();
+    }
+}
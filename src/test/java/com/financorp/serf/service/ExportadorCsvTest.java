@@ -0,0 +1,53 @@
+package com.financorp.serf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExportadorCsvTest {
+
+    // El top se exporta desde memoria: no necesita repositorios ni transacciones
+    private final ExportadorCsv exportador = new ExportadorCsv(null, null, null, null);
+
+    @Test
+    public void testCeldasQueEmpiezanComoFormulaSeEscribenComoTexto() {
+        // Datos de prueba: nombres con =, +, -, @, tabulador y una fórmula con comas
+        List<Map<String, Object>> top = List.of(
+            fila(1, "=1+1", "+SUMA", new BigDecimal("-12.50")),
+            fila(2, "-2", "@cmd", new BigDecimal("3.00")),
+            fila(3, "\tTab", "=HYPERLINK(\"http://x\",\"a\")", new BigDecimal("0.10")),
+            fila(4, "Normal", "a=b", BigDecimal.ZERO));
+
+        // Ejecutar prueba
+        String csv = escribir(top);
+
+        // Verificar resultado: los números negativos no se alteran
+        assertEquals("posicion,codigo,nombre,ingresosEUR\r\n"
+            + "1,'=1+1,'+SUMA,-12.50\r\n"
+            + "2,'-2,'@cmd,3.00\r\n"
+            + "3,'\tTab,\"'=HYPERLINK(\"\"http://x\"\",\"\"a\"\")\",0.10\r\n"
+            + "4,Normal,a=b,0\r\n", csv);
+    }
+
+    private String escribir(List<Map<String, Object>> top) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.escribirTop(List.of("posicion", "codigo", "nombre", "ingresosEUR"), top, salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Object> fila(int posicion, String codigo, String nombre, BigDecimal ingresos) {
+        Map<String, Object> fila = new LinkedHashMap<>();
+        fila.put("posicion", posicion);
+        fila.put("codigo", codigo);
+        fila.put("nombre", nombre);
+        fila.put("ingresosEUR", ingresos);
+        return fila;
+    }
+}
@@ -0,0 +1,62 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FiltroFacturasTest {
+
+    private static final int CAPACIDAD = 30_000;
+    private static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+
+    private final VentaRepository ventaRepository = mock(VentaRepository.class);
+    private final FiltroFacturas filtro = new FiltroFacturas(ventaRepository,
+        new TransactionTemplate(mock(PlatformTransactionManager.class)), CAPACIDAD, PROBABILIDAD_FALSO_POSITIVO);
+
+    @Test
+    public void testAntesDeLaCargaTodoEsPosibleDuplicado() {
+        assertTrue(filtro.podriaExistir("F-000001"));
+    }
+
+    @Test
+    public void testSinFalsosNegativos() {
+        // Datos de prueba: 10 000 facturas en base de datos y 20 000 registradas después
+        when(ventaRepository.streamNumerosFactura())
+            .thenReturn(IntStream.range(0, 10_000).mapToObj(i -> "F-" + i));
+        filtro.reconstruir();
+        for (int i = 10_000; i < CAPACIDAD; i++) {
+            filtro.agregar("F-" + i);
+        }
+
+        // Verificar resultado: toda factura registrada se detecta como posible duplicado
+        assertEquals(CAPACIDAD, filtro.getElementos());
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertTrue(filtro.podriaExistir("F-" + i), "Falso negativo para F-" + i);
+        }
+    }
+
+    @Test
+    public void testTasaDeFalsosPositivosDentroDeLoDimensionado() {
+        when(ventaRepository.streamNumerosFactura())
+            .thenReturn(IntStream.range(0, CAPACIDAD).mapToObj(i -> "F-" + i));
+        filtro.reconstruir();
+
+        // Ejecutar prueba: 100 000 números que no se registraron nunca
+        int ausentes = 100_000;
+        long falsosPositivos = IntStream.range(0, ausentes)
+            .filter(i -> filtro.podriaExistir("NUEVA-" + i))
+            .count();
+
+        // Verificar resultado: con el filtro lleno, cerca del 1 % configurado
+        assertTrue(falsosPositivos < ausentes * PROBABILIDAD_FALSO_POSITIVO * 2,
+            "Falsos positivos: " + falsosPositivos);
+    }
+}
@@ -0,0 +1,134 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "serf.importacion.tamano-bloque=2"})
+public class ImportacionVentasServiceTest {
+
+    @Autowired
+    private ImportacionVentasService importacionVentasService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportaNdjsonRechazandoLineasInvalidas() throws Exception {
+        // Datos de prueba: 4 ventas válidas, una línea ilegible y una línea en blanco
+        Long productoId = registrarProducto("IMP-001");
+        String ndjson = lineaJson("IMP-A1", productoId) + "\n"
+            + "{no es json\n"
+            + "\n"
+            + lineaJson("IMP-A2", productoId) + "\n"
+            + lineaJson("IMP-A3", productoId) + "\n"
+            + lineaJson("IMP-A4", productoId) + "\n";
+
+        // Ejecutar prueba
+        Map<String, Object> resumen = importacionVentasService.importar("imp-ndjson", entrada(ndjson), false, 0);
+
+        // Verificar resultado
+        assertEquals("COMPLETADA", resumen.get("estado"));
+        assertEquals(4L, resumen.get("registradas"));
+        assertEquals(1L, resumen.get("rechazadas"));
+        assertEquals(6L, resumen.get("ultimaLineaConfirmada"));
+        assertTrue(((List<String>) resumen.get("errores")).get(0).startsWith("Línea 2:"));
+        assertEquals(96, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    @Test
+    public void testImportaCsvConCamposEntreComillas() throws Exception {
+        Long productoId = registrarProducto("IMP-002");
+        String csv = "numeroFactura,productoId,cantidad,precioUnitario,monedaLocal,paisFilial,cliente\n"
+            + "IMP-B1," + productoId + ",2,10.50,USD,Perú,\"Pérez, Juan\"\n"
+            + "IMP-B2," + productoId + ",1,3.00,PEN,Perú,\"Dice \"\"hola\"\"\"\n";
+
+        Map<String, Object> resumen = importacionVentasService.importar("imp-csv", entrada(csv), true, 0);
+
+        assertEquals(2L, resumen.get("registradas"));
+        assertEquals(0L, resumen.get("rechazadas"));
+        assertEquals(97, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    @Test
+    public void testFalloConservaCheckpointYSeReanuda() throws Exception {
+        // Datos de prueba: 5 ventas; la conexión se corta tras la cuarta línea
+        Long productoId = registrarProducto("IMP-003");
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            ndjson.append(lineaJson("IMP-C" + i, productoId)).append('\n');
+        }
+        byte[] completo = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+        String hastaQuinta = ndjson.substring(0, ndjson.indexOf(lineaJson("IMP-C5", productoId)));
+        int corte = hastaQuinta.getBytes(StandardCharsets.UTF_8).length + 10;
+
+        // Ejecutar prueba
+        assertThrows(IOException.class,
+            () -> importacionVentasService.importar("imp-corte", entradaCortada(completo, corte), false, 0));
+
+        // Verificar resultado: confirmados los dos primeros bloques de 2 líneas
+        Map<String, Object> progreso = importacionVentasService.obtenerProgreso("imp-corte");
+        assertEquals("FALLIDA", progreso.get("estado"));
+        assertEquals(4L, progreso.get("ultimaLineaConfirmada"));
+        assertEquals(4L, progreso.get("registradas"));
+        assertNotNull(progreso.get("error"));
+
+        // Reanudar con el mismo archivo desde la última línea confirmada: sin duplicados
+        Map<String, Object> reanudada = importacionVentasService.importar(
+            "imp-corte", new ByteArrayInputStream(completo), false, (Long) progreso.get("ultimaLineaConfirmada"));
+        assertEquals(1L, reanudada.get("registradas"));
+        assertEquals(0L, reanudada.get("rechazadas"));
+        assertEquals(95, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    private Long registrarProducto(String codigo) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(100);
+        return productoService.registrarProducto(producto).getId();
+    }
+
+    private static String lineaJson(String numeroFactura, Long productoId) {
+        return "{\"numeroFactura\":\"" + numeroFactura + "\",\"producto\":{\"id\":" + productoId + "},"
+            + "\"cantidad\":1,\"precioUnitario\":5.00,\"monedaLocal\":\"USD\",\"paisFilial\":\"Perú\"}";
+    }
+
+    private static InputStream entrada(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Devuelve los primeros bytes y después falla como una conexión interrumpida
+     */
+    private static InputStream entradaCortada(byte[] contenido, int corte) {
+        return new InputStream() {
+            private int posicion;
+
+            @Override
+            public int read() throws IOException {
+                if (posicion >= corte) {
+                    throw new IOException("Conexión interrumpida");
+                }
+                return contenido[posicion++] & 0xFF;
+            }
+        };
+    }
+}
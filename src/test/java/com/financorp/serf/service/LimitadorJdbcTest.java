@@ -0,0 +1,90 @@
+package com.financorp.serf.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LimitadorJdbcTest {
+
+    @Test
+    public void testNoSuperaLaConcurrenciaMaxima() throws Exception {
+        // Datos de prueba: 2 permisos y 20 trabajos en hilos virtuales
+        LimitadorJdbc limitador = new LimitadorJdbc(2, 10_000);
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+
+        // Ejecutar prueba
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                int trabajo = i;
+                resultados.add(ejecutor.submit(() -> limitador.ejecutar(() -> {
+                    maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+                    try {
+                        salida.await(50, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    enCurso.decrementAndGet();
+                    return trabajo;
+                })));
+            }
+        }
+
+        // Verificar resultado: todos terminan y nunca hubo más de 2 a la vez
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, resultados.get(i).get());
+        }
+        assertEquals(2, maximo.get());
+        assertEquals(2, limitador.getPermisosDisponibles());
+    }
+
+    @Test
+    public void testRechazaTrasLaEsperaMaxima() throws Exception {
+        LimitadorJdbc limitador = new LimitadorJdbc(1, 50);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Thread ocupante = Thread.ofVirtual().start(() -> limitador.ejecutar(() -> {
+            ocupado.countDown();
+            try {
+                return liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+
+        // Ejecutar prueba
+        RuntimeException error = assertThrows(RuntimeException.class, () -> limitador.ejecutar(() -> 1));
+
+        // Verificar resultado
+        assertEquals("Demasiados reportes en curso, intente más tarde", error.getMessage());
+        liberar.countDown();
+        ocupante.join();
+        assertEquals(1, limitador.getPermisosDisponibles());
+    }
+
+    @Test
+    public void testLiberaElPermisoSiElTrabajoFalla() {
+        LimitadorJdbc limitador = new LimitadorJdbc(1, 50);
+
+        assertThrows(IllegalStateException.class, () -> limitador.ejecutar(() -> {
+            throw new IllegalStateException("fallo");
+        }));
+
+        assertEquals(1, limitador.getPermisosDisponibles());
+        assertEquals(7, limitador.ejecutar(() -> 7));
+    }
+}
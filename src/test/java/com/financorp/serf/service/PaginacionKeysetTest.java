@@ -0,0 +1,78 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class PaginacionKeysetTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecorreVentasConLaMismaFechaSinSaltosNiRepetidos() {
+        // Datos de prueba: 7 ventas con idéntica fecha, posterior a la de cualquier otra venta
+        Producto producto = new Producto();
+        producto.setCodigo("PAG-001");
+        producto.setNombre("Producto PAG-001");
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(100);
+        Long productoId = productoService.registrarProducto(producto).getId();
+        LocalDateTime fecha = LocalDateTime.of(2099, 1, 1, 0, 0);
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Venta venta = VentaServiceLoteTest.venta("PAG-V" + i, productoId, 1);
+            venta.setFechaVenta(fecha);
+            ventas.add(venta);
+        }
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba: páginas de 3, que parten el grupo de ventas con la misma fecha
+        List<Long> recorridas = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, Object> resultado = ventaService.listarPagina(cursor, 3);
+            for (Venta venta : (List<Venta>) resultado.get("elementos")) {
+                recorridas.add(venta.getId());
+            }
+            cursor = (String) resultado.get("siguienteCursor");
+        } while (cursor != null && recorridas.size() < 7);
+
+        // Verificar resultado: a igual fecha, orden por ID descendente y cada venta una sola vez
+        List<Long> esperadas = ventas.stream()
+            .map(Venta::getId)
+            .sorted(Comparator.reverseOrder())
+            .toList();
+        assertTrue(recorridas.size() >= 7);
+        assertEquals(esperadas, recorridas.subList(0, 7));
+    }
+
+    @Test
+    public void testCursorConSeparadorEnLaClave() {
+        CursorKeyset cursor = new CursorKeyset("A|B|C", 42L);
+
+        CursorKeyset decodificado = CursorKeyset.decodificar(cursor.codificar());
+
+        assertEquals(cursor, decodificado);
+        assertThrows(IllegalArgumentException.class, () -> CursorKeyset.decodificar("no-es-un-cursor"));
+    }
+}
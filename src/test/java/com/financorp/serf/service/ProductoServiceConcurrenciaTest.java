@@ -0,0 +1,73 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class ProductoServiceConcurrenciaTest {
+
+    private static final int HILOS = 64;
+    private static final int VENTAS_POR_HILO = 20;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    public void testDescuentoConcurrenteDeStock() throws Exception {
+        // Datos de prueba: menos stock que unidades solicitadas en total
+        int stockInicial = 1000;
+        Producto producto = new Producto();
+        producto.setCodigo("CONC-001");
+        producto.setNombre("Producto concurrido");
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(stockInicial);
+        Long id = productoService.registrarProducto(producto).getId();
+
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger sinStock = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Ejecutar prueba: 64 hilos vendiendo el mismo producto a la vez
+        for (int h = 0; h < HILOS; h++) {
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                for (int i = 0; i < VENTAS_POR_HILO; i++) {
+                    try {
+                        productoService.actualizarStock(id, 1);
+                        exitosas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertEquals("Stock insuficiente", e.getMessage());
+                        sinStock.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+
+        // Verificar resultado: ninguna actualización perdida ni stock negativo
+        assertEquals(stockInicial, exitosas.get());
+        assertEquals(HILOS * VENTAS_POR_HILO - stockInicial, sinStock.get());
+        assertEquals(0, productoService.obtenerPorId(id).getStockActual());
+    }
+}
@@ -0,0 +1,171 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Cada prueba usa ventas de un año propio para no depender del resto de datos de la base compartida
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class ReporteServiceTest {
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReporteMensualDesdeElResumenDiario() {
+        // Datos de prueba: tres ventas en dos días y dos países de febrero de 2003
+        Long productoId = registrarProducto("REP-007", 100);
+        List<Venta> ventas = List.of(
+            venta("REP-F1", productoId, 1, LocalDateTime.of(2003, 2, 3, 10, 0), "Perú"),
+            venta("REP-F2", productoId, 2, LocalDateTime.of(2003, 2, 3, 18, 30), "México"),
+            venta("REP-F3", productoId, 3, LocalDateTime.of(2003, 2, 20, 9, 15), "Perú"),
+            venta("REP-F4", productoId, 4, LocalDateTime.of(2003, 3, 1, 0, 0), "Perú"));
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba
+        Map<String, Object> reporte = reporteService.generarReporteMensual(LocalDate.of(2003, 2, 15));
+
+        // Verificar resultado: la venta de marzo queda fuera
+        assertEquals(3L, reporte.get("totalVentas"));
+        assertEquals(6L, reporte.get("unidadesVendidas"));
+        assertEquals(0, totalEUR(ventas.subList(0, 3)).compareTo((BigDecimal) reporte.get("montoTotal")));
+        Map<String, Map<String, Object>> porDia = (Map<String, Map<String, Object>>) reporte.get("ventasPorDia");
+        assertEquals(2L, porDia.get("2003-02-03").get("totalVentas"));
+        assertEquals(3L, porDia.get("2003-02-20").get("unidadesVendidas"));
+        Map<String, Map<String, Object>> porPais = (Map<String, Map<String, Object>>) reporte.get("ventasPorPais");
+        assertEquals(4L, porPais.get("Perú").get("unidadesVendidas"));
+        assertEquals(2L, porPais.get("México").get("unidadesVendidas"));
+
+        // El resumen mantenido al registrar coincide con el recalculado desde la tabla de ventas
+        ventaDiariaService.reconstruir();
+        assertEquals(reporte, reporteService.generarReporteMensual(LocalDate.of(2003, 2, 15)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReportePorPeriodoAgregaEnBaseDeDatos() {
+        // Datos de prueba: marzo de 2004, con y sin método de pago
+        Long productoId = registrarProducto("REP-008", 100);
+        Venta efectivo = venta("REP-G1", productoId, 2, LocalDateTime.of(2004, 3, 10, 12, 0), "Perú");
+        efectivo.setMetodoPago(Venta.MetodoPago.EFECTIVO);
+        Venta tarjeta = venta("REP-G2", productoId, 1, LocalDateTime.of(2004, 3, 31, 23, 59, 30), "Chile");
+        tarjeta.setMetodoPago(Venta.MetodoPago.TARJETA);
+        Venta sinMetodo = venta("REP-G3", productoId, 5, LocalDateTime.of(2004, 3, 10, 8, 0), "Perú");
+        Venta fuera = venta("REP-G4", productoId, 7, LocalDateTime.of(2004, 4, 1, 0, 0), "Perú");
+        List<Venta> ventas = List.of(efectivo, tarjeta, sinMetodo, fuera);
+        ventaService.registrarLote(ventas);
+
+        // Ejecutar prueba
+        Map<String, Object> reporte = reporteService.generarReporteVentasPorPeriodo(
+            LocalDate.of(2004, 3, 1), LocalDate.of(2004, 3, 31), true);
+
+        // Verificar resultado
+        assertEquals(3L, reporte.get("totalVentas"));
+        assertEquals(8L, reporte.get("unidadesVendidas"));
+        assertEquals(0, totalEUR(ventas.subList(0, 3)).compareTo((BigDecimal) reporte.get("montoTotal")));
+        Map<String, Map<String, Object>> porMetodo = (Map<String, Map<String, Object>>) reporte.get("ventasPorMetodoPago");
+        assertEquals(List.of("EFECTIVO", "SIN_ESPECIFICAR", "TARJETA"), List.copyOf(porMetodo.keySet()));
+        assertEquals(5L, porMetodo.get("SIN_ESPECIFICAR").get("unidadesVendidas"));
+        Map<String, Map<String, Object>> porPais = (Map<String, Map<String, Object>>) reporte.get("ventasPorPais");
+        assertEquals(2L, porPais.get("Perú").get("totalVentas"));
+        assertEquals(1L, porPais.get("Chile").get("totalVentas"));
+        Map<String, Map<String, Object>> porDia = (Map<String, Map<String, Object>>) reporte.get("ventasPorDia");
+        assertEquals(List.of("2004-03-10", "2004-03-31"), List.copyOf(porDia.keySet()));
+        assertEquals(3, ((List<Venta>) reporte.get("ventas")).size());
+
+        // Sin el listado solo se devuelven los agregados
+        assertFalse(reporteService.generarReporteVentasPorPeriodo(
+            LocalDate.of(2004, 3, 1), LocalDate.of(2004, 3, 31), false).containsKey("ventas"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTopProductosDesempataPorIngresosYPorId() {
+        // Datos de prueba: A, B y C venden 5 unidades; B ingresa más; A y C empatan en todo
+        Long a = registrarProducto("REP-012A", 100);
+        Long b = registrarProducto("REP-012B", 100);
+        Long c = registrarProducto("REP-012C", 100);
+        Long d = registrarProducto("REP-012D", 100);
+        LocalDateTime fecha = LocalDateTime.of(2006, 7, 1, 12, 0);
+        Venta caraB = venta("REP-K3", b, 5, fecha, "Perú");
+        caraB.setPrecioUnitario(new BigDecimal("2.00"));
+        ventaService.registrarLote(List.of(
+            venta("REP-K1", a, 2, fecha, "Perú"),
+            venta("REP-K2", a, 3, fecha, "Perú"),
+            caraB,
+            venta("REP-K4", c, 5, fecha, "Perú"),
+            venta("REP-K5", d, 3, fecha, "Perú")));
+
+        // Ejecutar prueba
+        Map<String, Object> top2 = reporteService.generarReporteTopProductos(2, LocalDate.of(2006, 7, 1), LocalDate.of(2006, 7, 31));
+        Map<String, Object> top3 = reporteService.generarReporteTopProductos(3, LocalDate.of(2006, 7, 1), LocalDate.of(2006, 7, 31));
+        Map<String, Object> top10 = reporteService.generarReporteTopProductos(10, LocalDate.of(2006, 7, 1), LocalDate.of(2006, 7, 31));
+
+        // Verificar resultado: el empate completo lo gana el ID menor, sea cual sea k
+        assertEquals(List.of(b, a), productos(top2));
+        assertEquals(List.of(b, a, c), productos(top3));
+        assertEquals(List.of(b, a, c, d), productos(top10));
+        assertEquals(5L, top2.get("totalVentas"));
+        Map<String, Object> primero = ((List<Map<String, Object>>) top10.get("topProductos")).get(0);
+        assertEquals(1, primero.get("posicion"));
+        assertEquals("REP-012B", primero.get("codigo"));
+        assertEquals(5L, primero.get("unidadesVendidas"));
+        // Los ingresos se presentan redondeados como el resto de montos del reporte
+        assertEquals(2, ((BigDecimal) primero.get("ingresosEUR")).scale());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> productos(Map<String, Object> reporte) {
+        return ((List<Map<String, Object>>) reporte.get("topProductos")).stream()
+            .map(item -> (Long) item.get("productoId"))
+            .toList();
+    }
+
+    private Long registrarProducto(String codigo, int stock) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(stock);
+        return productoService.registrarProducto(producto).getId();
+    }
+
+    private static Venta venta(String numeroFactura, Long productoId, int cantidad, LocalDateTime fecha, String pais) {
+        Venta venta = VentaServiceLoteTest.venta(numeroFactura, productoId, cantidad);
+        venta.setFechaVenta(fecha);
+        venta.setPaisFilial(pais);
+        return venta;
+    }
+
+    private static BigDecimal totalEUR(List<Venta> ventas) {
+        return ventas.stream()
+            .map(Venta::getTotalVentaEUR)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
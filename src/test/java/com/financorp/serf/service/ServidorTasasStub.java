@@ -0,0 +1,75 @@
+package com.financorp.serf.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP embebido que responde a /tasas con un JSON fijo, para probar
+ * {@link TasaCambioProviderHttp} sin red. Se puede retrasar la respuesta, o solo el cuerpo
+ * tras enviar las cabeceras, para simular una API lenta.
+ */
+public class ServidorTasasStub implements AutoCloseable {
+
+    private final HttpServer servidor;
+    // Un hilo por petición: al cerrar se interrumpen las respuestas retrasadas
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile String cuerpo;
+    private volatile long retardoMs;
+    private volatile long retardoCuerpoMs;
+
+    public ServidorTasasStub(String cuerpo) throws IOException {
+        this.cuerpo = cuerpo;
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        servidor.createContext("/tasas", intercambio -> {
+            try {
+                Thread.sleep(retardoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] datos = this.cuerpo.getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, datos.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(datos, 0, datos.length / 2);
+                salida.flush();
+                Thread.sleep(retardoCuerpoMs);
+                salida.write(datos, datos.length / 2, datos.length - datos.length / 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // El cliente abandonó la petición por tiempo de espera
+            }
+        });
+        servidor.setExecutor(hilos);
+        servidor.start();
+    }
+
+    public String url() {
+        return "http://" + servidor.getAddress().getHostString() + ":" + servidor.getAddress().getPort() + "/tasas";
+    }
+
+    public void setCuerpo(String cuerpo) {
+        this.cuerpo = cuerpo;
+    }
+
+    public void setRetardoMs(long retardoMs) {
+        this.retardoMs = retardoMs;
+    }
+
+    public void setRetardoCuerpoMs(long retardoCuerpoMs) {
+        this.retardoCuerpoMs = retardoCuerpoMs;
+    }
+
+    @Override
+    public void close() {
+        hilos.shutdownNow();
+        servidor.stop(0);
+    }
+}
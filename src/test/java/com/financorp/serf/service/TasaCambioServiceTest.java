@@ -0,0 +1,140 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VersionTasasCambioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Usa la moneda de pruebas XTS (ISO 4217) para no alterar las conversiones de otras pruebas
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class TasaCambioServiceTest {
+
+    @Autowired
+    private TasaCambioService tasaCambioService;
+
+    @Autowired
+    private VersionTasasCambioRepository versionRepository;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ConfiguracionGlobal configuracion = ConfiguracionGlobal.getInstance();
+
+    @Test
+    public void testLaVersionSeConservaAlRecargarYNoSeRepite() {
+        long anterior = configuracion.getTablaTasasCambio().version();
+
+        // Ejecutar prueba
+        Map<String, Object> registro = tasaCambioService.registrarTasas(LocalDate.of(1990, 1, 1), Map.of("XTS", new BigDecimal("2.5")));
+
+        // Verificar resultado: la versión publicada es la persistida
+        long version = (Long) registro.get("version");
+        assertTrue(version > anterior);
+        assertEquals(version, configuracion.getTablaTasasCambio().version());
+        assertEquals(version, versionRepository.findTopByOrderByIdDesc().orElseThrow().getId());
+
+        // Un reinicio vuelve a cargar el historial con la misma versión, no con la 1
+        tasaCambioService.cargar();
+        assertEquals(version, configuracion.getTablaTasasCambio().version());
+        assertEquals(0, new BigDecimal("2.5").compareTo(configuracion.getTablaTasasCambio().tasa("XTS", LocalDate.of(1990, 6, 1))));
+
+        // Y el siguiente registro toma una versión nueva
+        long siguiente = (Long) tasaCambioService.registrarTasas(LocalDate.of(1990, 1, 1), Map.of("XTS", new BigDecimal("2.6"))).get("version");
+        assertTrue(siguiente > version);
+    }
+
+    @Test
+    public void testLaVentaGuardaLaVersionPersistida() {
+        Long productoId = registrarProducto("TCV-021");
+        long version = (Long) tasaCambioService.registrarTasas(LocalDate.of(1990, 1, 1), Map.of("XTS", new BigDecimal("3"))).get("version");
+        Venta venta = VentaServiceLoteTest.venta("TCV-F1", productoId, 1);
+
+        ventaService.registrarLote(List.of(venta));
+
+        assertEquals(version, venta.getVersionTasasCambio());
+    }
+
+    @Test
+    public void testCodigosEnMinusculasYTasasEnterasAlRecargar() {
+        // Ejecutar prueba: código en minúsculas y una tasa sin decimales
+        Map<String, Object> registro = tasaCambioService.registrarTasas(LocalDate.of(1991, 1, 1), Map.of(" xts ", new BigDecimal("10")));
+        tasaCambioService.cargar();
+
+        // Verificar resultado: en la base de datos es 10.000000000000; al cargar queda 10, no 1E+1
+        assertEquals(Map.of("XTS", new BigDecimal("10")), registro.get("tasas"));
+        BigDecimal tasa = configuracion.getTablaTasasCambio().tasa("XTS", LocalDate.of(1991, 6, 1));
+        assertEquals(0, tasa.scale());
+        assertEquals("10", tasa.toPlainString());
+    }
+
+    private Long registrarProducto(String codigo) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(10);
+        return productoService.registrarProducto(producto).getId();
+    }
+
+    @Test
+    public void testRegistrosSolapadosPublicanLaVersionEnOrden() throws Exception {
+        // Datos de prueba: un primer registro cuya transacción tarda en confirmarse
+        CountDownLatch registrada = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        CompletableFuture<Long> primera = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Map<String, Object> registro = tasaCambioService.registrarTasas(LocalDate.of(1980, 1, 1), Map.of("XTS", new BigDecimal("3.1")));
+            registrada.countDown();
+            try {
+                confirmar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return (Long) registro.get("version");
+        }));
+        assertTrue(registrada.await(5, TimeUnit.SECONDS));
+
+        // Ejecutar prueba: un segundo registro (p. ej. el del refresco automático) se solapa
+        CompletableFuture<Long> segunda = CompletableFuture.supplyAsync(() ->
+            (Long) tasaCambioService.registrarTasas(LocalDate.of(1981, 1, 1), Map.of("XTS", new BigDecimal("3.2"))).get("version"));
+        Thread.sleep(200);
+        assertFalse(segunda.isDone());
+        confirmar.countDown();
+        long versionPrimera = primera.get(5, TimeUnit.SECONDS);
+        long versionSegunda = segunda.get(5, TimeUnit.SECONDS);
+
+        // Verificar resultado: la última versión publicada contiene las tasas de ambos registros
+        assertTrue(versionSegunda > versionPrimera);
+        assertEquals(versionSegunda, configuracion.getTablaTasasCambio().version());
+        assertEquals(0, new BigDecimal("3.1").compareTo(configuracion.getTablaTasasCambio().tasa("XTS", LocalDate.of(1980, 6, 1))));
+        assertEquals(0, new BigDecimal("3.2").compareTo(configuracion.getTablaTasasCambio().tasa("XTS", LocalDate.of(1981, 6, 1))));
+
+        // Una publicación con una versión anterior no hace retroceder la tabla
+        configuracion.actualizarTasasCambio(versionPrimera, LocalDate.of(1979, 1, 1), Map.of("XTS", new BigDecimal("3.0")));
+        assertEquals(versionSegunda, configuracion.getTablaTasasCambio().version());
+    }
+}
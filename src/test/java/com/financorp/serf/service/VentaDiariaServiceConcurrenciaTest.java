@@ -0,0 +1,77 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class VentaDiariaServiceConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final int DIAS = 20;
+
+    @Autowired
+    private VentaDiariaService ventaDiariaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    public void testCreacionConcurrenteDeLaMismaFilaDelResumen() throws Exception {
+        // Datos de prueba: días de 1972 sin fila previa en el resumen, la mitad sin método de pago
+        Producto producto = new Producto();
+        producto.setCodigo("CONC-002");
+        producto.setNombre("Producto del resumen concurrido");
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(0);
+        Long productoId = productoService.registrarProducto(producto).getId();
+        LocalDate primerDia = LocalDate.of(1972, 1, 1);
+
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Ejecutar prueba: todos los hilos crean a la vez la fila de cada día
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                for (int d = 0; d < DIAS; d++) {
+                    Venta venta = VentaServiceLoteTest.venta("CONC-R-" + hilo + "-" + d, productoId, 1);
+                    venta.setFechaVenta(primerDia.plusDays(d).atTime(12, 0));
+                    venta.setTotalVentaEUR(new BigDecimal("1.000000"));
+                    venta.setMetodoPago(d % 2 == 0 ? null : Venta.MetodoPago.EFECTIVO);
+                    ventaDiariaService.acumular(venta);
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        executor.shutdown();
+
+        // Verificar resultado: ninguna venta perdida ni rechazada por clave duplicada
+        for (int d = 0; d < DIAS; d++) {
+            LocalDate dia = primerDia.plusDays(d);
+            assertEquals(HILOS, ventaDiariaService.totalizar(dia, dia).getNumeroVentas());
+        }
+        assertEquals(0, new BigDecimal(HILOS * DIAS).compareTo(
+            ventaDiariaService.totalizar(primerDia, primerDia.plusDays(DIAS - 1)).getTotalEUR()));
+    }
+}
@@ -0,0 +1,169 @@
+package com.financorp.serf.service;
+
+import com.financorp.serf.config.ConfiguracionGlobal;
+import com.financorp.serf.model.Producto;
+import com.financorp.serf.model.Venta;
+import com.financorp.serf.repository.VentaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class VentaServiceLoteTest {
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLoteRechazaFilasSinAbortarElResto() {
+        // Datos de prueba: stock para 5 unidades
+        Long productoId = registrarProducto("LOTE-001", 5);
+        List<Venta> ventas = new ArrayList<>();
+        ventas.add(venta("LOTE-F1", productoId, 2));
+        ventas.add(venta("LOTE-F1", productoId, 1));      // factura repetida en el lote
+        ventas.add(venta("LOTE-F2", productoId, 3));
+        ventas.add(venta("LOTE-F3", productoId, 1));      // ya no queda stock
+        ventas.add(venta("LOTE-F4", 999_999_999L, 1));    // producto inexistente
+        Venta sinCantidad = venta("LOTE-F5", productoId, 1);
+        sinCantidad.setCantidad(0);
+        ventas.add(sinCantidad);
+
+        // Ejecutar prueba
+        Map<String, Object> resumen = ventaService.registrarLote(ventas);
+
+        // Verificar resultado
+        assertEquals(6, resumen.get("total"));
+        assertEquals(2, resumen.get("registradas"));
+        assertEquals(4, resumen.get("rechazadas"));
+        List<Map<String, Object>> resultados = (List<Map<String, Object>>) resumen.get("resultados");
+        assertEquals("REGISTRADA", resultados.get(0).get("estado"));
+        assertNotNull(resultados.get(0).get("id"));
+        assertTrue(((String) resultados.get(1).get("error")).startsWith("Factura duplicada"));
+        assertEquals("REGISTRADA", resultados.get(2).get("estado"));
+        assertEquals("Stock insuficiente", resultados.get(3).get("error"));
+        assertTrue(((String) resultados.get(4).get("error")).startsWith("Producto no encontrado"));
+        assertEquals("RECHAZADA", resultados.get(5).get("estado"));
+
+        // El stock se descontó una sola vez por producto con la suma de las filas aceptadas
+        assertEquals(0, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLoteRechazaFacturasYaRegistradas() {
+        Long productoId = registrarProducto("LOTE-002", 100);
+        ventaService.registrarLote(List.of(venta("LOTE-G1", productoId, 1)));
+
+        // Ejecutar prueba: la misma factura en un segundo lote
+        Map<String, Object> resumen = ventaService.registrarLote(
+            List.of(venta("LOTE-G1", productoId, 1), venta("LOTE-G2", productoId, 1)));
+
+        // Verificar resultado
+        List<Map<String, Object>> resultados = (List<Map<String, Object>>) resumen.get("resultados");
+        assertEquals("RECHAZADA", resultados.get(0).get("estado"));
+        assertEquals("REGISTRADA", resultados.get(1).get("estado"));
+        assertEquals(98, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    @Test
+    public void testLoteMayorQueElBatchJdbc() {
+        // Más filas que el tamaño de bloque de inserción (batch_size = 50)
+        Long productoId = registrarProducto("LOTE-003", 1000);
+        List<Venta> ventas = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ventas.add(venta("LOTE-H" + i, productoId, 1));
+        }
+
+        Map<String, Object> resumen = ventaService.registrarLote(ventas);
+
+        assertEquals(120, resumen.get("registradas"));
+        assertEquals(880, productoService.obtenerPorId(productoId).getStockActual());
+        BigDecimal esperado = ConfiguracionGlobal.getInstance()
+            .convertirAMonedaCorporativa(new BigDecimal("1.00"), "USD", LocalDate.now());
+        assertEquals(0, esperado.compareTo(ventas.get(119).getPrecioUnitarioEUR()));
+    }
+
+    @Test
+    public void testAplicarDiarioConservaImportesConfirmadosYOmiteReaplicadas() {
+        // Datos de prueba: importes en EUR ya confirmados con otra versión de tasas
+        Long productoId = registrarProducto("LOTE-004", 10);
+        Venta anotada = venta("LOTE-J1", productoId, 2);
+        anotada.setPrecioUnitarioEUR(new BigDecimal("0.50"));
+        anotada.setVersionTasasCambio(7L);
+
+        // Ejecutar prueba: la segunda aplicación simula la reaplicación tras un reinicio
+        int insertadas = ventaService.aplicarDiario(List.of(anotada));
+        int reaplicadas = ventaService.aplicarDiario(List.of(venta("LOTE-J1", productoId, 2)));
+
+        // Verificar resultado
+        assertEquals(1, insertadas);
+        assertEquals(0, reaplicadas);
+        Venta guardada = ventaRepository.findById(anotada.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("0.50").compareTo(guardada.getPrecioUnitarioEUR()));
+        assertEquals(0, new BigDecimal("1.00").compareTo(guardada.getTotalVentaEUR()));
+        assertEquals(7L, guardada.getVersionTasasCambio());
+        assertEquals(8, productoService.obtenerPorId(productoId).getStockActual());
+    }
+
+    private Long registrarProducto(String codigo, int stock) {
+        Producto producto = new Producto();
+        producto.setCodigo(codigo);
+        producto.setNombre("Producto " + codigo);
+        producto.setCostoImportacion(new BigDecimal("10.00"));
+        producto.setMonedaOrigen("USD");
+        producto.setStockInicial(stock);
+        return productoService.registrarProducto(producto).getId();
+    }
+
+    @Test
+    public void testVentasSinFechaSonDeHoy() {
+        // Datos de prueba
+        Long productoId = registrarProducto("LOTE-022", 10);
+        Venta individual = venta("LOTE-022-F1", productoId, 1);
+        individual.setFechaVenta(null);
+        Venta enLote = venta("LOTE-022-F2", productoId, 1);
+        enLote.setFechaVenta(null);
+
+        // Ejecutar prueba
+        ventaService.registrarVenta(individual);
+        Map<String, Object> resumen = ventaService.registrarLote(List.of(enLote));
+
+        // Verificar resultado
+        assertEquals(1, resumen.get("registradas"));
+        assertEquals(LocalDate.now(), individual.getFechaVenta().toLocalDate());
+        assertEquals(LocalDate.now(), enLote.getFechaVenta().toLocalDate());
+        assertNotNull(enLote.getPrecioUnitarioEUR());
+    }
+
+    static Venta venta(String numeroFactura, Long productoId, int cantidad) {
+        Producto producto = new Producto();
+        producto.setId(productoId);
+        Venta venta = new Venta();
+        venta.setNumeroFactura(numeroFactura);
+        venta.setFechaVenta(LocalDateTime.now());
+        venta.setProducto(producto);
+        venta.setCantidad(cantidad);
+        venta.setPrecioUnitario(new BigDecimal("1.00"));
+        venta.setMonedaLocal("USD");
+        venta.setPaisFilial("Perú");
+        return venta;
+    }
+}